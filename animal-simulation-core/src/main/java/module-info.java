@@ -0,0 +1,16 @@
+module simulation.animal_simulation {
+    requires static org.jetbrains.annotations;
+    requires java.logging;
+    requires com.fasterxml.jackson.databind;
+
+
+    exports simulation.animal_simulation;
+    exports simulation.animal_simulation.animals;
+    exports simulation.animal_simulation.map;
+    exports simulation.animal_simulation.map.navigation;
+    exports simulation.animal_simulation.map.plants;
+    exports simulation.animal_simulation.map.storage;
+    exports simulation.animal_simulation.random;
+    exports simulation.animal_simulation.scheduling;
+    exports simulation.animal_simulation.statistics;
+}
@@ -0,0 +1,169 @@
+package simulation.animal_simulation;
+
+import org.jetbrains.annotations.NotNull;
+import simulation.animal_simulation.map.Map;
+import simulation.animal_simulation.map.MapSnapshot;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * The HeadlessSimulation class runs the simulation without a window, for batch runs on machines without a display.
+ * It loads the settings from a JSON file exported by the application, does the steps one after another without
+ * waiting between them or drawing the map, and reports how many steps per second it did and the final populations.
+ * It is part of the core module, which does not depend on JavaFX.
+ *
+ * <p>Usage: {@code HeadlessSimulation <settings file> [maximum number of steps]}. Without the maximum number of
+ * steps the simulation runs until there are no more living animals.</p>
+ */
+public class HeadlessSimulation {
+
+    private static final String Usage = "Usage: HeadlessSimulation <settings file> [maximum number of steps]";
+
+    /**
+     * The result of a headless run of the simulation.
+     *
+     * @param stepCount The number of steps done.
+     * @param elapsedNanos The time the steps took in nanoseconds.
+     * @param rabbitCount The number of alive rabbits after the last step.
+     * @param foxCount The number of alive foxes after the last step.
+     * @param grassQuantity The total quantity of grass and thick vegetation after the last step.
+     */
+    public record Result(int stepCount, long elapsedNanos, int rabbitCount, int foxCount, int grassQuantity) {
+
+        /**
+         * @return The number of steps done per second, or 0 if no step was done.
+         */
+        public double getStepsPerSecond() {
+            return elapsedNanos > 0 ? stepCount * 1e9 / elapsedNanos : 0;
+        }
+
+    }
+
+    public static void main(String[] args) throws IllegalAccessException, IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println(Usage);
+            System.exit(2);
+        }
+
+        SimulationSettings simulationSettings = readSettingsOrExit(args[0]);
+        int maxStepCount = args.length > 1 ? parseCountOrExit(args[1], 0, Usage) : Integer.MAX_VALUE;
+
+        Result result = run(simulationSettings, maxStepCount);
+
+        System.out.printf(
+            "steps: %d%ntime: %.3f s%nsteps per second: %.1f%nrabbits: %d%nfoxes: %d%ngrass: %d%n",
+            result.stepCount(), result.elapsedNanos() / 1e9, result.getStepsPerSecond(),
+            result.rabbitCount(), result.foxCount(), result.grassQuantity()
+        );
+    }
+
+    /**
+     * Reads the settings of a batch run from the file. If they cannot be read, it prints why and exits with
+     * status 1, so a batch run never starts with incomplete settings.
+     *
+     * @param filePath The path of the JSON file with the settings.
+     *
+     * @return The settings.
+     */
+    static @NotNull SimulationSettings readSettingsOrExit(@NotNull String filePath) {
+        SimulationSettings simulationSettings = new SimulationSettings();
+        try {
+            simulationSettings.readSimulationSettingsFromFile(filePath);
+        } catch (IOException exception) {
+            System.err.println("Could not read the settings from " + filePath + ": " + exception.getMessage());
+            System.exit(1);
+        }
+        return simulationSettings;
+    }
+
+    /**
+     * Parses a count given on the command line. If it is not an integer of at least the minimum, it prints the usage
+     * and exits with status 2, the same as for a wrong number of arguments.
+     *
+     * @param text The argument.
+     * @param minimum The smallest valid count, which must not be negative.
+     * @param usage The usage of the program.
+     *
+     * @return The count.
+     */
+    static int parseCountOrExit(@NotNull String text, int minimum, @NotNull String usage) {
+        int count = -1;
+        try {
+            count = Integer.parseInt(text);
+        } catch (NumberFormatException exception) {
+            // Reported below the same way as a count that is too small.
+        }
+        if (count < minimum) {
+            System.err.println("Not a valid count: " + text);
+            System.err.println(usage);
+            System.exit(2);
+        }
+        return count;
+    }
+
+    /**
+     * Runs the simulation with the given settings as fast as possible.
+     * The timeout between the steps from the settings is ignored.
+     *
+     * @param simulationSettings The simulation settings.
+     * @param maxStepCount The maximum number of steps. The run stops earlier if there are no more living animals.
+     *
+     * @return The result of the run.
+     *
+     * @throws IllegalAccessException If there is illegal access to a field.
+     * @throws IOException If the file for the cells of the map could not be created or mapped.
+     */
+    public static @NotNull Result run(
+        @NotNull SimulationSettings simulationSettings,
+        int maxStepCount
+    ) throws IllegalAccessException, IOException {
+        return run(simulationSettings, maxStepCount, map -> {});
+    }
+
+    /**
+     * Runs the simulation with the given settings as fast as possible and lets the observer look at the map before
+     * the first step and after every step.
+     * The timeout between the steps from the settings is ignored. The elapsed time starts after the observer looked
+     * at the map before the first step.
+     *
+     * @param simulationSettings The simulation settings.
+     * @param maxStepCount The maximum number of steps. The run stops earlier if there are no more living animals.
+     * @param onStepDone The observer of the map, which must not change it.
+     *
+     * @return The result of the run.
+     *
+     * @throws IllegalAccessException If there is illegal access to a field.
+     * @throws IOException If the file for the cells of the map could not be created or mapped.
+     */
+    public static @NotNull Result run(
+        @NotNull SimulationSettings simulationSettings,
+        int maxStepCount,
+        @NotNull Consumer<Map> onStepDone
+    ) throws IllegalAccessException, IOException {
+        Map map = new Simulation()
+                .prepareSimulation(simulationSettings, new LoggerController(simulationSettings.logsEnabled));
+        try {
+            int stepCount = 0;
+            onStepDone.accept(map);
+            long startTime = System.nanoTime();
+            while (stepCount < maxStepCount && map.hasAliveAnimals()) {
+                map.doNextStep();
+                stepCount++;
+                onStepDone.accept(map);
+            }
+            long elapsedNanos = System.nanoTime() - startTime;
+
+            map.publishSnapshot();
+            try (MapSnapshot snapshot = map.acquireSnapshot()) {
+                return new Result(
+                    stepCount, elapsedNanos,
+                    snapshot.getRabbitCount(), snapshot.getFoxCount(), snapshot.getGrassQuantity()
+                );
+            }
+        } finally {
+            map.close();
+        }
+    }
+
+}
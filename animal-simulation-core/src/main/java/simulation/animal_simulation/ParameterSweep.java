@@ -0,0 +1,251 @@
+package simulation.animal_simulation;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * The ParameterSweep class runs every variant of the simulation settings with every seed as an independent
+ * headless simulation, see {@link HeadlessSimulation}. Every run gets its own virtual thread, and a semaphore
+ * limits how many runs are in progress at once, so the runs can use all the cores without holding the maps of all
+ * the runs in memory at the same time. Every run does its steps on a single thread, whatever the thread count of
+ * its variant, so the number of runs in progress is also the number of busy cores.
+ *
+ * <p>The summary of every run is written as a line of a CSV file as soon as the run has finished, so the lines are
+ * in the order in which the runs finished. A run that fails is written with the message of its error.</p>
+ *
+ * <p>Usage: {@code ParameterSweep <result file> <maximum number of steps> <number of seeds> <settings file>...}.
+ * Every settings file is one variant, and every variant is run with the seeds from 1 to the number of seeds.</p>
+ */
+public class ParameterSweep {
+
+    private static final String Usage =
+        "Usage: ParameterSweep <result file> <maximum number of steps> <number of seeds> <settings file>...";
+    private static final String ResultHeader = "run,variant,seed,mapSize,grassAmount,thickVegetationAmount," +
+        "rabbitShelterIds,foxShelterIds,steps,elapsedMillis,stepsPerSecond,rabbits,foxes,grass,error";
+
+    @NotNull private final List<SimulationSettings> variants;
+    @NotNull private final List<Long> seeds;
+    private final int maxStepCount;
+    private final int maxConcurrentRunCount;
+    @NotNull private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * Creates a sweep over the given variants and seeds.
+     *
+     * @param variants The variants of the settings.
+     * @param seeds The seeds every variant is run with.
+     * @param maxStepCount The maximum number of steps of a run.
+     * @param maxConcurrentRunCount The maximum number of runs in progress at once.
+     *
+     * @throws IllegalArgumentException If there are no variants or seeds or a maximum number is less than 1.
+     */
+    public ParameterSweep(
+        @NotNull List<SimulationSettings> variants,
+        @NotNull List<Long> seeds,
+        int maxStepCount,
+        int maxConcurrentRunCount
+    ) {
+        if (variants.isEmpty() || seeds.isEmpty() || maxStepCount < 1 || maxConcurrentRunCount < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        this.variants = List.copyOf(variants);
+        this.seeds = List.copyOf(seeds);
+        this.maxStepCount = maxStepCount;
+        this.maxConcurrentRunCount = maxConcurrentRunCount;
+    }
+
+
+    /**
+     * @return The number of runs of the sweep.
+     */
+    public int getRunCount() {
+        return variants.size() * seeds.size();
+    }
+
+    /**
+     * Creates the variants of the base settings for every combination of the given values.
+     * The shelter ids of the rabbits and of the foxes are combined as they are, not with each other.
+     *
+     * @param baseSettings The settings whose other values all the variants share.
+     * @param grassAmounts The amounts of grass.
+     * @param thickVegetationAmounts The amounts of thick vegetation.
+     * @param shelterLayouts The layouts of the shelters, each of them the rabbit shelter ids followed by the fox
+     * shelter ids.
+     *
+     * @return The variants, with the grass amounts changing slowest and the shelter layouts fastest.
+     */
+    public static @NotNull List<SimulationSettings> createGrid(
+        @NotNull SimulationSettings baseSettings,
+        @NotNull List<Integer> grassAmounts,
+        @NotNull List<Integer> thickVegetationAmounts,
+        @NotNull List<List<List<Integer>>> shelterLayouts
+    ) {
+        ArrayList<SimulationSettings> variants = new ArrayList<>();
+        for (int grassAmount : grassAmounts) {
+            for (int thickVegetationAmount : thickVegetationAmounts) {
+                for (List<List<Integer>> shelterLayout : shelterLayouts) {
+                    if (shelterLayout.size() != 2) throw new IllegalArgumentException();
+
+                    SimulationSettings variant = baseSettings.copy();
+                    variant.setGrassAmount(grassAmount);
+                    variant.setThickVegetationAmount(thickVegetationAmount);
+                    variant.setRabbitShelterIds(shelterLayout.get(0));
+                    variant.setFoxShelterIds(shelterLayout.get(1));
+                    variants.add(variant);
+                }
+            }
+        }
+        return variants;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 4) {
+            System.err.println(Usage);
+            System.exit(2);
+        }
+        int maxStepCount = HeadlessSimulation.parseCountOrExit(args[1], 1, Usage);
+        int seedCount = HeadlessSimulation.parseCountOrExit(args[2], 1, Usage);
+
+        ArrayList<SimulationSettings> variants = new ArrayList<>();
+        for (int i = 3; i < args.length; i++) {
+            variants.add(HeadlessSimulation.readSettingsOrExit(args[i]));
+        }
+        ArrayList<Long> seeds = new ArrayList<>();
+        for (long seed = 1; seed <= seedCount; seed++) {
+            seeds.add(seed);
+        }
+
+        ParameterSweep sweep = new ParameterSweep(
+            variants, seeds,
+            maxStepCount, Runtime.getRuntime().availableProcessors()
+        );
+        long startTime = System.nanoTime();
+        sweep.run(Path.of(args[0]));
+        System.out.printf(
+            Locale.ROOT, "%d runs in %.3f s%n",
+            sweep.getRunCount(), (System.nanoTime() - startTime) / 1e9
+        );
+    }
+
+    /**
+     * Does all the runs of the sweep and writes their summaries into the result file.
+     * It returns when all the runs have finished.
+     *
+     * @param resultFile The CSV file the summaries are written to. An existing file is overwritten.
+     *
+     * @throws IOException If the result file could not be written. The runs that were started still finish.
+     * @throws InterruptedException If the thread was interrupted while waiting for a free place for a run.
+     */
+    public void run(@NotNull Path resultFile) throws IOException, InterruptedException {
+        Semaphore runPermits = new Semaphore(maxConcurrentRunCount);
+        AtomicReference<IOException> writeException = new AtomicReference<>();
+
+        try (
+            BufferedWriter writer = Files.newBufferedWriter(resultFile);
+            ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()
+        ) {
+            writeLine(writer, ResultHeader);
+
+            int runNumber = 0;
+            for (int variant = 0; variant < variants.size(); variant++) {
+                for (long seed : seeds) {
+                    SimulationSettings simulationSettings = getRunSettings(variants.get(variant), seed);
+                    String runPrefix = (runNumber++) + "," + variant + "," + seed + ",";
+
+                    runPermits.acquire();
+                    executor.execute(() -> {
+                        try {
+                            writeLine(writer, runPrefix + runAndSummarize(simulationSettings));
+                        } catch (IOException exception) {
+                            writeException.compareAndSet(null, exception);
+                        } finally {
+                            runPermits.release();
+                        }
+                    });
+                }
+            }
+        }
+
+        if (writeException.get() != null) throw writeException.get();
+    }
+
+    /**
+     * Returns the settings of a run of the variant. The logs are disabled and the cells of a mapped map are kept
+     * in a temporary file, so the runs do not write into the same log or file. The run uses a single thread, because
+     * the sweep already runs as many runs at once as it may use cores.
+     */
+    private static @NotNull SimulationSettings getRunSettings(@NotNull SimulationSettings variant, long seed) {
+        SimulationSettings simulationSettings = variant.copy();
+        simulationSettings.setSeed(seed);
+        simulationSettings.setLogsEnabled(false);
+        simulationSettings.setMappedGridFilePath(null);
+        simulationSettings.setThreadCount(1);
+        return simulationSettings;
+    }
+
+    /**
+     * Runs the simulation with the settings.
+     *
+     * @return The summary of the run in the columns of the result file that follow the seed.
+     */
+    private @NotNull String runAndSummarize(@NotNull SimulationSettings simulationSettings) {
+        String settingsColumns = String.format(
+            Locale.ROOT, "%d,%d,%d,%s,%s,",
+            simulationSettings.mapSize, simulationSettings.grassAmount, simulationSettings.thickVegetationAmount,
+            joinIds(simulationSettings.rabbitShelterIds), joinIds(simulationSettings.foxShelterIds)
+        );
+
+        try {
+            HeadlessSimulation.Result result = HeadlessSimulation.run(simulationSettings, maxStepCount);
+            return settingsColumns + String.format(
+                Locale.ROOT, "%d,%d,%.1f,%d,%d,%d,",
+                result.stepCount(), result.elapsedNanos() / 1_000_000, result.getStepsPerSecond(),
+                result.rabbitCount(), result.foxCount(), result.grassQuantity()
+            );
+        } catch (Exception exception) {
+            return settingsColumns + ",,,,,," + escape(String.valueOf(exception));
+        }
+    }
+
+    /**
+     * @return The ids separated by spaces, so they fit into one column.
+     */
+    private static @NotNull String joinIds(List<Integer> ids) {
+        return ids != null ? ids.stream().map(String::valueOf).collect(Collectors.joining(" ")) : "";
+    }
+
+    private static @NotNull String escape(@NotNull String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Writes the line into the result file and flushes it, so the summaries of the finished runs are in the file
+     * even if the sweep is stopped. The writes are guarded by a lock instead of a synchronized block, so a virtual
+     * thread waiting for the file does not pin its carrier thread.
+     */
+    private void writeLine(@NotNull BufferedWriter writer, @NotNull String line) throws IOException {
+        writeLock.lock();
+        try {
+            writer.write(line);
+            writer.newLine();
+            writer.flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+}
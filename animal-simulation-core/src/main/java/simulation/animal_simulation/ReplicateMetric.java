@@ -0,0 +1,11 @@
+package simulation.animal_simulation;
+
+/**
+ * Represents a value measured in every replicate of a simulation, see {@link ReplicateRunner}.
+ * FoxExtinction is 1 if the foxes died out within the maximum number of steps and 0 otherwise, so its mean is the
+ * probability of the extinction. FoxExtinctionStep is the step in which the foxes died out, or the maximum number
+ * of steps if they did not. PeakRabbitCount is the highest number of alive rabbits in any step.
+ */
+public enum ReplicateMetric {
+    FoxExtinction, FoxExtinctionStep, PeakRabbitCount
+}
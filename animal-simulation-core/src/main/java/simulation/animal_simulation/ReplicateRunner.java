@@ -0,0 +1,310 @@
+package simulation.animal_simulation;
+
+import org.jetbrains.annotations.NotNull;
+import simulation.animal_simulation.map.Map;
+import simulation.animal_simulation.random.CounterRandom;
+import simulation.animal_simulation.statistics.ConfidenceInterval;
+import simulation.animal_simulation.statistics.RunningStatistics;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * The ReplicateRunner class estimates metrics of a simulation by the Monte Carlo method. It runs replicates of the
+ * same settings that only differ in their seeds as headless simulations, see {@link HeadlessSimulation}.
+ * Every replicate gets its own virtual thread, and a semaphore limits how many replicates are in progress at once.
+ * The 95 % confidence intervals of the chosen metrics are updated with every replicate, and no more replicates are
+ * started once the intervals of all the metrics are as narrow as requested.
+ *
+ * <p>The seed of the replicate with number i is split from the seed of the settings with the key i. The replicates
+ * are counted in the order of their numbers, even if they finish in another order, and the runner stops after the
+ * first replicate with which the precision is reached. So the estimate does not depend on the number of replicates
+ * in progress at once. The replicates that were already started after that one finish but are not counted.</p>
+ *
+ * <p>Usage: {@code ReplicateRunner <settings file> <maximum number of steps> <metric>[=<precision>]...}, for example
+ * {@code ReplicateRunner settings.json 5000 FoxExtinction=0.05 PeakRabbitCount}. The precision is the half width
+ * of the confidence interval; a metric without a precision is only reported.</p>
+ */
+public class ReplicateRunner {
+
+    private static final int DefaultMinReplicateCount = 10;
+    private static final int DefaultMaxReplicateCount = 10000;
+
+    /**
+     * The estimate of the metrics after a number of replicates.
+     *
+     * @param replicateCount The number of replicates counted.
+     * @param intervals The 95 % confidence intervals of the chosen metrics.
+     * @param isPrecisionReached True if all the intervals are as narrow as requested.
+     */
+    public record Estimate(
+        int replicateCount,
+        @NotNull EnumMap<ReplicateMetric, ConfidenceInterval> intervals,
+        boolean isPrecisionReached
+    ) {}
+
+    @NotNull private final SimulationSettings simulationSettings;
+    private final int maxStepCount;
+    @NotNull private final EnumMap<ReplicateMetric, Double> precisions;
+    private final int minReplicateCount;
+    private final int maxReplicateCount;
+    private final int maxConcurrentRunCount;
+
+    /**
+     * Creates a runner of replicates of the given settings.
+     *
+     * @param simulationSettings The settings of the replicates. Their seed is the seed the seeds of the replicates
+     * are split from.
+     * @param maxStepCount The maximum number of steps of a replicate.
+     * @param precisions The chosen metrics with the requested half widths of their confidence intervals.
+     * A metric with an infinite half width is only reported.
+     * @param minReplicateCount The number of replicates counted before the runner can stop.
+     * @param maxReplicateCount The number of replicates after which the runner stops even if the precision is not
+     * reached.
+     * @param maxConcurrentRunCount The maximum number of replicates in progress at once.
+     *
+     * @throws IllegalArgumentException If no metric is chosen, a half width is negative or a number is out of range.
+     */
+    public ReplicateRunner(
+        @NotNull SimulationSettings simulationSettings,
+        int maxStepCount,
+        @NotNull EnumMap<ReplicateMetric, Double> precisions,
+        int minReplicateCount,
+        int maxReplicateCount,
+        int maxConcurrentRunCount
+    ) {
+        if (
+            maxStepCount < 1 || precisions.isEmpty() ||
+            minReplicateCount < 1 || maxReplicateCount < minReplicateCount || maxConcurrentRunCount < 1
+        ) {
+            throw new IllegalArgumentException();
+        }
+        for (double precision : precisions.values()) {
+            if (!(precision >= 0)) throw new IllegalArgumentException();
+        }
+
+        this.simulationSettings = simulationSettings.copy();
+        this.maxStepCount = maxStepCount;
+        this.precisions = new EnumMap<>(precisions);
+        this.minReplicateCount = minReplicateCount;
+        this.maxReplicateCount = maxReplicateCount;
+        this.maxConcurrentRunCount = maxConcurrentRunCount;
+    }
+
+
+    public static void main(String[] args) throws IllegalAccessException, IOException, InterruptedException {
+        if (args.length < 3) {
+            System.err.println(
+                "Usage: ReplicateRunner <settings file> <maximum number of steps> <metric>[=<precision>]..."
+            );
+            System.exit(2);
+        }
+
+        SimulationSettings simulationSettings = HeadlessSimulation.readSettingsOrExit(args[0]);
+        EnumMap<ReplicateMetric, Double> precisions = new EnumMap<>(ReplicateMetric.class);
+        for (int i = 2; i < args.length; i++) {
+            String[] metricAndPrecision = args[i].split("=", 2);
+            precisions.put(
+                ReplicateMetric.valueOf(metricAndPrecision[0]),
+                metricAndPrecision.length > 1 ? Double.parseDouble(metricAndPrecision[1]) : Double.POSITIVE_INFINITY
+            );
+        }
+
+        ReplicateRunner runner = new ReplicateRunner(
+            simulationSettings, Integer.parseInt(args[1]), precisions,
+            DefaultMinReplicateCount, DefaultMaxReplicateCount, Runtime.getRuntime().availableProcessors()
+        );
+        Estimate estimate = runner.run(ReplicateRunner::printEstimate);
+        System.out.println(
+            estimate.isPrecisionReached() ? "The precision is reached." : "The precision is not reached."
+        );
+    }
+
+    private static void printEstimate(@NotNull Estimate estimate) {
+        StringBuilder line = new StringBuilder("replicates: " + estimate.replicateCount());
+        estimate.intervals().forEach((metric, interval) -> line.append(String.format(
+            Locale.ROOT, ", %s: %.4f [%.4f, %.4f]",
+            metric, interval.estimate(), interval.lower(), interval.upper()
+        )));
+        System.out.println(line);
+    }
+
+    /**
+     * Runs the replicates until the precision is reached or the maximum number of replicates is counted.
+     * It returns when all the started replicates have finished.
+     *
+     * @param onEstimate The function called with the estimate after every counted replicate, one call at a time.
+     *
+     * @return The estimate after the last counted replicate.
+     *
+     * @throws IllegalAccessException If there is illegal access to a field in a replicate.
+     * @throws IOException If the file for the cells of the map of a replicate could not be created or mapped.
+     * @throws InterruptedException If the thread was interrupted while waiting for a free place for a replicate.
+     */
+    public @NotNull Estimate run(
+        @NotNull Consumer<Estimate> onEstimate
+    ) throws IllegalAccessException, IOException, InterruptedException {
+        CounterRandom random = new CounterRandom(simulationSettings.seed);
+        Semaphore runPermits = new Semaphore(maxConcurrentRunCount);
+        ReplicateCollector collector = new ReplicateCollector(onEstimate);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int replicate = 0; replicate < maxReplicateCount; replicate++) {
+                runPermits.acquire();
+                if (collector.isDone()) {
+                    runPermits.release();
+                    break;
+                }
+
+                int replicateNumber = replicate;
+                SimulationSettings replicateSettings = getReplicateSettings(random.split(replicateNumber).getSeed());
+                executor.execute(() -> {
+                    try {
+                        collector.add(replicateNumber, runReplicate(replicateSettings));
+                    } catch (Exception exception) {
+                        collector.fail(exception);
+                    } finally {
+                        runPermits.release();
+                    }
+                });
+            }
+        }
+
+        return collector.getEstimate();
+    }
+
+    /**
+     * Returns the settings of the replicate with the given seed. The logs are disabled and the cells of a mapped map
+     * are kept in a temporary file, so the replicates do not write into the same log or file.
+     */
+    private @NotNull SimulationSettings getReplicateSettings(long seed) {
+        SimulationSettings replicateSettings = simulationSettings.copy();
+        replicateSettings.setSeed(seed);
+        replicateSettings.setLogsEnabled(false);
+        replicateSettings.setMappedGridFilePath(null);
+        return replicateSettings;
+    }
+
+    /**
+     * Runs the replicate and measures all the metrics.
+     *
+     * @return The values of the metrics indexed by their ordinals.
+     */
+    private double @NotNull [] runReplicate(
+        @NotNull SimulationSettings replicateSettings
+    ) throws IllegalAccessException, IOException {
+        ReplicateTracker tracker = new ReplicateTracker();
+        HeadlessSimulation.run(replicateSettings, maxStepCount, tracker);
+
+        double[] values = new double[ReplicateMetric.values().length];
+        values[ReplicateMetric.FoxExtinction.ordinal()] = tracker.foxExtinctionStep >= 0 ? 1 : 0;
+        values[ReplicateMetric.FoxExtinctionStep.ordinal()] =
+            tracker.foxExtinctionStep >= 0 ? tracker.foxExtinctionStep : maxStepCount;
+        values[ReplicateMetric.PeakRabbitCount.ordinal()] = tracker.peakRabbitCount;
+        return values;
+    }
+
+    /**
+     * Follows the populations of a replicate before the first step and after every step.
+     */
+    private static final class ReplicateTracker implements Consumer<Map> {
+        private int step = -1;
+        private int foxExtinctionStep = -1;
+        private int peakRabbitCount = 0;
+
+        @Override
+        public void accept(@NotNull Map map) {
+            step++;
+            peakRabbitCount = Math.max(peakRabbitCount, map.getRabbitCount());
+            if (foxExtinctionStep < 0 && map.getFoxCount() == 0) foxExtinctionStep = step;
+        }
+    }
+
+    /**
+     * Counts the finished replicates in the order of their numbers and decides when the runner is done.
+     */
+    private final class ReplicateCollector {
+        @NotNull private final Consumer<Estimate> onEstimate;
+        @NotNull private final EnumMap<ReplicateMetric, RunningStatistics> statistics =
+            new EnumMap<>(ReplicateMetric.class);
+        @NotNull private final TreeMap<Integer, double[]> waitingReplicates = new TreeMap<>();
+        private int replicateCount = 0;
+        private boolean isDone = false;
+        private Estimate estimate;
+        private Exception failure = null;
+
+        private ReplicateCollector(@NotNull Consumer<Estimate> onEstimate) {
+            this.onEstimate = onEstimate;
+            for (ReplicateMetric metric : precisions.keySet()) {
+                statistics.put(metric, new RunningStatistics());
+            }
+            this.estimate = createEstimate();
+        }
+
+        private synchronized boolean isDone() {
+            return isDone;
+        }
+
+        /**
+         * Keeps the values of the finished replicate and counts all the replicates that are next in order.
+         */
+        private synchronized void add(int replicateNumber, double @NotNull [] values) {
+            waitingReplicates.put(replicateNumber, values);
+
+            while (!isDone && waitingReplicates.containsKey(replicateCount)) {
+                double[] replicateValues = waitingReplicates.remove(replicateCount);
+                statistics.forEach((metric, metricStatistics) -> metricStatistics.add(
+                    replicateValues[metric.ordinal()]
+                ));
+                replicateCount++;
+
+                estimate = createEstimate();
+                onEstimate.accept(estimate);
+                isDone = (estimate.isPrecisionReached() && replicateCount >= minReplicateCount) ||
+                    replicateCount >= maxReplicateCount;
+            }
+        }
+
+        private synchronized void fail(@NotNull Exception exception) {
+            if (failure == null) failure = exception;
+            isDone = true;
+        }
+
+        /**
+         * @return The estimate after the last counted replicate.
+         *
+         * @throws IllegalAccessException If a replicate failed with this exception.
+         * @throws IOException If a replicate failed with this exception.
+         */
+        private synchronized @NotNull Estimate getEstimate() throws IllegalAccessException, IOException {
+            switch (failure) {
+                case null -> {}
+                case IllegalAccessException exception -> throw exception;
+                case IOException exception -> throw exception;
+                case RuntimeException exception -> throw exception;
+                default -> throw new IllegalStateException(failure);
+            }
+            return estimate;
+        }
+
+        private @NotNull Estimate createEstimate() {
+            EnumMap<ReplicateMetric, ConfidenceInterval> intervals = new EnumMap<>(ReplicateMetric.class);
+            boolean isPrecisionReached = true;
+            for (ReplicateMetric metric : statistics.keySet()) {
+                ConfidenceInterval interval = metric == ReplicateMetric.FoxExtinction
+                    ? statistics.get(metric).getWilsonInterval(RunningStatistics.Z95)
+                    : statistics.get(metric).getNormalInterval(RunningStatistics.Z95);
+                intervals.put(metric, interval);
+                if (!(interval.getHalfWidth() <= precisions.get(metric))) isPrecisionReached = false;
+            }
+            return new Estimate(replicateCount, intervals, isPrecisionReached);
+        }
+    }
+
+}
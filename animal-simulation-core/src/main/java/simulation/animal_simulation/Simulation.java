@@ -4,8 +4,14 @@ import org.jetbrains.annotations.NotNull;
 import simulation.animal_simulation.animals.*;
 import simulation.animal_simulation.map.Map;
 import simulation.animal_simulation.map.Shelter;
+import simulation.animal_simulation.map.ShelterIndex;
 import simulation.animal_simulation.map.ShelterType;
+import simulation.animal_simulation.map.storage.CellStore;
+import simulation.animal_simulation.map.storage.HeapCellStore;
+import simulation.animal_simulation.map.storage.MappedCellStore;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -20,6 +26,7 @@ public class Simulation {
 
     /**
      * Main method that starts the simulation.
+     * If the map cannot be prepared, the cell store created for it is closed again.
      *
      * @param simulationSettings The simulation settings.
      * @param loggerController The logger controller.
@@ -27,28 +34,60 @@ public class Simulation {
      * @return The map with all the shelters and animals.
      *
      * @throws IllegalAccessException If there is illegal access to a field.
+     * @throws IOException If the file for the cells of the map could not be created or mapped.
      */
     public Map prepareSimulation(
         SimulationSettings simulationSettings,
         LoggerController loggerController
-    ) throws IllegalAccessException {
+    ) throws IllegalAccessException, IOException {
 
         List<Shelter> rabbitShelters = getDefaultRabbitShelters(simulationSettings.rabbitShelterIds);
         List<Shelter> foxShelters = getDefaultFoxShelters(simulationSettings.foxShelterIds);
 
-        Map map = new Map(
-                simulationSettings.mapSize,
-                simulationSettings.grassAmount,
-                simulationSettings.thickVegetationAmount,
-                rabbitShelters,
-                foxShelters,
-                loggerController
-        );
+        CellStore cellStore = createCellStore(simulationSettings);
+        try {
+            Map map = new Map(
+                    simulationSettings.mapSize,
+                    simulationSettings.grassAmount,
+                    simulationSettings.thickVegetationAmount,
+                    rabbitShelters,
+                    foxShelters,
+                    cellStore,
+                    simulationSettings.animalBackend,
+                    simulationSettings.vegetationMode,
+                    simulationSettings.seed,
+                    loggerController
+            );
 
-        setNearestSheltersForEachInList(rabbitShelters);
-        setNearestSheltersForEachInList(foxShelters);
+            setNearestSheltersForEachInList(rabbitShelters, map.grid.getShelterIndex());
+            setNearestSheltersForEachInList(foxShelters, map.grid.getShelterIndex());
+            map.setThreadCount(simulationSettings.threadCount);
+            map.setStepMode(simulationSettings.stepMode);
 
-        return map;
+            return map;
+        } catch (Throwable exception) {
+            cellStore.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Creates the store for the cells of the map using the backend from the settings.
+     *
+     * @param simulationSettings The simulation settings.
+     *
+     * @return The cell store with mapSize * mapSize empty cells.
+     *
+     * @throws IOException If the file for the cells could not be created or mapped.
+     */
+    private static CellStore createCellStore(@NotNull SimulationSettings simulationSettings) throws IOException {
+        int cellCount = simulationSettings.mapSize * simulationSettings.mapSize;
+        return switch (simulationSettings.gridBackend) {
+            case Heap -> new HeapCellStore(cellCount);
+            case MappedFile -> simulationSettings.mappedGridFilePath != null ?
+                new MappedCellStore(cellCount, Path.of(simulationSettings.mappedGridFilePath)) :
+                new MappedCellStore(cellCount);
+        };
     }
 
 
@@ -126,11 +165,14 @@ public class Simulation {
     }
 
     /**
-     * Sets the nearest shelters for each shelter in the list.
+     * Sets the nearest shelters for each shelter in the list using the shelter index of the map.
      */
-    private static void setNearestSheltersForEachInList(@NotNull List<Shelter> shelters) {
+    private static void setNearestSheltersForEachInList(
+        @NotNull List<Shelter> shelters,
+        @NotNull ShelterIndex shelterIndex
+    ) {
         for (Shelter shelter : shelters) {
-            shelter.setNearestSheltersFromSheltersList(shelters);
+            shelter.setNearestSheltersFromIndex(shelterIndex);
         }
     }
 
@@ -0,0 +1,199 @@
+package simulation.animal_simulation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jetbrains.annotations.NotNull;
+import simulation.animal_simulation.animals.AnimalBackend;
+import simulation.animal_simulation.map.StepMode;
+import simulation.animal_simulation.map.plants.VegetationMode;
+import simulation.animal_simulation.map.storage.GridBackend;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The SimulationSettings class holds the settings for the animal simulation.
+ * It includes properties such as map size, grass amount, thick vegetation amount, rabbit and fox shelter IDs,
+ * timeout between simulation steps, a flag for enabling logs and the backend storing the cells of the map.
+ *
+ * <p>This class provides methods to set these properties, as well as to export the current settings into a JSON file
+ * and import settings from a JSON file.</p>
+ */
+public class SimulationSettings {
+
+    public int mapSize;
+    public int grassAmount;
+    public int thickVegetationAmount;
+    public List<Integer> rabbitShelterIds;
+    public List<Integer> foxShelterIds;
+    public int timeoutBetweenSimulationSteps;
+    public boolean logsEnabled;
+    /**
+     * The backend storing the cells of the map. MappedFile allows maps whose cells do not fit into the Java heap;
+     * see {@link GridBackend} for the state per ground that stays on the heap.
+     */
+    public GridBackend gridBackend = GridBackend.Heap;
+    /**
+     * The file the cells are mapped to when the MappedFile backend is used.
+     * If it is null, a temporary file is used.
+     */
+    public String mappedGridFilePath;
+    /**
+     * The backend storing the state of the animals. OffHeap keeps it outside the Java heap.
+     */
+    public AnimalBackend animalBackend = AnimalBackend.Heap;
+    /**
+     * The way the plants are kept up to date. Lazy only computes the state of a plant when it is read.
+     */
+    public VegetationMode vegetationMode = VegetationMode.Eager;
+    /**
+     * The number of threads doing the steps of the animals. With more than one thread the map is split into tiles
+     * that take their turns in parallel.
+     */
+    public int threadCount = 1;
+    /**
+     * The way the animals take their steps. In the two-phase mode the result does not depend on the order of the
+     * animals or on the number of threads.
+     */
+    public StepMode stepMode = StepMode.Sequential;
+    /**
+     * The seed of the random numbers of the simulation. Simulations with the same settings and seed give the same
+     * results. A new seed is picked for new settings, and it is exported with the other settings.
+     */
+    public long seed = ThreadLocalRandom.current().nextLong();
+
+    /**
+     * Default constructor for the SimulationSettings class.
+     */
+    public SimulationSettings() {
+    }
+
+    public void setMapSize(int mapSize) {
+        this.mapSize = mapSize;
+    }
+
+    public void setGrassAmount(int grassAmount) {
+        this.grassAmount = grassAmount;
+    }
+
+    public void setThickVegetationAmount(int thickVegetationAmount) {
+        this.thickVegetationAmount = thickVegetationAmount;
+    }
+
+    public void setRabbitShelterIds(List<Integer> rabbitShelterIds) {
+        this.rabbitShelterIds = rabbitShelterIds;
+    }
+
+    public void setFoxShelterIds(List<Integer> foxShelterIds) {
+        this.foxShelterIds = foxShelterIds;
+    }
+
+    public void setTimeoutBetweenSimulationSteps(int timeoutBetweenSimulationSteps) {
+        this.timeoutBetweenSimulationSteps = timeoutBetweenSimulationSteps;
+    }
+
+    public void setLogsEnabled(boolean logsEnabled) {
+        this.logsEnabled = logsEnabled;
+    }
+
+    public void setGridBackend(GridBackend gridBackend) {
+        this.gridBackend = gridBackend;
+    }
+
+    public void setMappedGridFilePath(String mappedGridFilePath) {
+        this.mappedGridFilePath = mappedGridFilePath;
+    }
+
+    public void setAnimalBackend(AnimalBackend animalBackend) {
+        this.animalBackend = animalBackend;
+    }
+
+    public void setVegetationMode(VegetationMode vegetationMode) {
+        this.vegetationMode = vegetationMode;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public void setStepMode(StepMode stepMode) {
+        this.stepMode = stepMode;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+
+    public void exportSimulationSettingsIntoFile() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+        LocalDateTime date = LocalDateTime.now();
+        String formattedDate = date.format(formatter);
+        try {
+            objectMapper.writeValue(new File("./exported_settings/simulation_settings_" + formattedDate + ".json"), this);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    public void importSimulationSettingsFromFile(String filePath) {
+        try {
+            readSimulationSettingsFromFile(filePath);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads the settings from a JSON file exported by the application, like
+     * {@link #importSimulationSettingsFromFile}, but lets the caller handle the errors.
+     *
+     * @param filePath The path of the JSON file.
+     *
+     * @throws IOException If the file could not be read or does not contain valid settings.
+     */
+    public void readSimulationSettingsFromFile(@NotNull String filePath) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        SimulationSettings simulationSettings = objectMapper.readValue(
+                new File(filePath),
+                SimulationSettings.class
+        );
+        copyFrom(simulationSettings);
+    }
+
+    /**
+     * @return New settings with the same values, which can be changed without changing these settings.
+     */
+    public SimulationSettings copy() {
+        SimulationSettings simulationSettings = new SimulationSettings();
+        simulationSettings.copyFrom(this);
+        return simulationSettings;
+    }
+
+    private void copyFrom(SimulationSettings simulationSettings) {
+        this.mapSize = simulationSettings.mapSize;
+        this.grassAmount = simulationSettings.grassAmount;
+        this.thickVegetationAmount = simulationSettings.thickVegetationAmount;
+        this.rabbitShelterIds = copyIds(simulationSettings.rabbitShelterIds);
+        this.foxShelterIds = copyIds(simulationSettings.foxShelterIds);
+        this.timeoutBetweenSimulationSteps = simulationSettings.timeoutBetweenSimulationSteps;
+        this.logsEnabled = simulationSettings.logsEnabled;
+        this.gridBackend = simulationSettings.gridBackend;
+        this.mappedGridFilePath = simulationSettings.mappedGridFilePath;
+        this.animalBackend = simulationSettings.animalBackend;
+        this.vegetationMode = simulationSettings.vegetationMode;
+        this.threadCount = simulationSettings.threadCount;
+        this.stepMode = simulationSettings.stepMode;
+        this.seed = simulationSettings.seed;
+    }
+
+    private static List<Integer> copyIds(List<Integer> ids) {
+        return ids != null ? new ArrayList<>(ids) : null;
+    }
+
+}
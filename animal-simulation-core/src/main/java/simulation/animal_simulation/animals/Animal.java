@@ -0,0 +1,767 @@
+package simulation.animal_simulation.animals;
+
+import org.jetbrains.annotations.NotNull;
+import simulation.animal_simulation.map.Ground;
+import simulation.animal_simulation.map.GroundGrid;
+import simulation.animal_simulation.map.Shelter;
+import simulation.animal_simulation.map.navigation.Coordinates;
+import simulation.animal_simulation.map.navigation.Direction;
+import simulation.animal_simulation.map.navigation.VisionStencil;
+import simulation.animal_simulation.random.RandomStream;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The Animal class represents an animal in the simulation.
+ * It is an abstract class that is extended by specific animal classes.
+ * Each Animal object has a sex, maximum satiety, age, vision range, and a boolean indicating if it is alive.
+ * It also keeps track of the nearest shelter, the ground it is currently on, and if it is running to a shelter.
+ * The Animal class provides methods for setting and getting its nearest shelter and current ground.
+ * The ground and the nearest shelter are kept as cell indices in the row of the animal, see {@link AnimalTable},
+ * and resolved through the grid of the map only when a Ground or a Shelter object is needed.
+ * It also provides methods for moving the animal, decreasing its satiety, and checking if it is alive.
+ * The Animal class is responsible for the animal's movement and actions during the simulation.
+ *
+ * <p>An animal can also plan its step instead of doing it. While planning, the animal only reads the map and
+ * records what it wants to do in a {@link StepIntent}, which is applied after the intents of all the animals
+ * have been resolved.</p>
+ */
+public abstract class Animal {
+
+    @NotNull protected final AnimalSpecies species;
+    protected int visionRange;
+    /**
+     * The offsets of the grounds in the vision range of the animal, sorted by distance.
+     */
+    @NotNull protected final VisionStencil visionStencil;
+    /**
+     * The table that holds the state of the animal (sex, age, satiety, the step counters and the cell indices).
+     * While the animal is not in any store, it is the detached table of the animal.
+     */
+    @NotNull AnimalTable table;
+    /**
+     * The row of the animal of its own, which holds its state while it is not in any store.
+     * It is created with the animal and reused every time the animal leaves a store.
+     */
+    @NotNull final AnimalTable detachedTable = new DetachedAnimalTable();
+    /**
+     * The row of the animal in its table.
+     */
+    int row;
+    /**
+     * The grid the cell indices in the row of the animal belong to, or null if the animal was never on a ground.
+     */
+    private GroundGrid grid = null;
+    protected boolean runsToShelter = false;
+    protected Direction movingDirection = null;
+    /**
+     * The handle under which the animal is stored in the cells of the map or 0 if it is not placed on any ground.
+     */
+    private int occupantHandle = 0;
+    /**
+     * The generational handle of the animal in the AnimalStore it belongs to or 0 if it is not in any store.
+     */
+    long entityHandle = 0;
+    /**
+     * The intent of the step the animal is planning or has planned and not applied yet, or null.
+     */
+    private StepIntent intent = null;
+    private boolean isPlanningStep = false;
+
+    /**
+     * Constructor for the Animal class.
+     *
+     * @param species The species of the animal.
+     * @param sex Animal sex.
+     * @param maxSatiety The maximum satiety of the animal.
+     * @param visionRange The vision range of the animal.
+     * @param age The age of the animal.
+     * @param stepsBeforeGrow The number of steps before the animal grows.
+     * @param satiety Initial satiety of the animal.
+     * @param stepsBeforeSatietyDecrease The number of steps before the animal's satiety decreases.
+     */
+    public Animal(
+        @NotNull AnimalSpecies species,
+        @NotNull Sex sex,
+        int maxSatiety,
+        int visionRange,
+        @NotNull Age age,
+        int stepsBeforeGrow,
+        int satiety,
+        int stepsBeforeSatietyDecrease
+    ) {
+        this.species = species;
+        this.visionRange = visionRange;
+        this.visionStencil = VisionStencil.forRange(visionRange);
+        this.table = detachedTable;
+        this.row = 0;
+
+        initialize(sex, maxSatiety, age, stepsBeforeGrow, satiety, stepsBeforeSatietyDecrease);
+    }
+
+    /**
+     * Constructor for the Animal class primarily used for testing purposes.
+     *
+     * @param species The species of the animal.
+     * @param isAlive The boolean indicating if the animal is alive.
+     */
+    public Animal(@NotNull AnimalSpecies species, boolean isAlive) {
+        this(species, Sex.Male, 10, 2, Age.Adult, 10, 10, 10);
+        table.setAlive(row, isAlive);
+    }
+
+
+    /**
+     * Writes the initial state of the animal to its row.
+     */
+    private void initialize(
+        @NotNull Sex sex,
+        int maxSatiety,
+        @NotNull Age age,
+        int stepsBeforeGrow,
+        int satiety,
+        int stepsBeforeSatietyDecrease
+    ) {
+        table.set(row, AnimalTable.SexField, sex.ordinal());
+        table.setAge(row, age);
+        table.setAlive(row, true);
+        table.set(row, AnimalTable.MaxSatietyField, maxSatiety);
+        table.set(row, AnimalTable.SatietyField, satiety);
+        table.set(row, AnimalTable.StepsBeforeSatietyDecreaseField, stepsBeforeSatietyDecrease);
+        table.set(row, AnimalTable.StepsAfterSatietyDecreaseField, 0);
+        table.set(row, AnimalTable.StepsBeforeGrowField, stepsBeforeGrow);
+        table.set(row, AnimalTable.StepsAfterGrowField, 0);
+        table.set(row, AnimalTable.StepsAfterDeathField, 0);
+        table.set(row, AnimalTable.CellIndexField, -1);
+        table.set(row, AnimalTable.ShelterCellIndexField, -1);
+    }
+
+    /**
+     * Resets the animal to the state of a newly created animal, so it can be reused for a newborn one.
+     * The animal must not be in any store or on any ground.
+     *
+     * @param sex The new sex of the animal.
+     * @param maxSatiety The maximum satiety of the animal.
+     * @param age The new age of the animal.
+     * @param stepsBeforeGrow The number of steps before the animal grows.
+     * @param satiety Initial satiety of the animal.
+     * @param stepsBeforeSatietyDecrease The number of steps before the animal's satiety decreases.
+     */
+    protected void reset(
+        @NotNull Sex sex,
+        int maxSatiety,
+        @NotNull Age age,
+        int stepsBeforeGrow,
+        int satiety,
+        int stepsBeforeSatietyDecrease
+    ) {
+        runsToShelter = false;
+        movingDirection = null;
+        initialize(sex, maxSatiety, age, stepsBeforeGrow, satiety, stepsBeforeSatietyDecrease);
+    }
+
+    /**
+     * Resets the animal to the state of a newly created animal of its species, see {@link AnimalPool}.
+     *
+     * @param sex The new sex of the animal.
+     * @param age The new age of the animal.
+     */
+    abstract void reset(@NotNull Sex sex, @NotNull Age age);
+
+    /**
+     * Makes this animal a view of the given row of the table.
+     *
+     * @param table The table that holds the state of the animal.
+     * @param row The row of the animal.
+     */
+    void attach(@NotNull AnimalTable table, int row) {
+        this.table = table;
+        this.row = row;
+    }
+
+    /**
+     * @param shelter The nearest shelter of the animal or null if it has none.
+     */
+    public void setNearestShelter(Shelter shelter) {
+        table.set(row, AnimalTable.ShelterCellIndexField, shelter != null ? shelter.groundId - 1 : -1);
+    }
+    /**
+     * @return The nearest shelter of the animal or null if it has none.
+     */
+    public Shelter getNearestShelter() {
+        Ground ground = getGroundByIndex(table.get(row, AnimalTable.ShelterCellIndexField));
+        return ground != null ? ground.getShelter() : null;
+    }
+
+    /**
+     * Returns the shelter a baby born next to this animal should treat as its nearest shelter.
+     * It is the nearest shelter of the species that still has free space, or the nearest shelter of this animal
+     * if all of them are full.
+     *
+     * @return The shelter for the baby.
+     */
+    protected Shelter getShelterForBaby() {
+        Ground ground = getGround();
+        Shelter shelter = ground != null ? ground.findNearestAvailableShelter(species) : null;
+        return shelter != null ? shelter : getNearestShelter();
+    }
+
+    public void setGround(@NotNull Ground ground) {
+        grid = ground.getGrid();
+        table.set(row, AnimalTable.CellIndexField, ground.id - 1);
+    }
+    /**
+     * @return The ground the animal is on or null if it is not on the map. While the step is planned, it is the
+     * ground of a recorded move.
+     */
+    public Ground getGround() {
+        return getGroundByIndex(getCellIndex());
+    }
+
+    /**
+     * @return The index of the ground the animal is on or -1 if it is not on the map. While the step is planned,
+     * it is the index of the ground of a recorded move.
+     */
+    int getCellIndex() {
+        return isPlanningStep ? intent.getCurrentGround().id - 1 : table.get(row, AnimalTable.CellIndexField);
+    }
+
+    private Ground getGroundByIndex(int index) {
+        return index != -1 && grid != null ? grid.getGround(index + 1) : null;
+    }
+
+    public int getOccupantHandle() {
+        return occupantHandle;
+    }
+    public void setOccupantHandle(int occupantHandle) {
+        this.occupantHandle = occupantHandle;
+    }
+
+    public long getEntityHandle() {
+        return entityHandle;
+    }
+
+    public Coordinates getCoordinates() {
+        return getGround().coordinates;
+    }
+
+    public boolean isAlive() {
+        return table.isAlive(row);
+    }
+    void setAlive(boolean isAlive) {
+        table.setAlive(row, isAlive);
+    }
+
+    public @NotNull AnimalSpecies getSpecies() {
+        return species;
+    }
+
+    public @NotNull Sex getSex() {
+        return table.getSex(row);
+    }
+
+    public @NotNull Age getAge() {
+        return table.getAge(row);
+    }
+    void setAge(@NotNull Age age) {
+        table.setAge(row, age);
+    }
+
+    public int getSatiety() {
+        return table.get(row, AnimalTable.SatietyField);
+    }
+    protected void setSatiety(int satiety) {
+        table.set(row, AnimalTable.SatietyField, satiety);
+    }
+    private void changeSatiety(int satietyChange) {
+        setSatiety(getSatiety() + satietyChange);
+    }
+
+    public int getMaxSatiety() {
+        return table.get(row, AnimalTable.MaxSatietyField);
+    }
+
+    void setStepsBeforeSatietyDecrease(int stepsBeforeSatietyDecrease) {
+        table.set(row, AnimalTable.StepsBeforeSatietyDecreaseField, stepsBeforeSatietyDecrease);
+    }
+    void setStepsAfterSatietyDecrease(int stepsAfterSatietyDecrease) {
+        table.set(row, AnimalTable.StepsAfterSatietyDecreaseField, stepsAfterSatietyDecrease);
+    }
+
+    void setStepsBeforeGrow(int stepsBeforeGrow) {
+        table.set(row, AnimalTable.StepsBeforeGrowField, stepsBeforeGrow);
+    }
+    void setStepsAfterGrow(int stepsAfterGrow) {
+        table.set(row, AnimalTable.StepsAfterGrowField, stepsAfterGrow);
+    }
+
+    /**
+     * @return True if the animal is on the ground of its nearest shelter. While the step is planned, the ground
+     * the animal started the step on counts, not the one of a recorded move.
+     */
+    public boolean isInShelter() {
+        int cellIndex = isPlanningStep ? intent.getSource().id - 1 : table.get(row, AnimalTable.CellIndexField);
+        return cellIndex != -1 && cellIndex == table.get(row, AnimalTable.ShelterCellIndexField);
+    }
+
+    protected void resetMovingDirection() {
+        movingDirection = null;
+    }
+
+
+    /**
+     * Get nearest ground (top, right, bottom, left) that meets the passed condition.
+     *
+     * @param predicate The condition that the ground must meet.
+     *
+     * @return The list of grounds that meets the condition. If no ground meets the condition, an empty list is
+     * returned.
+     */
+    @NotNull public List<Ground> getNearestGrounds(@NotNull Predicate<Ground> predicate) {
+        List<Ground> grounds = getGround().getNearestGrounds();
+        return grounds.stream().filter(predicate).toList();
+    }
+
+    /**
+     * Returns a ground in the vision range of the animal that meets the condition and is closest to the animal.
+     * The grounds are visited in the order of the vision stencil, so the first ground that meets the condition
+     * is the closest one.
+     *
+     * @param condition The condition that the ground must meet.
+     *
+     * @return The ground that meets the condition and is closest to the animal.
+     */
+    protected Ground getGroundInVisionRangeByConditionSortedByDistance(@NotNull Predicate<Ground> condition) {
+        return getGround().findNearestGround(visionStencil, condition);
+    }
+
+
+    /**
+     * Move the animal to the next ground.
+     */
+    protected void moveToNextGround(Ground nextGround) {
+        if (moveTowardsGround(nextGround)) {
+            resetMovingDirection();
+            return;
+        }
+
+        if (movingDirection != null) {
+            if (!moveInDirection(movingDirection)) {
+                resetMovingDirection();
+            } else {
+                return;
+            }
+        }
+
+        if (moveAwayFromShelter()) return;
+        if (moveTowardsShelter()) return;
+        tryToLeaveCell();
+    }
+
+    /**
+     * Moves the animal to another ground.
+     * The animal will try to move to the next top ground, then to the next right one, then to the next bottom one,
+     * and finally to the next left one.
+     */
+    protected void tryToLeaveCell() {
+        Coordinates c = getGround().coordinates;
+
+        if (c.y > 1 && moveToNextGroundByDifference(0, -1)) return;
+        if (moveToNextGroundByDifference(1, 0)) return;
+        if (moveToNextGroundByDifference(0, 1)) return;
+        if (c.x > 1) moveToNextGroundByDifference(-1, 0);
+    }
+
+    /**
+     * Moves the animal towards the nearest shelter of its species that has free space, following the shelter
+     * flow field of the map. If the shelter is on the next ground, the animal enters it.
+     */
+    protected void runToShelter() {
+        Ground currentGround = getGround();
+        if (currentGround == null || isInShelter()) return;
+
+        Ground nextGround = currentGround.getNextGroundToShelter(species);
+        if (nextGround == null) return;
+
+        Shelter shelter = nextGround.getShelter();
+        if (shelter == null) {
+            moveToGround(nextGround);
+        } else if (isPlanningStep) {
+            if (shelter.canEnter(this)) intent.recordShelterEntry(nextGround, shelter);
+        } else if (shelter.enter(this)) {
+            enterShelter(nextGround, shelter);
+        }
+    }
+
+    /**
+     * Moves the animal from its ground into the shelter it has entered.
+     *
+     * @param ground The ground of the shelter.
+     * @param shelter The shelter.
+     */
+    private void enterShelter(@NotNull Ground ground, @NotNull Shelter shelter) {
+        getGround().removeAnimal();
+        setGround(ground);
+        setNearestShelter(shelter);
+        runsToShelter = false;
+    }
+
+    /**
+     * Try to move the animal to the ground.
+     * While the step is planned, the move is only recorded and the animal acts as if it was on the ground for
+     * the rest of the step.
+     *
+     * @param ground The ground where the animal is moved.
+     *
+     * @return True if the animal was moved to the ground, false otherwise.
+     */
+    protected boolean moveToGround(Ground ground) {
+        Ground currentGround = getGround();
+        if (currentGround == null || ground == null || !ground.isAvailable()) return false;
+
+        if (isPlanningStep) {
+            intent.recordMove(ground);
+            return true;
+        }
+
+        currentGround.removeAnimal();
+
+        if (currentGround.getShelter() != null) {
+            currentGround.getShelter().removeAnimal(this);
+        }
+
+        ground.setAnimal(this);
+
+        return true;
+    }
+
+    /**
+     * Moves the animal towards the ground.
+     *
+     * @param ground The ground animal is moving towards.
+     */
+    protected boolean moveTowardsGround(Ground ground) {
+        Ground currentGround = getGround();
+        if (currentGround == null || ground == null) return false;
+
+        return moveToNextGroundByCoordinatesDifference(currentGround.coordinates, ground.coordinates);
+    }
+
+    /**
+     * Moves the animal to the next ground based on the difference between the coordinates of the first and second
+     * coordinates.
+     */
+    protected boolean moveToNextGroundByCoordinatesDifference(
+        @NotNull Coordinates sourceCoordinates,
+        @NotNull Coordinates targetCoordinates
+    ) {
+        if (
+            sourceCoordinates.x <= 0 || sourceCoordinates.y <= 0 ||
+            targetCoordinates.x <= 0 || targetCoordinates.y <= 0
+        ) return false;
+
+        return moveToNextGroundByDifference(
+            targetCoordinates.x - sourceCoordinates.x,
+            targetCoordinates.y - sourceCoordinates.y
+        );
+    }
+
+    /**
+     * Moves the animal to the next ground in the direction given by the difference of the coordinates.
+     * The animal tries the ground in the main direction first and then the grounds on the sides.
+     * The neighbours are resolved from the cell index of the animal, and a Ground object is only looked up for
+     * the ground the animal moves to.
+     *
+     * @param xDifference The difference in the x coordinate.
+     * @param yDifference The difference in the y coordinate.
+     *
+     * @return True if the animal was moved, false otherwise.
+     */
+    protected boolean moveToNextGroundByDifference(int xDifference, int yDifference) {
+        int index = getCellIndex();
+        if (index == -1) return false;
+
+        if (Math.abs(xDifference) > Math.abs(yDifference)) {
+            if (xDifference > 0) {
+                if (moveToCell(grid.getNextRightIndex(index))) return true;
+            } else {
+                if (moveToCell(grid.getNextLeftIndex(index))) return true;
+            }
+            if (moveToCell(grid.getNextTopIndex(index))) return true;
+            return moveToCell(grid.getNextBottomIndex(index));
+        } else {
+            if (yDifference > 0) {
+                if (moveToCell(grid.getNextBottomIndex(index))) return true;
+            } else {
+                if (moveToCell(grid.getNextTopIndex(index))) return true;
+            }
+            if (moveToCell(grid.getNextLeftIndex(index))) return true;
+            return moveToCell(grid.getNextRightIndex(index));
+        }
+    }
+
+    /**
+     * Moves the animal to the ground with the given index if it is available, see {@link #moveToGround}.
+     *
+     * @param index The index of the ground or -1.
+     *
+     * @return True if the animal was moved to the ground, false otherwise.
+     */
+    private boolean moveToCell(int index) {
+        if (index == -1 || !grid.isAvailable(index)) return false;
+
+        return moveToGround(grid.getGround(index + 1));
+    }
+
+    /**
+     * Moves the animal in the given direction.
+     *
+     * @param direction The direction in which the animal is moving.
+     *
+     * @return True if the animal was moved in the direction, false otherwise.
+     */
+    protected boolean moveInDirection(@NotNull Direction direction) {
+        Ground currentGround = getGround();
+        if (currentGround == null) return false;
+
+        return switch (direction) {
+            case Top, TopRight, TopLeft -> moveTowardsGround(currentGround.getNextTop());
+            case Right -> moveTowardsGround(currentGround.getNextRight());
+            case Bottom, BottomRight, BottomLeft -> moveTowardsGround(currentGround.getNextBottom());
+            case Left -> moveTowardsGround(currentGround.getNextLeft());
+        };
+    }
+
+    /**
+     * Moves the animal one ground closer to the nearest shelter of its species that has free space, following the
+     * shelter flow field of the map. The animal does not enter the shelter.
+     *
+     * @return True if the animal was moved towards the shelter, false otherwise.
+     */
+    protected boolean moveTowardsShelter() {
+        Ground previousGround = getGround();
+        if (previousGround == null) return false;
+
+        Ground nextGround = previousGround.getNextGroundToShelter(species);
+        if (nextGround == null || nextGround.getShelter() != null || !moveToGround(nextGround)) return false;
+
+        movingDirection = previousGround.coordinates.getDirectionToOtherCoordinates(nextGround.coordinates);
+        return true;
+    }
+
+    /**
+     * Moves the animal away from the shelter.
+     *
+     * @return True if the animal was moved away from the shelter, false otherwise.
+     */
+    protected boolean moveAwayFromShelter() {
+        Ground currentGround = getGround();
+        int shelterIndex = table.get(row, AnimalTable.ShelterCellIndexField);
+        if (currentGround == null || shelterIndex == -1) return false;
+
+        Coordinates currentCoordinates = currentGround.coordinates;
+        int xDifference = currentCoordinates.x - (shelterIndex % grid.getSize() + 1);
+        int yDifference = currentCoordinates.y - (shelterIndex / grid.getSize() + 1);
+        if (currentCoordinates.x + xDifference <= 0 || currentCoordinates.y + yDifference <= 0) return false;
+
+        if (moveToNextGroundByDifference(xDifference, yDifference)) {
+            movingDirection = currentCoordinates.getDirectionToOtherCoordinates(getGround().coordinates);
+            return true;
+        }
+        return false;
+    }
+
+
+    /**
+     * Eats the plant on the ground of the animal. The plant is looked up by the cell index of the animal.
+     *
+     * @param satietyGain The satiety the animal gains by eating.
+     *
+     * @return True if the animal could eat, false otherwise.
+     */
+    protected boolean eatPlant(int satietyGain) {
+        int index = getCellIndex();
+        if (index == -1) return false;
+
+        if (isPlanningStep) {
+            if (!grid.canEatPlant(index)) return false;
+
+            intent.recordPlant(satietyGain);
+            return true;
+        }
+
+        if (!grid.eatPlant(index)) return false;
+
+        changeSatiety(satietyGain);
+        return true;
+    }
+
+    /**
+     * Eats the animal on the given ground and removes it from the ground.
+     *
+     * @param prey The animal to eat.
+     * @param ground The ground of the prey.
+     * @param satietyChange The change of the satiety of this animal.
+     * @param onPreyHasEaten The function called with the prey after it has been removed from its ground.
+     */
+    protected <T extends Animal> void eatAnimal(
+        @NotNull T prey,
+        @NotNull Ground ground,
+        int satietyChange,
+        @NotNull Function<T, Boolean> onPreyHasEaten
+    ) {
+        if (isPlanningStep) {
+            intent.recordPrey(prey, ground, satietyChange);
+            return;
+        }
+
+        ground.removeAnimal();
+        onPreyHasEaten.apply(prey);
+        changeSatiety(satietyChange);
+    }
+
+    /**
+     * Gives birth to a baby on the given ground next to the female, which loses some of its satiety.
+     *
+     * @param female The female giving birth, either this animal or its partner.
+     * @param femaleGround The ground of the female.
+     * @param ground The available ground for the baby next to the female.
+     * @param satietyChange The change of the satiety of the female.
+     * @param pool The pool of the animals reused for the babies.
+     * @param onBabyHasBorn The function called with the baby after it has been placed on the ground.
+     */
+    protected <T extends Animal> void giveBirth(
+        @NotNull Animal female,
+        @NotNull Ground femaleGround,
+        @NotNull Ground ground,
+        int satietyChange,
+        @NotNull AnimalPool<T> pool,
+        @NotNull Function<T, Boolean> onBabyHasBorn
+    ) {
+        Sex babySex = ground.getRandomDouble(RandomStream.BabySex) < 0.5 ? Sex.Female : Sex.Male;
+        Shelter babyShelter = getShelterForBaby();
+
+        if (isPlanningStep) {
+            intent.recordBirth(female, femaleGround, ground, satietyChange, babySex, babyShelter);
+            return;
+        }
+
+        onBabyHasBorn.apply(placeBaby(female, ground, satietyChange, babySex, babyShelter, pool));
+    }
+
+    private <T extends Animal> @NotNull T placeBaby(
+        @NotNull Animal female,
+        @NotNull Ground ground,
+        int satietyChange,
+        @NotNull Sex babySex,
+        Shelter babyShelter,
+        @NotNull AnimalPool<T> pool
+    ) {
+        T baby = pool.obtain(babySex, Age.Child);
+        baby.setNearestShelter(babyShelter);
+        ground.setAnimal(baby);
+        female.changeSatiety(satietyChange);
+        return baby;
+    }
+
+    /**
+     * Plans the step of the animal. The step is run while the animal only records in its intent what it wants
+     * to do, so it does not change the map or any other animal. The animal is back on its ground afterwards.
+     *
+     * @param doStep The step of the animal.
+     *
+     * @return The intent of the step.
+     *
+     * @throws IllegalStateException If the animal is not on a ground or has a planned step that was not applied.
+     */
+    protected @NotNull StepIntent planStep(@NotNull Runnable doStep) {
+        Ground currentGround = getGround();
+        if (currentGround == null || intent != null) throw new IllegalStateException();
+
+        StepIntent stepIntent = new StepIntent(this, currentGround);
+        intent = stepIntent;
+        isPlanningStep = true;
+        try {
+            doStep.run();
+        } finally {
+            isPlanningStep = false;
+        }
+        return stepIntent;
+    }
+
+    /**
+     * Applies the parts of the planned step that were allowed when the intents were resolved.
+     * A born baby and an eaten prey are kept in the intent.
+     *
+     * @param pool The pool of the animals reused for the babies.
+     *
+     * @throws IllegalStateException If the animal has no planned step.
+     */
+    protected <T extends Animal> void applyIntent(@NotNull AnimalPool<T> pool) {
+        StepIntent stepIntent = intent;
+        if (stepIntent == null) throw new IllegalStateException();
+        intent = null;
+
+        Ground target = stepIntent.getTarget();
+        Shelter targetShelter = stepIntent.getTargetShelter();
+        if (target != null && !stepIntent.isMoveAllowed()) {
+            resetMovingDirection();
+        } else if (targetShelter != null) {
+            if (targetShelter.enter(this)) enterShelter(target, targetShelter);
+        } else if (target != null) {
+            moveToGround(target);
+        }
+
+        if (stepIntent.eatsPlant()) eatPlant(stepIntent.getPlantSatietyChange());
+
+        if (stepIntent.getBirthGround() != null && stepIntent.isBirthAllowed()) {
+            stepIntent.baby = placeBaby(
+                stepIntent.getFemale(),
+                stepIntent.getBirthGround(),
+                stepIntent.getFemaleSatietyChange(),
+                stepIntent.getBabySex(),
+                stepIntent.getBabyShelter(),
+                pool
+            );
+        }
+
+        if (stepIntent.getEatenPrey() != null) {
+            stepIntent.getPreyGround().removeAnimal();
+            changeSatiety(stepIntent.getPreySatietyChange());
+        }
+    }
+
+    /**
+     * Decreases the satiety of the animal if it made enough steps since the last decrease.
+     * If the satiety needs to be decreased and it is already 0, the animal dies.
+     * The map does this for all the animals of a store at once, see {@link AnimalStore#doLifecycleStep}.
+     */
+    protected void tryToDecreaseSatiety() {
+        table.tryToDecreaseSatiety(row);
+    }
+
+    /**
+     * Makes the animal older if it made enough steps since it grew for the last time.
+     * A child grows into an adult and an adult into a senior. A senior dies instead.
+     * The map does this for all the animals of a store at once, see {@link AnimalStore#doLifecycleStep}.
+     */
+    protected void tryToGrow() {
+        Age previousAge = table.tryToGrow(row);
+        if (previousAge != null) onAgeChanged(previousAge);
+    }
+
+    /**
+     * Updates the occupancy of the ground of the animal after the animal has grown older.
+     *
+     * @param previousAge The age of the animal before it grew.
+     */
+    void onAgeChanged(@NotNull Age previousAge) {
+        Ground currentGround = getGround();
+        if (currentGround != null && currentGround.getAnimal() == this) {
+            currentGround.onAnimalAgeChanged(previousAge);
+        }
+    }
+
+}
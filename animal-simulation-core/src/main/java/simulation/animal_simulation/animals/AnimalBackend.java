@@ -0,0 +1,9 @@
+package simulation.animal_simulation.animals;
+
+/**
+ * Represents the storage backend of the state of the animals.
+ * Heap keeps the state in Java arrays, OffHeap keeps it in records outside the Java heap.
+ */
+public enum AnimalBackend {
+    Heap, OffHeap
+}
@@ -0,0 +1,89 @@
+package simulation.animal_simulation.animals;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.function.BiFunction;
+
+/**
+ * The AnimalPool class keeps the animals of one species that have left the map (decomposed or eaten), so they can
+ * be reset and reused for newborn animals instead of creating new ones. During a population boom the newborns
+ * reuse the animals that died in the previous bust, so the number of allocated animals stays flat.
+ *
+ * <p>The pool counts how many animals were reused (hits) and how many had to be created (misses).
+ * Animals are obtained and released under the lock of the pool, so it can be shared by several threads.</p>
+ *
+ * @param <T> The type of the animals in the pool.
+ */
+public class AnimalPool<T extends Animal> {
+
+    @NotNull private final BiFunction<Sex, Age, T> factory;
+    @NotNull private final ArrayList<T> freeAnimals = new ArrayList<>();
+    private long hitCount = 0;
+    private long missCount = 0;
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param factory The function that creates a new animal with the given sex and age when the pool is empty.
+     */
+    public AnimalPool(@NotNull BiFunction<Sex, Age, T> factory) {
+        this.factory = factory;
+    }
+
+
+    /**
+     * @return The number of animals in the pool that are waiting to be reused.
+     */
+    public synchronized int size() {
+        return freeAnimals.size();
+    }
+
+    /**
+     * @return The number of animals that were reused from the pool.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return The number of animals that were created because the pool was empty.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns a new animal, reusing an animal from the pool if there is one.
+     *
+     * @param sex The sex of the animal.
+     * @param age The age of the animal.
+     *
+     * @return The animal in the state of a newly created one.
+     */
+    public synchronized @NotNull T obtain(@NotNull Sex sex, @NotNull Age age) {
+        if (freeAnimals.isEmpty()) {
+            missCount++;
+            return factory.apply(sex, age);
+        }
+
+        hitCount++;
+        T animal = freeAnimals.removeLast();
+        animal.reset(sex, age);
+        return animal;
+    }
+
+    /**
+     * Puts the animal that has left the map into the pool.
+     *
+     * @param animal The animal that is not in any store or on any ground.
+     *
+     * @throws IllegalArgumentException If the animal is still in a store or on a ground.
+     */
+    public synchronized void release(@NotNull T animal) {
+        if (animal.getEntityHandle() != 0 || animal.getOccupantHandle() != 0) throw new IllegalArgumentException();
+
+        freeAnimals.add(animal);
+    }
+
+}
@@ -0,0 +1,419 @@
+package simulation.animal_simulation.animals;
+
+import org.jetbrains.annotations.NotNull;
+import simulation.animal_simulation.scheduling.TimingWheel;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * The AnimalStore class keeps the animals of one species on the map in a dense array.
+ * Every animal gets an id and a generational handle when it is added. The handle combines the id with the
+ * generation of the id, so a handle of a removed animal never resolves to another animal that reuses the id.
+ *
+ * <p>Animals are removed by moving the last animal into the freed slot, so adding and removing an animal take
+ * constant time and the order of the animals is not preserved. The store also keeps the number of alive animals
+ * up to date, so counting them does not require a pass over all the animals.</p>
+ *
+ * <p>The state of the animals is kept in an {@link AnimalTable} whose rows follow the dense array, and the animals
+ * are views of their rows. The backend of the table decides whether the state is kept on the Java heap or
+ * outside of it, see {@link AnimalBackend}.</p>
+ *
+ * <p>The transitions of the lifecycle (a decrease of satiety, growing older and decomposing) happen many steps
+ * apart, so instead of counting the steps of every animal in every step, the store schedules the next transitions
+ * of every animal in a {@link TimingWheel} by the id of the animal, and a lifecycle step only visits the animals
+ * with a transition due in it, see {@link #doLifecycleStep}.</p>
+ *
+ * @param <T> The type of the animals in the store.
+ */
+public class AnimalStore<T extends Animal> implements Iterable<T> {
+
+    private static final int SatietyDecreaseTransition = 0;
+    private static final int GrowTransition = 1;
+    private static final int DecompositionTransition = 2;
+    private static final int TransitionBits = 2;
+    private static final int TransitionMask = (1 << TransitionBits) - 1;
+
+    private Animal[] animals = new Animal[16];
+    @NotNull private final AnimalTable table;
+    private int[] denseIds = new int[16];
+    private int size = 0;
+    private int aliveCount = 0;
+
+    /**
+     * Dense index of the animal with the given id or -1 if the id is free.
+     */
+    private int[] denseIndices = new int[16];
+    private int[] generations = new int[16];
+    private boolean[] countedAlive = new boolean[16];
+    private int idCount = 0;
+    private int[] freeIds = new int[16];
+    private int freeIdCount = 0;
+
+    @NotNull private final TimingWheel transitionWheel = new TimingWheel(2, 0);
+    private int[] decomposedRows = new int[16];
+
+    /**
+     * Creates an empty store that keeps the state of the animals on the Java heap.
+     */
+    public AnimalStore() {
+        this(AnimalBackend.Heap);
+    }
+
+    /**
+     * Creates an empty store.
+     *
+     * @param backend The backend of the table that keeps the state of the animals.
+     */
+    public AnimalStore(@NotNull AnimalBackend backend) {
+        this.table = AnimalTable.create(backend, 16);
+    }
+
+
+    /**
+     * @return The number of animals in the store, alive and dead.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The number of alive animals in the store.
+     */
+    public int getAliveCount() {
+        return aliveCount;
+    }
+
+    /**
+     * @return The number of dead animals in the store.
+     */
+    public int getDeadCount() {
+        return size - aliveCount;
+    }
+
+    /**
+     * Returns the animal in the given slot of the dense array.
+     *
+     * @param index The index of the slot, from 0 to size - 1.
+     *
+     * @return The animal in the slot.
+     */
+    @SuppressWarnings("unchecked")
+    public @NotNull T get(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return (T) animals[index];
+    }
+
+    /**
+     * Returns whether the animal in the given slot of the dense array is alive, reading only its row.
+     *
+     * @param index The index of the slot, from 0 to size - 1.
+     *
+     * @return True if the animal is alive.
+     */
+    public boolean isAlive(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return table.isAlive(index);
+    }
+
+    /**
+     * Returns the index of the ground of the animal in the given slot of the dense array, reading only its row.
+     *
+     * @param index The index of the slot, from 0 to size - 1.
+     *
+     * @return The index of the ground or -1 if the animal is not on the map.
+     */
+    public int getCellIndex(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException(index);
+        return table.get(index, AnimalTable.CellIndexField);
+    }
+
+    /**
+     * Returns the animal with the given handle.
+     *
+     * @param handle The handle returned by {@link #add(Animal)}.
+     *
+     * @return The animal or null if the animal with the handle has been removed.
+     */
+    @SuppressWarnings("unchecked")
+    public T getByHandle(long handle) {
+        int id = (int) handle;
+        int generation = (int) (handle >>> 32);
+        if (id < 0 || id >= idCount || generations[id] != generation || denseIndices[id] == -1) return null;
+
+        return (T) animals[denseIndices[id]];
+    }
+
+    /**
+     * @return True if the animal is in this store.
+     */
+    public boolean contains(@NotNull T animal) {
+        return animal.entityHandle != 0 && getByHandle(animal.entityHandle) == animal;
+    }
+
+    /**
+     * Adds the animal to the store.
+     *
+     * @param animal The animal to add.
+     *
+     * @return The generational handle of the animal.
+     *
+     * @throws IllegalArgumentException If the animal is already in a store.
+     */
+    public long add(@NotNull T animal) {
+        if (animal.entityHandle != 0) throw new IllegalArgumentException();
+
+        int id = freeIdCount > 0 ? freeIds[--freeIdCount] : createId();
+        generations[id]++;
+
+        if (size == animals.length) {
+            animals = Arrays.copyOf(animals, size * 2);
+            denseIds = Arrays.copyOf(denseIds, size * 2);
+        }
+        table.ensureCapacity(size + 1);
+        animal.table.copyRow(animal.row, table, size);
+        animal.attach(table, size);
+        animals[size] = animal;
+        denseIds[size] = id;
+        denseIndices[id] = size;
+        size++;
+
+        countedAlive[id] = animal.isAlive();
+        if (countedAlive[id]) aliveCount++;
+        scheduleTransitions(size - 1);
+
+        animal.entityHandle = (long) generations[id] << 32 | id;
+        return animal.entityHandle;
+    }
+
+    /**
+     * Schedules the next transitions of the animal that has just been added to the row from its step counters.
+     */
+    private void scheduleTransitions(int row) {
+        int step = transitionWheel.getCurrentStep();
+
+        if (table.isAlive(row)) {
+            scheduleTransition(
+                row, AnimalTable.SatietyDecreaseStepField, SatietyDecreaseTransition,
+                step + table.get(row, AnimalTable.StepsBeforeSatietyDecreaseField) -
+                    table.get(row, AnimalTable.StepsAfterSatietyDecreaseField) + 1
+            );
+            scheduleTransition(
+                row, AnimalTable.GrowStepField, GrowTransition,
+                step + table.get(row, AnimalTable.StepsBeforeGrowField) -
+                    table.get(row, AnimalTable.StepsAfterGrowField) + 1
+            );
+        } else {
+            scheduleDecomposition(row);
+        }
+    }
+
+    private void scheduleDecomposition(int row) {
+        scheduleTransition(
+            row, AnimalTable.DecompositionStepField, DecompositionTransition,
+            transitionWheel.getCurrentStep() + AnimalTable.StepsBeforeDecomposition -
+                table.get(row, AnimalTable.StepsAfterDeathField) + 1
+        );
+    }
+
+    /**
+     * Sets the step in which the transition of the animal in the row is due and schedules it.
+     * A step that has already passed is only stored, like a step counter that has overrun its limit it is never due.
+     */
+    private void scheduleTransition(int row, int field, int transition, int step) {
+        table.set(row, field, step);
+        if (step > transitionWheel.getCurrentStep()) {
+            transitionWheel.schedule(denseIds[row] << TransitionBits | transition, step);
+        }
+    }
+
+    /**
+     * Brings the step counters of the animal in the row up to date from the steps of its next transitions.
+     */
+    private void updateStepCounters(int row) {
+        int step = transitionWheel.getCurrentStep();
+
+        if (table.isAlive(row)) {
+            table.set(
+                row, AnimalTable.StepsAfterSatietyDecreaseField,
+                table.get(row, AnimalTable.StepsBeforeSatietyDecreaseField) -
+                    (table.get(row, AnimalTable.SatietyDecreaseStepField) - step - 1)
+            );
+            table.set(
+                row, AnimalTable.StepsAfterGrowField,
+                table.get(row, AnimalTable.StepsBeforeGrowField) -
+                    (table.get(row, AnimalTable.GrowStepField) - step - 1)
+            );
+        } else {
+            table.set(
+                row, AnimalTable.StepsAfterDeathField,
+                AnimalTable.StepsBeforeDecomposition - (table.get(row, AnimalTable.DecompositionStepField) - step - 1)
+            );
+        }
+    }
+
+    private int createId() {
+        if (idCount == denseIndices.length) {
+            denseIndices = Arrays.copyOf(denseIndices, idCount * 2);
+            generations = Arrays.copyOf(generations, idCount * 2);
+            countedAlive = Arrays.copyOf(countedAlive, idCount * 2);
+        }
+        return idCount++;
+    }
+
+    /**
+     * Removes the animal from the store by moving the last animal into its slot.
+     *
+     * @param animal The animal to remove.
+     *
+     * @return True if the animal was removed, false if it was not in the store.
+     */
+    public boolean remove(@NotNull T animal) {
+        if (!contains(animal)) return false;
+
+        int id = (int) animal.entityHandle;
+        int index = denseIndices[id];
+        int lastIndex = size - 1;
+
+        updateStepCounters(index);
+        table.copyRow(index, animal.detachedTable, 0);
+
+        table.copyRow(lastIndex, table, index);
+        animals[index] = animals[lastIndex];
+        animals[index].attach(table, index);
+        denseIds[index] = denseIds[lastIndex];
+        denseIndices[denseIds[index]] = index;
+        animals[lastIndex] = null;
+        size--;
+
+        if (countedAlive[id]) aliveCount--;
+        countedAlive[id] = false;
+        denseIndices[id] = -1;
+
+        if (freeIdCount == freeIds.length) freeIds = Arrays.copyOf(freeIds, freeIdCount * 2);
+        freeIds[freeIdCount++] = id;
+
+        animal.attach(animal.detachedTable, 0);
+        animal.entityHandle = 0;
+        return true;
+    }
+
+    /**
+     * Does the lifecycle step for the animals in the store that have a transition due in it.
+     * Alive animals get hungry and older and can die of hunger or old age, dead animals decompose.
+     * The other animals are not visited.
+     * Animals that decompose stay in the store and on their ground, so they can be removed after the step; an animal
+     * that is not removed decomposes again in the next step.
+     *
+     * @param onAnimalDecomposed The function that is called for every animal that has decomposed, in the order of
+     * the dense array.
+     */
+    public void doLifecycleStep(@NotNull Function<T, Boolean> onAnimalDecomposed) {
+        int dueCount = transitionWheel.advance();
+        int decomposedCount = 0;
+
+        int position = 0;
+        while (position < dueCount) {
+            int id = transitionWheel.getDuePayload(position) >>> TransitionBits;
+            int transitions = 0;
+            for (; position < dueCount; position++) {
+                int payload = transitionWheel.getDuePayload(position);
+                if (payload >>> TransitionBits != id) break;
+                transitions |= 1 << (payload & TransitionMask);
+            }
+
+            int row = denseIndices[id];
+            if (row == -1) continue;
+            if (doTransitions(row, transitions)) {
+                if (decomposedCount == decomposedRows.length) {
+                    decomposedRows = Arrays.copyOf(decomposedRows, decomposedCount * 2);
+                }
+                decomposedRows[decomposedCount++] = row;
+            }
+        }
+
+        Arrays.sort(decomposedRows, 0, decomposedCount);
+        for (int i = 0; i < decomposedCount; i++) {
+            onAnimalDecomposed.apply(get(decomposedRows[i]));
+        }
+    }
+
+    /**
+     * Does the transitions of the animal in the row that are due in the current step.
+     * The scheduled transitions that are no longer due, for example because the id of the animal was reused, are
+     * ignored.
+     *
+     * @param row The row of the animal.
+     * @param transitions The bit set of the transitions scheduled for the current step.
+     *
+     * @return True if the animal has decomposed.
+     */
+    private boolean doTransitions(int row, int transitions) {
+        int step = transitionWheel.getCurrentStep();
+
+        if (!table.isAlive(row)) {
+            if (!isTransitionDue(row, transitions, DecompositionTransition, AnimalTable.DecompositionStepField)) {
+                return false;
+            }
+            scheduleTransition(row, AnimalTable.DecompositionStepField, DecompositionTransition, step + 1);
+            return true;
+        }
+
+        if (isTransitionDue(row, transitions, SatietyDecreaseTransition, AnimalTable.SatietyDecreaseStepField)) {
+            table.decreaseSatiety(row);
+            scheduleTransition(
+                row, AnimalTable.SatietyDecreaseStepField, SatietyDecreaseTransition,
+                step + table.get(row, AnimalTable.StepsBeforeSatietyDecreaseField) + 1
+            );
+        }
+        if (isTransitionDue(row, transitions, GrowTransition, AnimalTable.GrowStepField)) {
+            Age previousAge = table.grow(row);
+            if (previousAge != null) animals[row].onAgeChanged(previousAge);
+            scheduleTransition(
+                row, AnimalTable.GrowStepField, GrowTransition,
+                step + table.get(row, AnimalTable.StepsBeforeGrowField) + 1
+            );
+        }
+
+        if (!table.isAlive(row)) {
+            countedAlive[denseIds[row]] = false;
+            aliveCount--;
+            table.set(row, AnimalTable.StepsAfterDeathField, 0);
+            scheduleDecomposition(row);
+        }
+        return false;
+    }
+
+    private boolean isTransitionDue(int row, int transitions, int transition, int field) {
+        return (transitions & 1 << transition) != 0 && table.get(row, field) == transitionWheel.getCurrentStep();
+    }
+
+    /**
+     * Returns an iterator over the animals in the order of the dense array.
+     * The store must not be modified while the iterator is used.
+     */
+    @Override
+    public @NotNull Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public T next() {
+                if (index >= size) throw new NoSuchElementException();
+                return get(index++);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,191 @@
+package simulation.animal_simulation.animals;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The AnimalTable class keeps the state of animals in rows of integer fields, one row per animal.
+ * Besides the lifecycle state, a row holds the index of the ground the animal is on and the index of the ground of
+ * its nearest shelter, so moving, eating and the shelter checks read the position of the animal from its row.
+ * An {@link Animal} object is a view of one row of a table. The table of an {@link AnimalStore} has a row for
+ * every animal in the store, in the order of its dense array, and an animal that is not in any store is a view of
+ * its detached row, see {@link DetachedAnimalTable}.
+ *
+ * <p>The lifecycle of the animals (getting hungry, growing older and decomposing) is done by the methods of this
+ * class, which only touch the fields of the rows. An animal outside a store counts its steps in the step counter
+ * fields. In the table of a store the step counters are not updated; the store keeps the steps in which the next
+ * transitions of an animal are due in the transition step fields instead, and the counters are brought up to date
+ * when the animal leaves the store. Subclasses decide where the fields are kept, see {@link AnimalBackend}.</p>
+ */
+abstract class AnimalTable {
+
+    /**
+     * The number of steps a dead animal stays on the map before it decomposes.
+     */
+    static final int StepsBeforeDecomposition = 20;
+
+    static final int SexField = 0;
+    static final int AgeField = 1;
+    static final int AliveField = 2;
+    static final int MaxSatietyField = 3;
+    static final int SatietyField = 4;
+    static final int StepsBeforeSatietyDecreaseField = 5;
+    static final int StepsAfterSatietyDecreaseField = 6;
+    static final int StepsBeforeGrowField = 7;
+    static final int StepsAfterGrowField = 8;
+    static final int StepsAfterDeathField = 9;
+    /**
+     * The step of the store in which the satiety of the animal decreases next.
+     */
+    static final int SatietyDecreaseStepField = 10;
+    /**
+     * The step of the store in which the animal grows older next.
+     */
+    static final int GrowStepField = 11;
+    /**
+     * The step of the store in which the dead animal decomposes.
+     */
+    static final int DecompositionStepField = 12;
+    /**
+     * The index of the ground the animal is on in the grid of the map or -1 if it is not on the map.
+     */
+    static final int CellIndexField = 13;
+    /**
+     * The index of the ground of the nearest shelter of the animal or -1 if it has none.
+     */
+    static final int ShelterCellIndexField = 14;
+    static final int FieldCount = 15;
+
+    private static final Age[] Ages = Age.values();
+    private static final Sex[] Sexes = Sex.values();
+
+    /**
+     * Creates a table with the given number of rows kept by the given backend.
+     *
+     * @param backend The backend of the table.
+     * @param capacity The initial number of rows.
+     *
+     * @return The table.
+     */
+    static @NotNull AnimalTable create(@NotNull AnimalBackend backend, int capacity) {
+        return switch (backend) {
+            case Heap -> new HeapAnimalTable(capacity);
+            case OffHeap -> new OffHeapAnimalTable(capacity);
+        };
+    }
+
+
+    abstract int getCapacity();
+
+    /**
+     * Grows the table so it has at least the given number of rows. The new rows are not initialized.
+     *
+     * @param capacity The minimal number of rows.
+     */
+    abstract void ensureCapacity(int capacity);
+
+    abstract int get(int row, int field);
+    abstract void set(int row, int field, int value);
+
+    /**
+     * Copies a row of this table to a row of another table or of this one.
+     *
+     * @param row The row to copy.
+     * @param target The table to copy the row to.
+     * @param targetRow The row of the target table that is overwritten.
+     */
+    void copyRow(int row, @NotNull AnimalTable target, int targetRow) {
+        for (int field = 0; field < FieldCount; field++) {
+            target.set(targetRow, field, get(row, field));
+        }
+    }
+
+    @NotNull Sex getSex(int row) {
+        return Sexes[get(row, SexField)];
+    }
+
+    @NotNull Age getAge(int row) {
+        return Ages[get(row, AgeField)];
+    }
+    void setAge(int row, @NotNull Age age) {
+        set(row, AgeField, age.ordinal());
+    }
+
+    boolean isAlive(int row) {
+        return get(row, AliveField) != 0;
+    }
+    void setAlive(int row, boolean isAlive) {
+        set(row, AliveField, isAlive ? 1 : 0);
+    }
+
+
+    /**
+     * Decreases the satiety of the animal in the row if it made enough steps since the last decrease.
+     * If the satiety needs to be decreased and it is already 0, the animal dies.
+     *
+     * @param row The row of an alive animal.
+     */
+    void tryToDecreaseSatiety(int row) {
+        int stepsAfterSatietyDecrease = get(row, StepsAfterSatietyDecreaseField);
+
+        if (stepsAfterSatietyDecrease == get(row, StepsBeforeSatietyDecreaseField)) {
+            decreaseSatiety(row);
+            if (isAlive(row)) set(row, StepsAfterSatietyDecreaseField, 0);
+        } else {
+            set(row, StepsAfterSatietyDecreaseField, stepsAfterSatietyDecrease + 1);
+        }
+    }
+
+    /**
+     * Decreases the satiety of the animal in the row. If the satiety is already 0, the animal dies.
+     *
+     * @param row The row of an alive animal.
+     */
+    void decreaseSatiety(int row) {
+        int satiety = get(row, SatietyField);
+        if (satiety == 0) {
+            setAlive(row, false);
+            return;
+        }
+        set(row, SatietyField, satiety - 1);
+    }
+
+    /**
+     * Makes the animal in the row older if it made enough steps since it grew for the last time.
+     * A child grows into an adult and an adult into a senior. A senior dies instead.
+     *
+     * @param row The row of the animal.
+     *
+     * @return The age of the animal before it grew or null if it did not grow.
+     */
+    Age tryToGrow(int row) {
+        int stepsAfterGrow = get(row, StepsAfterGrowField);
+        if (stepsAfterGrow != get(row, StepsBeforeGrowField)) {
+            set(row, StepsAfterGrowField, stepsAfterGrow + 1);
+            return null;
+        }
+
+        Age previousAge = grow(row);
+        if (previousAge != null) set(row, StepsAfterGrowField, 0);
+        return previousAge;
+    }
+
+    /**
+     * Makes the animal in the row older. A child grows into an adult and an adult into a senior.
+     * A senior dies instead.
+     *
+     * @param row The row of the animal.
+     *
+     * @return The age of the animal before it grew or null if it died.
+     */
+    Age grow(int row) {
+        Age previousAge = getAge(row);
+        if (previousAge == Age.Senior) {
+            setAlive(row, false);
+            return null;
+        }
+
+        set(row, AgeField, previousAge.ordinal() + 1);
+        return previousAge;
+    }
+
+}
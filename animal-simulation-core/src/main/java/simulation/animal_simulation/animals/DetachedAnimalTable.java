@@ -0,0 +1,36 @@
+package simulation.animal_simulation.animals;
+
+/**
+ * The DetachedAnimalTable class keeps the single row of an animal that is not in any store.
+ * All the fields of the row are kept in one array, so every animal allocates its detached row once and keeps it
+ * for its whole life, including the times it is reused from an {@link AnimalPool}.
+ */
+class DetachedAnimalTable extends AnimalTable {
+
+    private final int[] fields = new int[FieldCount];
+
+
+    @Override
+    int getCapacity() {
+        return 1;
+    }
+
+    /**
+     * @throws IllegalArgumentException If the capacity is more than one row.
+     */
+    @Override
+    void ensureCapacity(int capacity) {
+        if (capacity > 1) throw new IllegalArgumentException();
+    }
+
+    @Override
+    int get(int row, int field) {
+        return fields[field];
+    }
+
+    @Override
+    void set(int row, int field, int value) {
+        fields[field] = value;
+    }
+
+}
@@ -18,6 +18,11 @@ import java.util.function.Function;
  */
 public class Fox extends Animal {
 
+    private static final int MaxSatiety = 16;
+    private static final int VisionRange = 3;
+    private static final int StepsBeforeGrow = 50;
+    private static final int InitialSatiety = 8;
+    private static final int StepsBeforeSatietyDecrease = 14;
     private final double SatietyRatioToSearchForOtherFoxes = 0.7;
 
     /**
@@ -30,12 +35,12 @@ public class Fox extends Animal {
         super(
             AnimalSpecies.Fox,
             sex,
-            16,
-            3,
+            MaxSatiety,
+            VisionRange,
             Age.Adult,
-            50,
-            8,
-            14
+            StepsBeforeGrow,
+            InitialSatiety,
+            StepsBeforeSatietyDecrease
         );
     }
 
@@ -50,55 +55,71 @@ public class Fox extends Animal {
         super(
             AnimalSpecies.Fox,
             sex,
-            16,
-            3,
+            MaxSatiety,
+            VisionRange,
             age,
-            50,
-            8,
-            14
+            StepsBeforeGrow,
+            InitialSatiety,
+            StepsBeforeSatietyDecrease
         );
     }
 
-    /**
-     * Returns a baby fox.
-     *
-     * @return A baby fox.
-     */
-    private Fox getBabyFox() {
-        Fox babyRabbit = new Fox(
-            Math.random() < 0.5 ? Sex.Female : Sex.Male,
-            Age.Child
-        );
-        babyRabbit.setNearestShelter(nearestShelter);
-        return babyRabbit;
+    @Override
+    void reset(@NotNull Sex sex, @NotNull Age age) {
+        reset(sex, MaxSatiety, age, StepsBeforeGrow, InitialSatiety, StepsBeforeSatietyDecrease);
     }
 
 
-    public void doStep(Function<Fox, Boolean> onFoxWasBorn, Function<Rabbit, Boolean> onRabbitHasEaten) {
+
+    public void doStep(
+        @NotNull AnimalPool<Fox> foxPool,
+        Function<Fox, Boolean> onFoxWasBorn,
+        Function<Rabbit, Boolean> onRabbitHasEaten
+    ) {
         if (isInShelter()) {
             tryToLeaveCell();
-        } else {
-            Fox babyFox = age != Age.Child ? tryToReproduce() : null;
-            if (babyFox != null) {
-                onFoxWasBorn.apply(babyFox);
-            } else if (((double) satiety / maxSatiety) > SatietyRatioToSearchForOtherFoxes) {
+        } else if (getAge() == Age.Child || !tryToReproduce(foxPool, onFoxWasBorn)) {
+            if (((double) getSatiety() / getMaxSatiety()) > SatietyRatioToSearchForOtherFoxes) {
                 searchForOtherFoxes();
             } else if (!tryToEat(onRabbitHasEaten)) {
                 this.moveToNextGround(onRabbitHasEaten);
             }
         }
-        tryToDecreaseSatiety();
-        tryToGrow();
+    }
+
+    /**
+     * Plans the step of the fox without changing the map, see {@link #doStep}.
+     *
+     * @param foxPool The pool of the foxes that are reused for the newborn foxes.
+     *
+     * @return The intent of the step.
+     */
+    public @NotNull StepIntent planStep(@NotNull AnimalPool<Fox> foxPool) {
+        return planStep(() -> doStep(foxPool, babyFox -> true, eatenRabbit -> true));
+    }
+
+    /**
+     * Applies the planned step of the fox after the intents of all the foxes have been resolved.
+     * A fox born in the step and a rabbit eaten in the step are kept in the intent.
+     *
+     * @param foxPool The pool of the foxes that are reused for the newborn foxes.
+     */
+    public void applyPlannedStep(@NotNull AnimalPool<Fox> foxPool) {
+        applyIntent(foxPool);
     }
 
     /**
      * Tries to reproduce with another fox.
-     * If the fox could reproduce, it will create a baby fox and return it.
+     * If the fox could reproduce, a baby fox is born next to the female.
+     *
+     * @param foxPool The pool of the foxes that are reused for the newborn foxes.
+     * @param onFoxWasBorn The function that is called when a new fox is born.
      *
-     * @return The baby fox if the fox could reproduce, null otherwise.
+     * @return True if the fox could reproduce, false otherwise.
      */
-    private Fox tryToReproduce() {
-        if (currentGround == null || ((double) satiety / maxSatiety) < 0.8) return null;
+    private boolean tryToReproduce(@NotNull AnimalPool<Fox> foxPool, Function<Fox, Boolean> onFoxWasBorn) {
+        Ground currentGround = getGround();
+        if (currentGround == null || ((double) getSatiety() / getMaxSatiety()) < 0.8) return false;
 
         List<Ground> grounds = getNearestGrounds(Objects::nonNull);
         for (Ground ground : grounds) {
@@ -107,33 +128,32 @@ public class Fox extends Animal {
             if (
                 animal != null &&
                     animal.species == AnimalSpecies.Fox &&
-                    animal.isAlive &&
-                    sex != animal.sex &&
-                    animal.age != Age.Child
+                    animal.isAlive() &&
+                    getSex() != animal.getSex() &&
+                    animal.getAge() != Age.Child
             ) {
 
-                Fox femaleFox = sex == Sex.Female ? this : (Fox) animal;
-                Ground femaleFoxGround = femaleFox.currentGround;
-                if (
-                    femaleFoxGround == null ||
-                    ((double) femaleFox.satiety / femaleFox.maxSatiety) < 0.5
-                ) {
+                Fox femaleFox = getSex() == Sex.Female ? this : (Fox) animal;
+                Ground femaleFoxGround = femaleFox == this ? currentGround : ground;
+                if (((double) femaleFox.getSatiety() / femaleFox.getMaxSatiety()) < 0.5) {
                     continue;
                 }
 
-                List<Ground> femaleFoxGrounds = femaleFox.getNearestGrounds(Ground::isAvailable);
+                List<Ground> femaleFoxGrounds = femaleFoxGround.getNearestGrounds().stream()
+                    .filter(Ground::isAvailable)
+                    .toList();
                 if (!femaleFoxGrounds.isEmpty()) {
-                    Fox babyFox = getBabyFox();
-                    femaleFoxGrounds.getFirst().setAnimal(babyFox);
-                    femaleFox.satiety -= (int) (maxSatiety / 1.5);
-
-                    return babyFox;
+                    giveBirth(
+                        femaleFox, femaleFoxGround, femaleFoxGrounds.getFirst(),
+                        -(int) (getMaxSatiety() / 1.5), foxPool, onFoxWasBorn
+                    );
+                    return true;
                 }
 
             }
         }
 
-        return null;
+        return false;
     }
 
     /**
@@ -143,7 +163,7 @@ public class Fox extends Animal {
      * @return True if the fox could eat, false otherwise.
      */
     private boolean tryToEat(Function<Rabbit, Boolean> removeRabbit) {
-        if (satiety == maxSatiety || currentGround == null) return false;
+        if (getSatiety() == getMaxSatiety() || getCellIndex() == -1) return false;
 
         List<Ground> nearestGrounds = getNearestGrounds(Objects::nonNull);
         for (Ground ground : nearestGrounds) {
@@ -167,18 +187,13 @@ public class Fox extends Animal {
         Rabbit rabbit = (Rabbit) ground.getAnimal();
         if (rabbit == null) return;
 
-        ground.removeAnimal();
-        removeRabbit.apply(rabbit);
-
-        switch (rabbit.age) {
-            case Child -> satiety += 4;
-            case Adult -> satiety += 8;
-            case Senior -> satiety += 12;
-        }
+        int satiety = getSatiety() + switch (rabbit.getAge()) {
+            case Child -> 4;
+            case Adult -> 8;
+            case Senior -> 12;
+        };
 
-        if (satiety > maxSatiety) {
-            satiety = maxSatiety;
-        }
+        eatAnimal(rabbit, ground, Math.min(satiety, getMaxSatiety()) - getSatiety(), removeRabbit);
 
     }
 
@@ -186,19 +201,22 @@ public class Fox extends Animal {
      * Moves the fox to the next ground.
      * The next ground is chosen as the ground in the fox's vision range that has a rabbit on it.
      * If there's no such ground, the next ground is chosen as the ground in the fox's vision range that has a fox.
+     * The vision range is only searched for rabbits if the occupancy snapshot has any rabbit around the fox.
      */
     private void moveToNextGround(Function<Rabbit, Boolean> removeRabbit) {
 
-        Ground groundWithRabbitInVisionRange = getGroundInVisionRangeByConditionSortedByDistance( ground ->
+        Ground groundWithRabbitInVisionRange =
+            getGround().countAnimalsAround(AnimalSpecies.Rabbit, visionRange) == 0 ? null :
+            getGroundInVisionRangeByConditionSortedByDistance( ground ->
                 ground.getAnimal() != null &&
                         ground.getAnimal().species == AnimalSpecies.Rabbit &&
                         ground.getShelter() == null
-        );
+            );
 
         if (
             groundWithRabbitInVisionRange == null &&
-            age != Age.Child &&
-            ((double) satiety / maxSatiety) > SatietyRatioToSearchForOtherFoxes
+            getAge() != Age.Child &&
+            ((double) getSatiety() / getMaxSatiety()) > SatietyRatioToSearchForOtherFoxes
         ) {
             searchForOtherFoxes();
         } else {
@@ -215,7 +233,7 @@ public class Fox extends Animal {
         Ground nextGround = getGroundInVisionRangeByConditionSortedByDistance( ground ->
             ground.getAnimal() != null &&
             ground.getAnimal().species == AnimalSpecies.Fox &&
-            ground.getAnimal().age != Age.Child &&
+            ground.getAnimal().getAge() != Age.Child &&
             ground.getAnimal().isAlive() &&
             ground.getShelter() == null
         );
@@ -0,0 +1,50 @@
+package simulation.animal_simulation.animals;
+
+import java.util.Arrays;
+
+/**
+ * The HeapAnimalTable class keeps every field of the animals in its own Java array, so a pass over one field
+ * of all the animals reads a single array sequentially.
+ */
+class HeapAnimalTable extends AnimalTable {
+
+    private final int[][] fields = new int[FieldCount][];
+
+    /**
+     * Creates a table with the given number of rows.
+     *
+     * @param capacity The number of rows.
+     */
+    HeapAnimalTable(int capacity) {
+        for (int field = 0; field < FieldCount; field++) {
+            fields[field] = new int[capacity];
+        }
+    }
+
+
+    @Override
+    int getCapacity() {
+        return fields[0].length;
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {
+        if (capacity <= getCapacity()) return;
+
+        int newCapacity = Math.max(capacity, getCapacity() * 2);
+        for (int field = 0; field < FieldCount; field++) {
+            fields[field] = Arrays.copyOf(fields[field], newCapacity);
+        }
+    }
+
+    @Override
+    int get(int row, int field) {
+        return fields[field][row];
+    }
+
+    @Override
+    void set(int row, int field, int value) {
+        fields[field][row] = value;
+    }
+
+}
@@ -0,0 +1,67 @@
+package simulation.animal_simulation.animals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * The OffHeapAnimalTable class keeps the animals in fixed-layout records outside the Java heap.
+ * Each record holds all the fields of one animal as 4-byte integers, including the index of its ground and of
+ * the ground of its nearest shelter. The records are kept in direct buffers (slabs) of 65536 records each, and
+ * the table grows by allocating new slabs, so the existing records are never copied and the garbage collector
+ * never scans or moves them.
+ *
+ * <p>Only the state of the animals is kept off the heap. Every animal still has its {@link Animal} object, which
+ * the behaviour of its species runs on, see {@link AnimalStore}.</p>
+ */
+class OffHeapAnimalTable extends AnimalTable {
+
+    private static final int RecordSize = FieldCount * Integer.BYTES;
+    private static final int SlabShift = 16;
+    private static final int SlabMask = (1 << SlabShift) - 1;
+
+    private ByteBuffer[] slabs = new ByteBuffer[0];
+
+    /**
+     * Creates a table with at least the given number of rows.
+     *
+     * @param capacity The minimal number of rows.
+     */
+    OffHeapAnimalTable(int capacity) {
+        ensureCapacity(capacity);
+    }
+
+
+    @Override
+    int getCapacity() {
+        return slabs.length << SlabShift;
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {
+        if (capacity <= getCapacity()) return;
+
+        int slabCount = (capacity + SlabMask) >>> SlabShift;
+        int previousSlabCount = slabs.length;
+        slabs = Arrays.copyOf(slabs, slabCount);
+
+        for (int i = previousSlabCount; i < slabCount; i++) {
+            slabs[i] = ByteBuffer.allocateDirect(RecordSize << SlabShift).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    private static int getOffset(int row, int field) {
+        return (row & SlabMask) * RecordSize + field * Integer.BYTES;
+    }
+
+    @Override
+    int get(int row, int field) {
+        return slabs[row >>> SlabShift].getInt(getOffset(row, field));
+    }
+
+    @Override
+    void set(int row, int field, int value) {
+        slabs[row >>> SlabShift].putInt(getOffset(row, field), value);
+    }
+
+}
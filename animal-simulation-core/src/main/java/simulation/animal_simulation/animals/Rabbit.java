@@ -2,8 +2,6 @@ package simulation.animal_simulation.animals;
 
 import org.jetbrains.annotations.NotNull;
 import simulation.animal_simulation.map.Ground;
-import simulation.animal_simulation.map.plants.Grass;
-import simulation.animal_simulation.map.plants.ThickVegetation;
 
 import java.util.List;
 import java.util.Objects;
@@ -19,6 +17,12 @@ import java.util.function.Function;
  */
 public class Rabbit extends Animal {
 
+    private static final int MaxSatiety = 10;
+    private static final int VisionRange = 3;
+    private static final int StepsBeforeGrow = 30;
+    private static final int InitialSatiety = 5;
+    private static final int StepsBeforeSatietyDecrease = 8;
+
     /**
      * Constructor for the Rabbit class.
      * Initial values: maxSatiety: 10, visionRange: 2, satiety: 5, stepsBeforeSatietyDecrease: 8.
@@ -29,12 +33,12 @@ public class Rabbit extends Animal {
         super(
             AnimalSpecies.Rabbit,
             sex,
-            10,
-            3,
+            MaxSatiety,
+            VisionRange,
             Age.Adult,
-            30,
-            5,
-            8
+            StepsBeforeGrow,
+            InitialSatiety,
+            StepsBeforeSatietyDecrease
         );
     }
 
@@ -49,12 +53,12 @@ public class Rabbit extends Animal {
         super(
             AnimalSpecies.Rabbit,
             sex,
-            10,
-            3,
+            MaxSatiety,
+            VisionRange,
             age,
-            30,
-            5,
-            8
+            StepsBeforeGrow,
+            InitialSatiety,
+            StepsBeforeSatietyDecrease
         );
     }
 
@@ -67,70 +71,92 @@ public class Rabbit extends Animal {
         super(AnimalSpecies.Rabbit, isAlive);
     }
 
-    /**
-     * Returns a baby rabbit.
-     *
-     * @return A baby rabbit.
-     */
-    private Rabbit getBabyRabbit() {
-        Rabbit babyRabbit = new Rabbit(
-            Math.random() < 0.5 ? Sex.Female : Sex.Male,
-            Age.Child
-        );
-        babyRabbit.setNearestShelter(nearestShelter);
-        return babyRabbit;
+    @Override
+    void reset(@NotNull Sex sex, @NotNull Age age) {
+        reset(sex, MaxSatiety, age, StepsBeforeGrow, InitialSatiety, StepsBeforeSatietyDecrease);
     }
 
 
+
     /**
      * Performs a step in the simulation for the rabbit.
      * The rabbit will try to run to a shelter if it's in danger or already running to a shelter.
      * If not, it will try to eat and if it can't, it will move to the next ground.
-     * Finally, it will try to decrease its satiety.
+     * The satiety and the age of the rabbit are updated by the lifecycle step of the store, see
+     * {@link AnimalStore#doLifecycleStep}.
+     *
+     * @param rabbitPool The pool of the rabbits that are reused for the newborn rabbits.
+     * @param onNewRabbitHasBorn The function that is called when a new rabbit is born.
      */
-    public void doStep(Function<Rabbit, Boolean> onNewRabbitHasBorn) {
+    public void doStep(@NotNull AnimalPool<Rabbit> rabbitPool, Function<Rabbit, Boolean> onNewRabbitHasBorn) {
         runsToShelter = isInDanger();
 
         if (runsToShelter) {
             runToShelter();
         } else if (isInShelter()) {
             tryToLeaveCell();
-        } else {
-            Rabbit babyRabbit = age != Age.Child ? tryToReproduce() : null;
-            if (babyRabbit != null) {
-                onNewRabbitHasBorn.apply(babyRabbit);
-            } else if (satiety == maxSatiety) {
+        } else if (getAge() == Age.Child || !tryToReproduce(rabbitPool, onNewRabbitHasBorn)) {
+            if (getSatiety() == getMaxSatiety()) {
                 searchForOtherRabbits();
             } else if (!tryToEat()) {
                 this.moveToNextGround();
             }
         }
-        tryToDecreaseSatiety();
-        tryToGrow();
+    }
+
+    /**
+     * Plans the step of the rabbit without changing the map, see {@link #doStep}.
+     *
+     * @param rabbitPool The pool of the rabbits that are reused for the newborn rabbits.
+     *
+     * @return The intent of the step.
+     */
+    public @NotNull StepIntent planStep(@NotNull AnimalPool<Rabbit> rabbitPool) {
+        return planStep(() -> doStep(rabbitPool, babyRabbit -> true));
+    }
+
+    /**
+     * Applies the planned step of the rabbit after the intents of all the rabbits have been resolved.
+     * A rabbit born in the step is kept in the intent.
+     *
+     * @param rabbitPool The pool of the rabbits that are reused for the newborn rabbits.
+     */
+    public void applyPlannedStep(@NotNull AnimalPool<Rabbit> rabbitPool) {
+        applyIntent(rabbitPool);
     }
 
     /**
      * Checks if the rabbit is in danger.
      * A rabbit is in danger if there's a fox in its vision range.
+     * The vision range is only searched if the occupancy snapshot has any fox around the rabbit.
      *
      * @return True if the rabbit is in danger, false otherwise.
      */
     private boolean isInDanger() {
-        return getGroundsInVisionRange(currentGround).stream().anyMatch(
+        if (getGround().countAnimalsAround(AnimalSpecies.Fox, visionRange) == 0) return false;
+
+        return getGroundInVisionRangeByConditionSortedByDistance(
             ground -> ground.getAnimal() != null &&
                     ground.getAnimal().species == AnimalSpecies.Fox &&
                     ground.getAnimal().isAlive()
-        );
+        ) != null;
     }
 
     /**
      * Tries to reproduce with another rabbit.
-     * If the rabbit can reproduce, it will create a baby rabbit and return it.
+     * If the rabbit can reproduce, a baby rabbit is born next to the female.
+     *
+     * @param rabbitPool The pool of the rabbits that are reused for the newborn rabbits.
+     * @param onNewRabbitHasBorn The function that is called when a new rabbit is born.
      *
-     * @return The baby rabbit if the rabbit could reproduce, null otherwise.
+     * @return True if the rabbit could reproduce, false otherwise.
      */
-    private Rabbit tryToReproduce() {
-        if (currentGround == null || ((double) satiety / maxSatiety) < 0.5) return null;
+    private boolean tryToReproduce(
+        @NotNull AnimalPool<Rabbit> rabbitPool,
+        Function<Rabbit, Boolean> onNewRabbitHasBorn
+    ) {
+        Ground currentGround = getGround();
+        if (currentGround == null || ((double) getSatiety() / getMaxSatiety()) < 0.5) return false;
 
         List<Ground> grounds = getNearestGrounds(Objects::nonNull);
         for (Ground ground : grounds) {
@@ -139,30 +165,32 @@ public class Rabbit extends Animal {
             if (
                 animal != null &&
                 animal.species == AnimalSpecies.Rabbit &&
-                animal.isAlive &&
-                sex != animal.sex &&
-                animal.age != Age.Child
+                animal.isAlive() &&
+                getSex() != animal.getSex() &&
+                animal.getAge() != Age.Child
             ) {
 
-                Rabbit femaleRabbit = sex == Sex.Female ? this : (Rabbit) animal;
-                Ground femaleRabbitGround = femaleRabbit.currentGround;
-                if (femaleRabbitGround == null || ((double) femaleRabbit.satiety / femaleRabbit.maxSatiety) < 0.5) {
+                Rabbit femaleRabbit = getSex() == Sex.Female ? this : (Rabbit) animal;
+                Ground femaleRabbitGround = femaleRabbit == this ? currentGround : ground;
+                if (((double) femaleRabbit.getSatiety() / femaleRabbit.getMaxSatiety()) < 0.5) {
                     continue;
                 }
 
-                List<Ground> femaleRabbitGrounds = femaleRabbit.getNearestGrounds(Ground::isAvailable);
+                List<Ground> femaleRabbitGrounds = femaleRabbitGround.getNearestGrounds().stream()
+                    .filter(Ground::isAvailable)
+                    .toList();
                 if (!femaleRabbitGrounds.isEmpty()) {
-                    Rabbit babyRabbit = getBabyRabbit();
-                    femaleRabbitGrounds.getFirst().setAnimal(babyRabbit);
-                    femaleRabbit.satiety -= (maxSatiety / 3);
-
-                    return babyRabbit;
+                    giveBirth(
+                        femaleRabbit, femaleRabbitGround, femaleRabbitGrounds.getFirst(),
+                        -(getMaxSatiety() / 3), rabbitPool, onNewRabbitHasBorn
+                    );
+                    return true;
                 }
 
             }
         }
 
-        return null;
+        return false;
     }
 
     /**
@@ -172,22 +200,9 @@ public class Rabbit extends Animal {
      * @return True if the rabbit could eat, false otherwise.
      */
     private boolean tryToEat() {
-        if (satiety == maxSatiety || currentGround == null) return false;
-
-        Grass grass = currentGround.getGrass();
-        if (grass != null && grass.eat()) {
-            satiety++;
-            return true;
-        }
+        if (getSatiety() == getMaxSatiety() || getCellIndex() == -1) return false;
 
-        ThickVegetation thickVegetation = currentGround.getThickVegetation();
-        if (thickVegetation != null) {
-            thickVegetation.eat();
-            satiety++;
-            return true;
-        }
-
-        return false;
+        return eatPlant(1);
     }
 
     /**
@@ -200,14 +215,10 @@ public class Rabbit extends Animal {
     private void moveToNextGround() {
 
         Ground nextGround = getGroundInVisionRangeByConditionSortedByDistance( ground ->
-            ground.isAvailable() &&
-            (
-                (ground.getGrass() != null && ground.getGrass().quantity > 0) ||
-                (ground.getThickVegetation() != null && ground.getThickVegetation().quantity > 0)
-            )
+            ground.isAvailable() && ground.getGrassQuantity() > 0
         );
 
-        if (nextGround == null && age != Age.Child && ((double) satiety / maxSatiety) > 0.6) {
+        if (nextGround == null && getAge() != Age.Child && ((double) getSatiety() / getMaxSatiety()) > 0.6) {
             searchForOtherRabbits();
         } else {
             super.moveToNextGround(nextGround);
@@ -222,7 +233,7 @@ public class Rabbit extends Animal {
         Ground nextGround = getGroundInVisionRangeByConditionSortedByDistance( ground ->
                 ground.getAnimal() != null &&
                         ground.getAnimal().species == AnimalSpecies.Rabbit &&
-                        ground.getAnimal().age != Age.Child &&
+                        ground.getAnimal().getAge() != Age.Child &&
                         ground.getAnimal().isAlive() &&
                         ground.getShelter() == null
         );
@@ -0,0 +1,311 @@
+package simulation.animal_simulation.animals;
+
+import org.jetbrains.annotations.NotNull;
+import simulation.animal_simulation.map.Ground;
+import simulation.animal_simulation.map.Shelter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The StepIntent class holds what an animal wants to do in its step: move to a ground or into a shelter, eat
+ * the plant on its ground, give birth next to a female or eat another animal. The intent is planned from the map
+ * as it was at the start of the turn, so the intents of all the animals can be planned in any order or at once.
+ *
+ * <p>The intents of a turn are resolved together before they are applied. Intents that want the same ground,
+ * the same female or the same prey are sorted by the id of the ground of their animal at the start of the turn
+ * and the first one wins, so the outcome does not depend on the order in which the animals planned.</p>
+ */
+public final class StepIntent {
+
+    @NotNull private final Animal animal;
+    @NotNull private final Ground source;
+
+    private Ground target = null;
+    private Shelter targetShelter = null;
+    private boolean isMoveAllowed = true;
+
+    private int plantSatietyChange = 0;
+    private boolean eatsPlant = false;
+
+    private Animal female = null;
+    private Ground femaleGround = null;
+    private Ground birthGround = null;
+    private int femaleSatietyChange = 0;
+    private Sex babySex = null;
+    private Shelter babyShelter = null;
+    private boolean isBirthAllowed = true;
+    Animal baby = null;
+
+    private Animal prey = null;
+    private Ground preyGround = null;
+    private int preySatietyChange = 0;
+    private boolean isPreyAfterMove = false;
+    private boolean isPreyAllowed = true;
+
+    /**
+     * Creates an empty intent.
+     *
+     * @param animal The animal planning its step.
+     * @param source The ground of the animal at the start of the turn.
+     */
+    StepIntent(@NotNull Animal animal, @NotNull Ground source) {
+        this.animal = animal;
+        this.source = source;
+    }
+
+
+    public @NotNull Animal getAnimal() {
+        return animal;
+    }
+
+    public @NotNull Ground getSource() {
+        return source;
+    }
+
+    /**
+     * @return The ground the animal acts from for the rest of its planning: the target of a recorded move to
+     * a ground without a shelter, or the source.
+     */
+    @NotNull Ground getCurrentGround() {
+        return target != null && targetShelter == null ? target : source;
+    }
+
+    Ground getTarget() {
+        return target;
+    }
+
+    Shelter getTargetShelter() {
+        return targetShelter;
+    }
+
+    boolean isMoveAllowed() {
+        return isMoveAllowed;
+    }
+
+    boolean eatsPlant() {
+        return eatsPlant;
+    }
+
+    int getPlantSatietyChange() {
+        return plantSatietyChange;
+    }
+
+    Animal getFemale() {
+        return female;
+    }
+
+    Ground getBirthGround() {
+        return birthGround;
+    }
+
+    int getFemaleSatietyChange() {
+        return femaleSatietyChange;
+    }
+
+    Sex getBabySex() {
+        return babySex;
+    }
+
+    Shelter getBabyShelter() {
+        return babyShelter;
+    }
+
+    boolean isBirthAllowed() {
+        return isBirthAllowed;
+    }
+
+    /**
+     * @return The animal born when the intent was applied or null if no animal was born.
+     */
+    public Animal getBaby() {
+        return baby;
+    }
+
+    Animal getPrey() {
+        return prey;
+    }
+
+    Ground getPreyGround() {
+        return preyGround;
+    }
+
+    int getPreySatietyChange() {
+        return preySatietyChange;
+    }
+
+    boolean isPreyAllowed() {
+        return isPreyAllowed;
+    }
+
+    /**
+     * @return The animal eaten when the intent was applied or null if no animal was eaten.
+     */
+    public Animal getEatenPrey() {
+        return prey != null && isPreyAllowed ? prey : null;
+    }
+
+    void recordMove(@NotNull Ground target) {
+        if (this.target != null) throw new IllegalStateException();
+        this.target = target;
+    }
+
+    void recordShelterEntry(@NotNull Ground target, @NotNull Shelter shelter) {
+        recordMove(target);
+        this.targetShelter = shelter;
+    }
+
+    void recordPlant(int satietyChange) {
+        this.eatsPlant = true;
+        this.plantSatietyChange = satietyChange;
+    }
+
+    void recordBirth(
+        @NotNull Animal female,
+        @NotNull Ground femaleGround,
+        @NotNull Ground birthGround,
+        int femaleSatietyChange,
+        @NotNull Sex babySex,
+        Shelter babyShelter
+    ) {
+        this.female = female;
+        this.femaleGround = femaleGround;
+        this.birthGround = birthGround;
+        this.femaleSatietyChange = femaleSatietyChange;
+        this.babySex = babySex;
+        this.babyShelter = babyShelter;
+    }
+
+    void recordPrey(@NotNull Animal prey, @NotNull Ground preyGround, int satietyChange) {
+        this.prey = prey;
+        this.preyGround = preyGround;
+        this.preySatietyChange = satietyChange;
+        this.isPreyAfterMove = target != null;
+    }
+
+    /**
+     * Resolves the conflicts between the intents of a turn.
+     * A female gives birth at most once, a ground gets at most one animal, a shelter gets no more animals than
+     * it has free space for, and a prey is eaten at most once. The intents that lose keep their animals where
+     * they are, and a prey that was wanted after a lost move is not eaten.
+     *
+     * @param intents The intents of the animals of one species planned in the same turn.
+     */
+    public static void resolve(@NotNull List<StepIntent> intents) {
+        int[] positions = getPositionsByRank(intents);
+        int[] ranks = new int[positions.length];
+        for (int rank = 0; rank < positions.length; rank++) {
+            ranks[positions[rank]] = rank;
+        }
+
+        resolveClaims(intents, ranks, positions, ClaimKind.Female);
+        resolveClaims(intents, ranks, positions, ClaimKind.Ground);
+        resolveClaims(intents, ranks, positions, ClaimKind.Prey);
+    }
+
+    /**
+     * The kinds of the things the intents can claim.
+     */
+    private enum ClaimKind {
+        Female, Ground, Prey
+    }
+
+    /**
+     * Ranks the intents by the id of the ground of their animal at the start of the turn and then by their
+     * position in the list, since animals in the same shelter start on the same ground.
+     *
+     * @return The positions of the intents in the list in the order of their ranks.
+     */
+    private static int[] getPositionsByRank(@NotNull List<StepIntent> intents) {
+        long[] keys = new long[intents.size()];
+        for (int position = 0; position < keys.length; position++) {
+            keys[position] = (long) intents.get(position).source.id << 32 | position;
+        }
+        Arrays.sort(keys);
+
+        int[] positions = new int[keys.length];
+        for (int rank = 0; rank < keys.length; rank++) {
+            positions[rank] = (int) keys[rank];
+        }
+        return positions;
+    }
+
+    /**
+     * Sorts the claims of the given kind by the claimed ground and the rank of their intents, and lets only the
+     * first claims of every ground win.
+     * The lowest bit of a claim tells whether a ground is claimed for a birth rather than for a move.
+     */
+    private static void resolveClaims(
+        @NotNull List<StepIntent> intents,
+        int[] ranks,
+        int[] positions,
+        @NotNull ClaimKind kind
+    ) {
+        long[] claims = new long[intents.size() * 2];
+        int claimCount = 0;
+        for (int position = 0; position < intents.size(); position++) {
+            StepIntent intent = intents.get(position);
+            long rank = (long) ranks[position] << 1;
+
+            switch (kind) {
+                case Female -> {
+                    if (intent.female != null) {
+                        claims[claimCount++] = getClaim(intent.femaleGround, rank);
+                    }
+                }
+                case Ground -> {
+                    if (intent.target != null) {
+                        claims[claimCount++] = getClaim(intent.target, rank);
+                    }
+                    if (intent.birthGround != null && intent.isBirthAllowed) {
+                        claims[claimCount++] = getClaim(intent.birthGround, rank | 1);
+                    }
+                }
+                case Prey -> {
+                    if (intent.prey == null) continue;
+
+                    if (intent.isPreyAfterMove && !intent.isMoveAllowed) {
+                        intent.isPreyAllowed = false;
+                    } else {
+                        claims[claimCount++] = getClaim(intent.preyGround, rank);
+                    }
+                }
+            }
+        }
+        Arrays.sort(claims, 0, claimCount);
+
+        int groundId = 0;
+        int freeSpace = 0;
+        for (int i = 0; i < claimCount; i++) {
+            int claimedGroundId = (int) (claims[i] >>> 32);
+            StepIntent intent = intents.get(positions[(int) claims[i] >>> 1]);
+            boolean isBirth = (claims[i] & 1) != 0;
+
+            if (claimedGroundId != groundId) {
+                groundId = claimedGroundId;
+                Shelter shelter = kind == ClaimKind.Ground && !isBirth ? intent.targetShelter : null;
+                freeSpace = shelter != null ? shelter.capacity - shelter.animals.size() : 1;
+            }
+
+            boolean wins = freeSpace > 0;
+            if (wins) freeSpace--;
+
+            switch (kind) {
+                case Female -> intent.isBirthAllowed = wins;
+                case Ground -> {
+                    if (isBirth) {
+                        intent.isBirthAllowed = wins;
+                    } else {
+                        intent.isMoveAllowed = wins;
+                    }
+                }
+                case Prey -> intent.isPreyAllowed = wins;
+            }
+        }
+    }
+
+    private static long getClaim(@NotNull Ground ground, long rank) {
+        return (long) ground.id << 32 | rank;
+    }
+
+}
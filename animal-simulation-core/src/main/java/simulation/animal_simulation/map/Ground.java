@@ -0,0 +1,254 @@
+package simulation.animal_simulation.map;
+
+import org.jetbrains.annotations.NotNull;
+import simulation.animal_simulation.animals.Age;
+import simulation.animal_simulation.animals.Animal;
+import simulation.animal_simulation.animals.AnimalSpecies;
+import simulation.animal_simulation.map.navigation.Coordinates;
+import simulation.animal_simulation.map.navigation.VisionStencil;
+import simulation.animal_simulation.random.RandomStream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * The Ground class represents a single unit of the simulation map.
+ * Each Ground object has a unique identifier and coordinates on the map.
+ * A Ground can contain grass, thick vegetation, a shelter, or an animal.
+ * Its neighboring Grounds in all four directions (top, right, bottom, left) are resolved through the GroundGrid
+ * the Ground belongs to. Its grass, thick vegetation, shelter flag and animal are stored in the CellStore of that grid,
+ * so a Ground object only carries the identity of the cell.
+ * The Ground class provides methods for setting and getting its contents and neighbors.
+ */
+public class Ground {
+
+    public final int id;
+    public final Coordinates coordinates;
+
+    private Shelter shelter = null;
+
+    /**
+     * The grid this ground belongs to. It is set when the grid creates the ground.
+     */
+    GroundGrid grid = null;
+
+    /**
+     * Constructor for the Ground class.
+     *
+     * @param id The unique identifier for this ground.
+     * @param coordinates The coordinates of this ground on the map.
+     */
+    public Ground(int id, Coordinates coordinates) {
+        this.id = id;
+        this.coordinates = coordinates;
+    }
+
+
+    /**
+     * @return The grid this ground belongs to or null if it does not belong to any grid.
+     */
+    public GroundGrid getGrid() {
+        return grid;
+    }
+
+    public boolean isEmpty() {
+        return shelter == null && !hasPlant();
+    }
+
+    public boolean isAvailable() {
+        return shelter == null && !hasAnimal();
+    }
+
+    public boolean isAvailableForGrassSpread() {
+        return shelter == null && !hasPlant();
+    }
+
+    public boolean hasPlant() {
+        return grid != null && grid.vegetation.hasPlant(id - 1);
+    }
+
+    public boolean hasGrass() {
+        return grid != null && grid.vegetation.hasGrass(id - 1);
+    }
+    public void setGrass(int quantity) {
+        if (shelter != null) throw new IllegalArgumentException();
+        grid.vegetation.plantGrass(id - 1, quantity);
+    }
+
+    public boolean hasThickVegetation() {
+        return grid != null && grid.vegetation.hasThickVegetation(id - 1);
+    }
+    public void setThickVegetation(int quantity) {
+        if (shelter != null) throw new IllegalArgumentException();
+        grid.vegetation.plantThickVegetation(id - 1, quantity);
+    }
+
+    public int getGrassQuantity() {
+        return grid != null ? grid.vegetation.getQuantity(id - 1) : 0;
+    }
+
+    /**
+     * Returns the random number drawn for this ground in the current step of its grid, so any thread drawing it
+     * gets the same number.
+     *
+     * @param stream The purpose the number is drawn for.
+     *
+     * @return A uniformly distributed number from 0 inclusive to 1 exclusive.
+     */
+    public double getRandomDouble(@NotNull RandomStream stream) {
+        return grid.random.getDouble(stream, grid.vegetation.getStep(), id);
+    }
+
+    /**
+     * @return True if there is grass or thick vegetation on this ground that can be eaten.
+     */
+    public boolean canEatPlant() {
+        return grid != null && grid.canEatPlant(id - 1);
+    }
+
+    /**
+     * Eats one unit of the grass or the thick vegetation on this ground.
+     *
+     * @return True if there was something to eat, false otherwise.
+     */
+    public boolean eatPlant() {
+        return grid != null && grid.eatPlant(id - 1);
+    }
+
+    /**
+     * Returns the nearest ground covered by the stencil around this ground that meets the condition.
+     *
+     * @param stencil The stencil with the offsets to visit.
+     * @param condition The condition that the ground must meet.
+     *
+     * @return The nearest ground that meets the condition or null if there is no such ground.
+     */
+    public Ground findNearestGround(@NotNull VisionStencil stencil, @NotNull Predicate<Ground> condition) {
+        return grid != null ? grid.findNearestGround(this, stencil, condition) : null;
+    }
+
+    /**
+     * Returns the ground an animal of the given species on this ground should go to, to get closer to the nearest
+     * shelter of its species with free space.
+     *
+     * @param species The species of the animal.
+     *
+     * @return The next ground or null if no neighbouring ground brings the animal closer to such a shelter.
+     */
+    public Ground getNextGroundToShelter(@NotNull AnimalSpecies species) {
+        return grid != null ? grid.getShelterFlowField(species).getNextGround(this) : null;
+    }
+
+    /**
+     * Returns the shelter of the given species with free space that is closest to this ground.
+     *
+     * @param species The species the shelter is intended for.
+     *
+     * @return The nearest shelter with free space or null if there is no such shelter.
+     */
+    public Shelter findNearestAvailableShelter(@NotNull AnimalSpecies species) {
+        return grid != null ? grid.getShelterIndex().findNearestAvailableShelter(species, coordinates) : null;
+    }
+
+    public Ground getNextTop() {
+        return grid != null ? grid.getNextTop(this) : null;
+    }
+    public Ground getNextRight() {
+        return grid != null ? grid.getNextRight(this) : null;
+    }
+    public Ground getNextBottom() {
+        return grid != null ? grid.getNextBottom(this) : null;
+    }
+    public Ground getNextLeft() {
+        return grid != null ? grid.getNextLeft(this) : null;
+    }
+
+    public boolean hasShelter() {
+        return shelter != null;
+    }
+    public boolean setShelter(Shelter shelter) {
+        if (hasPlant() || this.shelter != null) {
+            return false;
+        }
+
+        this.shelter = shelter;
+        if (grid != null) grid.cellStore.setShelter(id - 1, true);
+        return true;
+    }
+    public Shelter getShelter() {
+        return shelter;
+    }
+
+    public ShelterType getShelterType() {
+        if (shelter == null) return null;
+        return shelter.type;
+    }
+
+    public boolean hasAnimal() {
+        return grid != null && grid.cellStore.getOccupant(id - 1) != 0;
+    }
+    public void setAnimal(Animal animal) {
+        if (hasAnimal()) {
+            return;
+        }
+
+        animal.setGround(this);
+        grid.cellStore.setOccupant(id - 1, grid.occupants.register(animal));
+        grid.occupancy.add(id - 1, animal.getSpecies(), animal.getAge());
+        grid.addAnimalToChunk(id - 1);
+    }
+    public Animal getAnimal() {
+        return grid != null ? grid.occupants.get(grid.cellStore.getOccupant(id - 1)) : null;
+    }
+    public void removeAnimal() {
+        Animal animal = getAnimal();
+        if (animal == null) return;
+
+        grid.occupants.unregister(animal);
+        grid.cellStore.setOccupant(id - 1, 0);
+        grid.occupancy.remove(id - 1, animal.getSpecies(), animal.getAge());
+        grid.removeAnimalFromChunk(id - 1);
+    }
+
+    /**
+     * Updates the occupancy of this ground after the animal on it has grown older.
+     *
+     * @param previousAge The age of the animal before it grew.
+     */
+    public void onAnimalAgeChanged(@NotNull Age previousAge) {
+        Animal animal = getAnimal();
+        if (animal == null) return;
+
+        grid.occupancy.remove(id - 1, animal.getSpecies(), previousAge);
+        grid.occupancy.add(id - 1, animal.getSpecies(), animal.getAge());
+    }
+
+    /**
+     * Returns the number of animals of the given species in the square with the given range around this ground.
+     * The count is taken from the last snapshot of the occupancy, see {@link OccupancyLayer}.
+     *
+     * @param species The species of the animals to count.
+     * @param range The range of the square.
+     *
+     * @return The number of animals of the species in the square.
+     */
+    public int countAnimalsAround(@NotNull AnimalSpecies species, int range) {
+        return grid != null ? grid.occupancy.countAnimalsInSquare(species, coordinates.x, coordinates.y, range) : 0;
+    }
+
+    /**
+     * Returns the neighboring Grounds of this Ground. Does not include null values.
+     *
+     * @return A list of neighboring Grounds.
+     */
+    public List<Ground> getNearestGrounds() {
+        ArrayList<Ground> grounds = new ArrayList<>();
+        if (getNextTop() != null) grounds.add(getNextTop());
+        if (getNextRight() != null) grounds.add(getNextRight());
+        if (getNextBottom() != null) grounds.add(getNextBottom());
+        if (getNextLeft() != null) grounds.add(getNextLeft());
+        return grounds.stream().toList();
+    }
+
+}
@@ -0,0 +1,387 @@
+package simulation.animal_simulation.map;
+
+import org.jetbrains.annotations.NotNull;
+import simulation.animal_simulation.animals.AnimalSpecies;
+import simulation.animal_simulation.map.navigation.Coordinates;
+import simulation.animal_simulation.map.navigation.VisionStencil;
+import simulation.animal_simulation.map.plants.VegetationLayer;
+import simulation.animal_simulation.map.plants.VegetationMode;
+import simulation.animal_simulation.map.storage.CellStore;
+import simulation.animal_simulation.random.CounterRandom;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.function.Predicate;
+
+/**
+ * The GroundGrid class gives access to all the grounds of the map.
+ * A ground with coordinates (x, y) has index (y - 1) * size + (x - 1), which is also its id minus one,
+ * so every lookup by id or by coordinates is a single array access.
+ * Neighbours of a ground are resolved by index arithmetic instead of being linked to each other.
+ *
+ * <p>The state of the cells (plants, shelter flags and occupant handles) lives in a CellStore.
+ * Ground objects only carry the identity of a cell, so they are created on the first access and cached.</p>
+ *
+ * <p>The grid is split into chunks of 64x64 grounds. The cache of Ground objects of a chunk is only allocated
+ * when a ground of the chunk is accessed. Plants are only visited when their regrowth is due, so a chunk without
+ * animals and without due regrowth costs nothing in a step.</p>
+ *
+ * <p>Tiles of chunks that are not next to each other can be simulated by several threads at once during a parallel
+ * phase. The lazily created Ground objects and the animal counts of the chunks are then updated atomically, and
+ * the shelters whose free space changed are only passed to the flow fields when the phase ends.</p>
+ */
+public class GroundGrid {
+
+    /**
+     * The number of grounds in one row or column of a chunk.
+     */
+    public static final int ChunkSize = 64;
+
+    private static final VarHandle GroundArrayElement = MethodHandles.arrayElementVarHandle(Ground[].class);
+    private static final VarHandle ChunkArrayElement = MethodHandles.arrayElementVarHandle(Ground[][].class);
+    private static final VarHandle IntArrayElement = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final int size;
+    private final int chunksPerRow;
+    @NotNull private final Ground[][] groundChunks;
+    private final int[] chunkAnimalCounts;
+    @NotNull final CellStore cellStore;
+    @NotNull final VegetationLayer vegetation;
+    @NotNull final OccupantRegistry occupants = new OccupantRegistry();
+    @NotNull final OccupancyLayer occupancy;
+    @NotNull final CounterRandom random;
+    @NotNull private final ShelterFlowField[] shelterFlowFields;
+    @NotNull private final ShelterIndex shelterIndex;
+    @NotNull private final ArrayList<Shelter> changedShelters = new ArrayList<>();
+    private volatile boolean isInParallelPhase = false;
+
+    /**
+     * Creates an empty grid with the given size.
+     *
+     * @param size Size of the grid (number of grounds in one row or column).
+     * @param cellStore The store keeping the state of the cells. It has to contain size * size cells.
+     * @param vegetationMode The way the vegetation layer keeps the plants up to date.
+     * @param random The generator of the random numbers drawn for the grounds.
+     *
+     * @throws IllegalArgumentException If the number of cells in the store does not match the size.
+     */
+    public GroundGrid(
+        int size,
+        @NotNull CellStore cellStore,
+        @NotNull VegetationMode vegetationMode,
+        @NotNull CounterRandom random
+    ) {
+        if (cellStore.getCellCount() != size * size) throw new IllegalArgumentException();
+
+        this.size = size;
+        this.chunksPerRow = (size + ChunkSize - 1) / ChunkSize;
+        this.groundChunks = new Ground[chunksPerRow * chunksPerRow][];
+        this.chunkAnimalCounts = new int[chunksPerRow * chunksPerRow];
+        this.cellStore = cellStore;
+        this.vegetation = new VegetationLayer(cellStore, size, vegetationMode);
+        this.occupancy = new OccupancyLayer(size, chunkIndex -> chunkAnimalCounts[chunkIndex] == 0);
+        this.random = random;
+        this.shelterFlowFields = new ShelterFlowField[AnimalSpecies.values().length];
+        for (AnimalSpecies species : AnimalSpecies.values()) {
+            shelterFlowFields[species.ordinal()] = new ShelterFlowField(this, species);
+        }
+        this.shelterIndex = new ShelterIndex(size);
+    }
+
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return The number of grounds in the grid.
+     */
+    public int getGroundCount() {
+        return size * size;
+    }
+
+    public @NotNull VegetationLayer getVegetation() {
+        return vegetation;
+    }
+
+    public @NotNull OccupancyLayer getOccupancy() {
+        return occupancy;
+    }
+
+    public @NotNull CounterRandom getRandom() {
+        return random;
+    }
+
+    public @NotNull ShelterFlowField getShelterFlowField(@NotNull AnimalSpecies species) {
+        return shelterFlowFields[species.ordinal()];
+    }
+
+    public @NotNull ShelterIndex getShelterIndex() {
+        return shelterIndex;
+    }
+
+    /**
+     * Returns the ground with the given id.
+     *
+     * @param id The id of the ground, starting from 1.
+     *
+     * @return The ground with the given id or null if there is no such ground.
+     */
+    public Ground getGround(int id) {
+        if (id < 1 || id > size * size) return null;
+        return getGroundByIndex(id - 1);
+    }
+
+    /**
+     * Returns the ground on the given coordinates.
+     *
+     * @param x The x coordinate of the ground, starting from 1.
+     * @param y The y coordinate of the ground, starting from 1.
+     *
+     * @return The ground on the given coordinates or null if the coordinates are outside the grid.
+     */
+    public Ground getGround(int x, int y) {
+        if (x < 1 || y < 1 || x > size || y > size) return null;
+        return getGroundByIndex((y - 1) * size + (x - 1));
+    }
+
+    /**
+     * Returns the ground on the given coordinates.
+     *
+     * @param coordinates The coordinates of the ground.
+     *
+     * @return The ground on the given coordinates or null if the coordinates are outside the grid.
+     */
+    public Ground getGround(@NotNull Coordinates coordinates) {
+        return getGround(coordinates.x, coordinates.y);
+    }
+
+    /**
+     * Returns the nearest ground covered by the stencil around the given ground that meets the condition.
+     * The offsets of the stencil are visited from the nearest one, offsets outside the grid are skipped and
+     * the search stops at the first match.
+     *
+     * @param center The ground the stencil is centered on.
+     * @param stencil The stencil with the offsets to visit.
+     * @param condition The condition that the ground must meet.
+     *
+     * @return The nearest ground that meets the condition or null if there is no such ground.
+     */
+    public Ground findNearestGround(
+        @NotNull Ground center,
+        @NotNull VisionStencil stencil,
+        @NotNull Predicate<Ground> condition
+    ) {
+        int x = center.coordinates.x;
+        int y = center.coordinates.y;
+
+        for (int position = 0; position < stencil.getSize(); position++) {
+            Ground ground = getGround(x + stencil.getXOffset(position), y + stencil.getYOffset(position));
+            if (ground != null && condition.test(ground)) return ground;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the ground with the given index, creating it on the first access.
+     *
+     * @param index The index of the ground.
+     *
+     * @return The ground with the given index.
+     */
+    private @NotNull Ground getGroundByIndex(int index) {
+        int chunkIndex = getChunkIndex(index);
+        Ground[] chunkGrounds = (Ground[]) ChunkArrayElement.getAcquire(groundChunks, chunkIndex);
+        if (chunkGrounds == null) {
+            Ground[] newChunkGrounds = new Ground[ChunkSize * ChunkSize];
+            Ground[] witness = (Ground[]) ChunkArrayElement.compareAndExchange(
+                groundChunks, chunkIndex, null, newChunkGrounds
+            );
+            chunkGrounds = witness != null ? witness : newChunkGrounds;
+        }
+
+        int indexInChunk = (index / size % ChunkSize) * ChunkSize + index % size % ChunkSize;
+        Ground ground = (Ground) GroundArrayElement.getAcquire(chunkGrounds, indexInChunk);
+        if (ground == null) {
+            Ground newGround = new Ground(index + 1, new Coordinates(size, index + 1));
+            newGround.grid = this;
+            Ground witness = (Ground) GroundArrayElement.compareAndExchange(
+                chunkGrounds, indexInChunk, null, newGround
+            );
+            ground = witness != null ? witness : newGround;
+        }
+        return ground;
+    }
+
+    /**
+     * @return True if the ground with the given index has neither a shelter nor an animal.
+     */
+    public boolean isAvailable(int index) {
+        return !cellStore.hasShelter(index) && cellStore.getOccupant(index) == 0;
+    }
+
+    /**
+     * @return True if the ground with the given index has a shelter.
+     */
+    public boolean hasShelter(int index) {
+        return cellStore.hasShelter(index);
+    }
+
+    /**
+     * @return True if there is grass or thick vegetation on the ground with the given index that can be eaten.
+     */
+    public boolean canEatPlant(int index) {
+        return vegetation.canEat(index);
+    }
+
+    /**
+     * Eats one unit of the grass or the thick vegetation on the ground with the given index.
+     *
+     * @param index The index of the ground.
+     *
+     * @return True if there was something to eat, false otherwise.
+     */
+    public boolean eatPlant(int index) {
+        return vegetation.eat(index);
+    }
+
+    /**
+     * @return The number of chunks in the grid.
+     */
+    public int getChunkCount() {
+        return chunksPerRow * chunksPerRow;
+    }
+
+    /**
+     * Returns the index of the chunk containing the ground with the given index.
+     * Chunks are numbered row by row, the same way as the grounds.
+     *
+     * @param index The index of the ground.
+     *
+     * @return The index of the chunk.
+     */
+    public int getChunkIndex(int index) {
+        return (index / size / ChunkSize) * chunksPerRow + index % size / ChunkSize;
+    }
+
+    /**
+     * Returns the colour of the chunk on a checkerboard with 2x2 colours.
+     * Two chunks of the same colour are never next to each other, not even diagonally.
+     *
+     * @param chunkIndex The index of the chunk.
+     *
+     * @return The colour from 0 to 3.
+     */
+    public int getChunkColour(int chunkIndex) {
+        return (chunkIndex / chunksPerRow % 2) * 2 + chunkIndex % chunksPerRow % 2;
+    }
+
+    /**
+     * @return The number of chunks whose Ground objects have been allocated.
+     */
+    public int getAllocatedChunkCount() {
+        int allocatedChunkCount = 0;
+        for (Ground[] chunkGrounds : groundChunks) {
+            if (chunkGrounds != null) allocatedChunkCount++;
+        }
+        return allocatedChunkCount;
+    }
+
+    /**
+     * Counts an animal that was placed on the ground with the given index.
+     */
+    void addAnimalToChunk(int index) {
+        IntArrayElement.getAndAdd(chunkAnimalCounts, getChunkIndex(index), 1);
+    }
+    /**
+     * Stops counting an animal that was removed from the ground with the given index.
+     */
+    void removeAnimalFromChunk(int index) {
+        IntArrayElement.getAndAdd(chunkAnimalCounts, getChunkIndex(index), -1);
+    }
+
+    /**
+     * Starts a phase in which several threads move the animals of tiles of chunks that are not next to each other.
+     * The flow fields are brought up to date and the availability of the shelters is frozen, so the animals
+     * of all the tiles see the shelters as they were at the start of the phase.
+     */
+    public void beginParallelPhase() {
+        for (ShelterFlowField shelterFlowField : shelterFlowFields) {
+            shelterFlowField.ensureUpToDate();
+        }
+        shelterIndex.freeze();
+        isInParallelPhase = true;
+    }
+
+    /**
+     * Ends the parallel phase. The shelters whose free space changed during the phase are passed to their flow
+     * fields in the order of their ground ids.
+     */
+    public void endParallelPhase() {
+        isInParallelPhase = false;
+        shelterIndex.unfreeze();
+
+        changedShelters.sort(Comparator.comparingInt(shelter -> shelter.groundId));
+        for (Shelter shelter : changedShelters) {
+            getShelterFlowField(shelter.forAnimal).onShelterAvailabilityChanged(shelter);
+        }
+        changedShelters.clear();
+    }
+
+    /**
+     * Lets the flow field of the species of the shelter know that the shelter got or lost its free space.
+     * During a parallel phase the shelter is only remembered until the phase ends.
+     *
+     * @param shelter The shelter whose free space changed.
+     */
+    void onShelterAvailabilityChanged(@NotNull Shelter shelter) {
+        if (isInParallelPhase) {
+            synchronized (changedShelters) {
+                changedShelters.add(shelter);
+            }
+        } else {
+            getShelterFlowField(shelter.forAnimal).onShelterAvailabilityChanged(shelter);
+        }
+    }
+
+    /**
+     * @return The index of the top neighbour of the ground with the given index or -1 if there is none.
+     */
+    public int getNextTopIndex(int index) {
+        return index >= size ? index - size : -1;
+    }
+    /**
+     * @return The index of the right neighbour of the ground with the given index or -1 if there is none.
+     */
+    public int getNextRightIndex(int index) {
+        return index % size != size - 1 ? index + 1 : -1;
+    }
+    /**
+     * @return The index of the bottom neighbour of the ground with the given index or -1 if there is none.
+     */
+    public int getNextBottomIndex(int index) {
+        return index + size < size * size ? index + size : -1;
+    }
+    /**
+     * @return The index of the left neighbour of the ground with the given index or -1 if there is none.
+     */
+    public int getNextLeftIndex(int index) {
+        return index % size != 0 ? index - 1 : -1;
+    }
+
+    Ground getNextTop(@NotNull Ground ground) {
+        return getGround(getNextTopIndex(ground.id - 1) + 1);
+    }
+    Ground getNextRight(@NotNull Ground ground) {
+        return getGround(getNextRightIndex(ground.id - 1) + 1);
+    }
+    Ground getNextBottom(@NotNull Ground ground) {
+        return getGround(getNextBottomIndex(ground.id - 1) + 1);
+    }
+    Ground getNextLeft(@NotNull Ground ground) {
+        return getGround(getNextLeftIndex(ground.id - 1) + 1);
+    }
+
+}
@@ -0,0 +1,939 @@
+package simulation.animal_simulation.map;
+
+import org.jetbrains.annotations.NotNull;
+import simulation.animal_simulation.LoggerController;
+import simulation.animal_simulation.animals.Animal;
+import simulation.animal_simulation.animals.AnimalBackend;
+import simulation.animal_simulation.animals.AnimalPool;
+import simulation.animal_simulation.animals.AnimalStore;
+import simulation.animal_simulation.animals.Fox;
+import simulation.animal_simulation.animals.Rabbit;
+import simulation.animal_simulation.animals.StepIntent;
+import simulation.animal_simulation.map.navigation.Coordinates;
+import simulation.animal_simulation.map.plants.VegetationLayer;
+import simulation.animal_simulation.map.plants.VegetationMode;
+import simulation.animal_simulation.map.storage.CellStore;
+import simulation.animal_simulation.map.storage.HeapCellStore;
+import simulation.animal_simulation.random.CounterRandom;
+import simulation.animal_simulation.random.RandomStream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The Map class represents the simulation environment where the animals live and interact.
+ * It contains all the animals and shelters in the simulation.
+ * The map is a grid of Ground objects, each of which can contain grass, thick vegetation, or a shelter.
+ * The grounds are stored in a GroundGrid, so they can be accessed by id or coordinates in constant time.
+ * The map also keeps track of the animals in the simulation, including rabbits and foxes.
+ * The Map class is responsible for initializing the map and running the simulation steps.
+ * During each simulation step, the grass on the map regrows and each animal takes its turn.
+ * With more than one thread, the animals take their turns tile by tile on several threads at once.
+ * In the two-phase step mode, the animals first plan their steps and then apply them, see {@link StepMode}.
+ * After a step the map can publish a snapshot of its grounds, which other threads read without locking.
+ */
+public class Map {
+
+    private static final byte EmptyGroundType = 0;
+    private static final byte GrassGroundType = 1;
+    private static final byte ThickVegetationGroundType = 2;
+    private static final byte ShelterGroundType = 3;
+    private static final int TileColourCount = 4;
+    private static final int PlanBatchSize = 256;
+    private static final long DefaultSeed = 0;
+
+    private final LoggerController loggerController;
+
+    final private int size;
+    /**
+     * The grid containing all the grounds of the map.
+     */
+    @NotNull public final GroundGrid grid;
+
+    /**
+     * Store of the rabbits on the map.
+     */
+    @NotNull public final AnimalStore<Rabbit> rabbits;
+    /**
+     * Store of the foxes on the map.
+     */
+    @NotNull public final AnimalStore<Fox> foxes;
+    /**
+     * Pool of the rabbits that have left the map and are reused for the newborn rabbits.
+     */
+    @NotNull public final AnimalPool<Rabbit> rabbitPool = new AnimalPool<>(Rabbit::new);
+    /**
+     * Pool of the foxes that have left the map and are reused for the newborn foxes.
+     */
+    @NotNull public final AnimalPool<Fox> foxPool = new AnimalPool<>(Fox::new);
+    /**
+     * The threads doing the steps of the animals tile by tile, or null if the steps are done by the calling thread.
+     */
+    private ForkJoinPool stepPool = null;
+    /**
+     * The way the animals take their steps.
+     */
+    @NotNull private StepMode stepMode = StepMode.Sequential;
+    /**
+     * The snapshot of the last published step that the readers acquire, or null if no step was published yet.
+     */
+    @NotNull private final AtomicReference<MapSnapshot> frontSnapshot = new AtomicReference<>();
+    /**
+     * The snapshot that was published before the front one and that the next step is written into if no reader
+     * holds it any more, or null.
+     */
+    private MapSnapshot backSnapshot = null;
+
+    /**
+     * The rows of the animals of one tile of the map that take their turn together, with the animals born and eaten
+     * during the turn of the tile.
+     *
+     * @param <T> The type of the animals taking the turn.
+     */
+    private static final class TileTurn<T extends Animal> {
+        private int[] rows = new int[16];
+        private int rowCount = 0;
+        @NotNull private final ArrayList<T> newAnimals = new ArrayList<>();
+        @NotNull private final ArrayList<Rabbit> eatenRabbits = new ArrayList<>();
+
+        private void addRow(int row) {
+            if (rowCount == rows.length) rows = Arrays.copyOf(rows, rowCount * 2);
+            rows[rowCount++] = row;
+        }
+    }
+
+    /**
+     * Creates a map with the given parameters.
+     *
+     * @param size Size of the map.
+     * @param grassAmount Amount of grass on the map.
+     * @param thickVegetationAmount Amount of thick vegetation on the map.
+     * @param rabbitShelters List of rabbit shelters.
+     * @param foxShelters List of fox shelters.
+     * @param loggerController The logger controller.
+     *
+     * @throws IllegalAccessException If there is illegal access to a field.
+     */
+    public Map(
+        int size, int grassAmount, int thickVegetationAmount,
+        List<Shelter> rabbitShelters, List<Shelter> foxShelters,
+        LoggerController loggerController
+    ) throws IllegalAccessException {
+        this(
+            size, grassAmount, thickVegetationAmount,
+            rabbitShelters, foxShelters,
+            new HeapCellStore(size * size),
+            loggerController
+        );
+    }
+
+    /**
+     * Creates a map with the given parameters whose cells are kept in the given cell store.
+     * The state of the animals is kept on the Java heap.
+     *
+     * @param size Size of the map.
+     * @param grassAmount Amount of grass on the map.
+     * @param thickVegetationAmount Amount of thick vegetation on the map.
+     * @param rabbitShelters List of rabbit shelters.
+     * @param foxShelters List of fox shelters.
+     * @param cellStore The store for the cells of the map. It has to contain size * size empty cells.
+     * @param loggerController The logger controller.
+     *
+     * @throws IllegalAccessException If there is illegal access to a field.
+     */
+    public Map(
+        int size, int grassAmount, int thickVegetationAmount,
+        List<Shelter> rabbitShelters, List<Shelter> foxShelters,
+        @NotNull CellStore cellStore,
+        LoggerController loggerController
+    ) throws IllegalAccessException {
+        this(
+            size, grassAmount, thickVegetationAmount,
+            rabbitShelters, foxShelters,
+            cellStore, AnimalBackend.Heap,
+            loggerController
+        );
+    }
+
+    /**
+     * Creates a map with the given parameters whose cells are kept in the given cell store and whose animals are
+     * kept by the given backend. The plants are regrown eagerly.
+     *
+     * @param size Size of the map.
+     * @param grassAmount Amount of grass on the map.
+     * @param thickVegetationAmount Amount of thick vegetation on the map.
+     * @param rabbitShelters List of rabbit shelters.
+     * @param foxShelters List of fox shelters.
+     * @param cellStore The store for the cells of the map. It has to contain size * size empty cells.
+     * @param animalBackend The backend of the stores that keep the state of the animals.
+     * @param loggerController The logger controller.
+     *
+     * @throws IllegalAccessException If there is illegal access to a field.
+     */
+    public Map(
+        int size, int grassAmount, int thickVegetationAmount,
+        List<Shelter> rabbitShelters, List<Shelter> foxShelters,
+        @NotNull CellStore cellStore,
+        @NotNull AnimalBackend animalBackend,
+        LoggerController loggerController
+    ) throws IllegalAccessException {
+        this(
+            size, grassAmount, thickVegetationAmount,
+            rabbitShelters, foxShelters,
+            cellStore, animalBackend, VegetationMode.Eager,
+            loggerController
+        );
+    }
+
+    /**
+     * Creates a map with the given parameters whose cells are kept in the given cell store, whose animals are
+     * kept by the given backend and whose plants are kept up to date in the given vegetation mode.
+     *
+     * @param size Size of the map.
+     * @param grassAmount Amount of grass on the map.
+     * @param thickVegetationAmount Amount of thick vegetation on the map.
+     * @param rabbitShelters List of rabbit shelters.
+     * @param foxShelters List of fox shelters.
+     * @param cellStore The store for the cells of the map. It has to contain size * size empty cells.
+     * @param animalBackend The backend of the stores that keep the state of the animals.
+     * @param vegetationMode The way the plants are kept up to date.
+     * @param loggerController The logger controller.
+     *
+     * @throws IllegalAccessException If there is illegal access to a field.
+     */
+    public Map(
+        int size, int grassAmount, int thickVegetationAmount,
+        List<Shelter> rabbitShelters, List<Shelter> foxShelters,
+        @NotNull CellStore cellStore,
+        @NotNull AnimalBackend animalBackend,
+        @NotNull VegetationMode vegetationMode,
+        LoggerController loggerController
+    ) throws IllegalAccessException {
+        this(
+            size, grassAmount, thickVegetationAmount,
+            rabbitShelters, foxShelters,
+            cellStore, animalBackend, vegetationMode, DefaultSeed,
+            loggerController
+        );
+    }
+
+    /**
+     * Creates a map with the given parameters whose cells are kept in the given cell store, whose animals are
+     * kept by the given backend, whose plants are kept up to date in the given vegetation mode and whose random
+     * numbers are drawn from a generator with the given seed. Maps created with the same parameters and seed
+     * do the same steps.
+     *
+     * @param size Size of the map.
+     * @param grassAmount Amount of grass on the map.
+     * @param thickVegetationAmount Amount of thick vegetation on the map.
+     * @param rabbitShelters List of rabbit shelters.
+     * @param foxShelters List of fox shelters.
+     * @param cellStore The store for the cells of the map. It has to contain size * size empty cells.
+     * @param animalBackend The backend of the stores that keep the state of the animals.
+     * @param vegetationMode The way the plants are kept up to date.
+     * @param seed The seed of the random numbers.
+     * @param loggerController The logger controller.
+     *
+     * @throws IllegalAccessException If there is illegal access to a field.
+     */
+    public Map(
+        int size, int grassAmount, int thickVegetationAmount,
+        List<Shelter> rabbitShelters, List<Shelter> foxShelters,
+        @NotNull CellStore cellStore,
+        @NotNull AnimalBackend animalBackend,
+        @NotNull VegetationMode vegetationMode,
+        long seed,
+        LoggerController loggerController
+    ) throws IllegalAccessException {
+        if (!isMapInputValid(
+            size, grassAmount, thickVegetationAmount,
+            rabbitShelters.size(), foxShelters.size()
+        )) {
+            throw new IllegalArgumentException();
+        }
+
+        this.size = size;
+        grid = generateMap(
+            grassAmount,
+            thickVegetationAmount,
+            rabbitShelters,
+            foxShelters,
+            cellStore,
+            vegetationMode,
+            new CounterRandom(seed)
+        );
+        this.loggerController = loggerController;
+        this.rabbits = new AnimalStore<>(animalBackend);
+        this.foxes = new AnimalStore<>(animalBackend);
+
+        addRabbitsFromShelters(rabbitShelters);
+        addFoxesFromShelters(foxShelters);
+    }
+
+
+    /**
+     * Checks if the input for the map is valid.
+     *
+     * @param size Size of the map.
+     * @param grassAmount Amount of grass on the map.
+     * @param thickVegetationAmount Amount of thick vegetation on the map.
+     * @param rabbitSheltersAmount Amount of rabbit shelters on the map.
+     * @param foxSheltersAmount Amount of fox shelters on the map.
+     *
+     * @return True if amount of all elements is less or equal to the size of the map.
+     */
+    private boolean isMapInputValid(
+        int size, int grassAmount, int thickVegetationAmount,
+        int rabbitSheltersAmount, int foxSheltersAmount
+    ) {
+        return grassAmount +
+            thickVegetationAmount +
+            rabbitSheltersAmount +
+            foxSheltersAmount <= size * size;
+    }
+
+    /**
+     * Generates the map with the given parameters.
+     * The type of every ground is decided up front in a primitive array and then written to the cell store,
+     * so the map is built in a single pass over the ground indices without recursion.
+     * Ground objects are only created for the grounds with shelters; the others are created on demand.
+     *
+     * @param grassAmount Amount of grass on the map.
+     * @param thickVegetationAmount Amount of thick vegetation on the map.
+     * @param rabbitShelters List of rabbit shelters.
+     * @param foxShelters List of fox shelters.
+     * @param cellStore The store for the cells of the map.
+     * @param vegetationMode The way the plants are kept up to date.
+     * @param random The generator of the random numbers of the map.
+     *
+     * @return The grid with all the grounds of the map.
+     * @throws IllegalAccessException If there is illegal access to a field.
+     */
+    private GroundGrid generateMap(
+        int grassAmount, int thickVegetationAmount,
+        List<Shelter> rabbitShelters, List<Shelter> foxShelters,
+        @NotNull CellStore cellStore,
+        @NotNull VegetationMode vegetationMode,
+        @NotNull CounterRandom random
+    ) throws IllegalAccessException {
+        if (size < 5) throw new IllegalArgumentException();
+
+        int groundCount = size * size;
+        byte[] groundTypes = new byte[groundCount];
+        markShelterGrounds(groundTypes, rabbitShelters);
+        markShelterGrounds(groundTypes, foxShelters);
+        markRandomPlantGrounds(groundTypes, grassAmount, thickVegetationAmount, random);
+
+        GroundGrid grid = new GroundGrid(size, cellStore, vegetationMode, random);
+        placeShelters(grid, rabbitShelters);
+        placeShelters(grid, foxShelters);
+
+        VegetationLayer vegetation = grid.getVegetation();
+        for (int index = 0; index < groundCount; index++) {
+            if (groundTypes[index] == GrassGroundType) {
+                vegetation.plantGrass(index, 3);
+            } else if (groundTypes[index] == ThickVegetationGroundType) {
+                vegetation.plantThickVegetation(index, 7);
+            }
+        }
+
+        return grid;
+    }
+
+    /**
+     * Places the shelters on their grounds in the grid and adds them to the shelter flow fields and the shelter index.
+     *
+     * @param grid The grid of the map.
+     * @param shelterList List of shelters.
+     *
+     * @throws IllegalAccessException If there is illegal access to a field.
+     */
+    private void placeShelters(@NotNull GroundGrid grid, @NotNull List<Shelter> shelterList)
+        throws IllegalAccessException {
+        for (Shelter shelter : shelterList) {
+            Ground ground = grid.getGround(shelter.groundId);
+            ground.setShelter(shelter);
+            shelter.setGround(ground);
+            grid.getShelterFlowField(shelter.forAnimal).addShelter(shelter);
+            grid.getShelterIndex().add(shelter);
+        }
+    }
+
+    /**
+     * Marks the grounds of the shelters in the array of ground types.
+     *
+     * @param groundTypes Array of ground types indexed by ground id minus one.
+     * @param shelterList List of shelters.
+     *
+     * @throws IllegalArgumentException If a shelter is outside the map or shares its ground with another shelter.
+     */
+    private void markShelterGrounds(byte[] groundTypes, @NotNull List<Shelter> shelterList) {
+        for (Shelter shelter : shelterList) {
+            int index = shelter.groundId - 1;
+            if (index < 0 || index >= groundTypes.length || groundTypes[index] != EmptyGroundType) {
+                throw new IllegalArgumentException();
+            }
+            groundTypes[index] = ShelterGroundType;
+        }
+    }
+
+    /**
+     * Marks random free grounds as grass and thick vegetation grounds.
+     * The grounds are sampled without replacement by a partial Fisher-Yates shuffle of the free ground indices,
+     * so every ground is picked at most once and the sampling takes linear time.
+     *
+     * @param groundTypes Array of ground types indexed by ground id minus one.
+     * @param grassAmount Amount of grass grounds to mark.
+     * @param thickVegetationAmount Amount of thick vegetation grounds to mark.
+     * @param random The generator of the random numbers of the map.
+     */
+    private void markRandomPlantGrounds(
+        byte[] groundTypes,
+        int grassAmount, int thickVegetationAmount,
+        @NotNull CounterRandom random
+    ) {
+        int[] freeGroundIndices = getFreeGroundIndices(groundTypes);
+        int plantAmount = grassAmount + thickVegetationAmount;
+
+        for (int i = 0; i < plantAmount; i++) {
+            int randomPosition = i + random.getInt(RandomStream.PlantPlacement, 0, i, freeGroundIndices.length - i);
+            int groundIndex = freeGroundIndices[randomPosition];
+            freeGroundIndices[randomPosition] = freeGroundIndices[i];
+            freeGroundIndices[i] = groundIndex;
+
+            groundTypes[groundIndex] = i < grassAmount ? GrassGroundType : ThickVegetationGroundType;
+        }
+    }
+
+    /**
+     * Returns the indices of the grounds that are not marked yet.
+     *
+     * @param groundTypes Array of ground types indexed by ground id minus one.
+     *
+     * @return Array of indices of the free grounds.
+     */
+    private int[] getFreeGroundIndices(byte[] groundTypes) {
+        int freeGroundCount = 0;
+        for (byte groundType : groundTypes) {
+            if (groundType == EmptyGroundType) freeGroundCount++;
+        }
+
+        int[] freeGroundIndices = new int[freeGroundCount];
+        int position = 0;
+        for (int index = 0; index < groundTypes.length; index++) {
+            if (groundTypes[index] == EmptyGroundType) freeGroundIndices[position++] = index;
+        }
+
+        return freeGroundIndices;
+    }
+
+    /**
+     * Adds rabbits from the given shelters to the map.
+     *
+     * @param shelters List of shelters.
+     *
+     * @throws IllegalAccessException If there is illegal access to a field.
+     */
+    private void addRabbitsFromShelters(List<Shelter> shelters) throws IllegalAccessException {
+        for (Shelter shelter : shelters) {
+            for (Animal rabbit : shelter.animals) {
+                rabbit.setGround(shelter.getGround());
+                rabbits.add((Rabbit) rabbit);
+            }
+        }
+    }
+
+    /**
+     * Adds foxes from the given shelters to the map.
+     *
+     * @param shelters List of shelters.
+     *
+     * @throws IllegalAccessException If there is illegal access to a field.
+     */
+    private void addFoxesFromShelters(List<Shelter> shelters) throws IllegalAccessException {
+        for (Shelter shelter : shelters) {
+            for (Animal fox : shelter.animals) {
+                fox.setGround(shelter.getGround());
+                foxes.add((Fox) fox);
+            }
+        }
+    }
+
+
+    /**
+     * Returns true if there are alive animals on the map.
+     *
+     * @return True if there are alive animals on the map, false otherwise.
+     */
+    public boolean hasAliveAnimals() {
+        return rabbits.getAliveCount() > 0 || foxes.getAliveCount() > 0;
+    }
+
+    /**
+     * @return Returns the count of alive rabbits on the map.
+     */
+    public int getRabbitCount() {
+        return rabbits.getAliveCount();
+    }
+    /**
+     * @return Returns the count of alive foxes on the map.
+     */
+    public int getFoxCount() {
+        return foxes.getAliveCount();
+    }
+
+    /**
+     * Writes the current state of the map into the back snapshot and publishes it with an atomic swap, so the
+     * old front snapshot becomes the back one. It has to be called by the thread doing the steps, between the steps.
+     * If a reader still holds the back snapshot, a new snapshot is written instead, so the readers are never
+     * blocked and never see a snapshot change.
+     */
+    public void publishSnapshot() {
+        MapSnapshot snapshot = backSnapshot;
+        if (snapshot == null || snapshot.isAcquired()) snapshot = new MapSnapshot(size);
+
+        snapshot.write(this);
+        backSnapshot = frontSnapshot.getAndSet(snapshot);
+    }
+
+    /**
+     * Acquires the last published snapshot of the map without locking. It can be called from any thread.
+     * The snapshot does not change until it is closed, so it has to be closed as soon as it has been read.
+     *
+     * @return The snapshot of the last published step.
+     *
+     * @throws IllegalStateException If no snapshot was published yet.
+     */
+    public @NotNull MapSnapshot acquireSnapshot() {
+        while (true) {
+            MapSnapshot snapshot = frontSnapshot.get();
+            if (snapshot == null) throw new IllegalStateException();
+
+            // The snapshot may have become the back one before it was acquired, so it is only kept if it is
+            // still the front one, which the thread doing the steps does not write into.
+            snapshot.acquire();
+            if (frontSnapshot.get() == snapshot) return snapshot;
+            snapshot.close();
+        }
+    }
+
+    /**
+     * Sets the number of threads doing the steps of the animals.
+     * With one thread the animals take their turns in the order of their stores. With more threads the map is split
+     * into tiles, which are the chunks of the grid, and the tiles take their turns in a fixed order of checkerboard
+     * phases, so the results do not depend on the number of threads as long as it is more than one.
+     *
+     * @param threadCount The number of threads.
+     *
+     * @throws IllegalArgumentException If the number of threads is less than 1.
+     */
+    public void setThreadCount(int threadCount) {
+        if (threadCount < 1) throw new IllegalArgumentException();
+
+        if (stepPool != null) stepPool.shutdown();
+        stepPool = threadCount > 1 ? new ForkJoinPool(threadCount) : null;
+    }
+
+    /**
+     * Sets the way the animals take their steps.
+     *
+     * @param stepMode The step mode.
+     */
+    public void setStepMode(@NotNull StepMode stepMode) {
+        this.stepMode = stepMode;
+    }
+
+    /**
+     * Releases the cell store of the map and stops the threads doing the steps of the animals.
+     * A map backed by a file writes its cells to the file.
+     */
+    public void close() {
+        if (stepPool != null) stepPool.shutdown();
+        grid.cellStore.close();
+    }
+
+    /**
+     * Does the next step of the simulation.
+     * It regrows the grass and then does the next step for each animal.
+     */
+    public void doNextStep() {
+        regrowGrass();
+        doNextStepForRabbits();
+        doNextStepForFoxes();
+    }
+
+    /**
+     * Does the next step for the rabbits.
+     * It makes the alive rabbits do their steps and then does the lifecycle step of the store, in which rabbits
+     * get hungry, grow older and decompose.
+     * The occupancy snapshots are invalidated first, so the rabbits see the foxes where they are now.
+     * No foxes are added during the rabbits' turn, so the fox counts of the snapshot stay an upper bound.
+     */
+    private void doNextStepForRabbits() {
+        ArrayList<Rabbit> newRabbits = new ArrayList<>();
+        ArrayList<Rabbit> oldRabbits = new ArrayList<>();
+
+        if (stepMode == StepMode.TwoPhase) {
+            List<StepIntent> intents = doTwoPhaseTurn(
+                rabbits,
+                rabbit -> rabbit.planStep(rabbitPool),
+                rabbit -> rabbit.applyPlannedStep(rabbitPool)
+            );
+            for (StepIntent intent : intents) {
+                Rabbit babyRabbit = (Rabbit) intent.getBaby();
+                if (babyRabbit != null) {
+                    loggerController.logRabbitWasBorn(babyRabbit);
+                    newRabbits.add(babyRabbit);
+                }
+                loggerController.logAnimalMovement(intent.getAnimal(), intent.getSource().coordinates);
+            }
+        } else if (stepPool == null) {
+            grid.getOccupancy().invalidateSummedAreaTables();
+            for (int row = 0; row < rabbits.size(); row++) {
+                if (rabbits.isAlive(row)) doStepForRabbit(rabbits.get(row), newRabbits);
+            }
+        } else {
+            grid.getOccupancy().buildSummedAreaTables();
+            List<TileTurn<Rabbit>> tileTurns = doTiledTurn(
+                rabbits, getAliveRows(rabbits),
+                (rabbit, tileTurn) -> doStepForRabbit(rabbit, tileTurn.newAnimals)
+            );
+            for (TileTurn<Rabbit> tileTurn : tileTurns) newRabbits.addAll(tileTurn.newAnimals);
+        }
+
+        rabbits.doLifecycleStep(
+            rabbit -> {
+                loggerController.logAnimalDecomposition(rabbit);
+                removeDecomposedAnimalFromGround(rabbit);
+                return oldRabbits.add(rabbit);
+            }
+        );
+
+        for (Rabbit rabbit : newRabbits) rabbits.add(rabbit);
+        for (Rabbit rabbit : oldRabbits) {
+            rabbits.remove(rabbit);
+            rabbitPool.release(rabbit);
+        }
+    }
+
+    /**
+     * Does the step of an alive rabbit.
+     *
+     * @param rabbit The rabbit.
+     * @param newRabbits The list the rabbits born during the step are added to.
+     */
+    private void doStepForRabbit(@NotNull Rabbit rabbit, @NotNull List<Rabbit> newRabbits) {
+        Coordinates startCoordinates = rabbit.getCoordinates();
+        rabbit.doStep(
+            rabbitPool,
+            babyRabbit -> {
+                loggerController.logRabbitWasBorn(babyRabbit);
+                return newRabbits.add(babyRabbit);
+            }
+        );
+        loggerController.logAnimalMovement(rabbit, startCoordinates);
+    }
+
+    /**
+     * Does the next step for the foxes.
+     * It makes the alive foxes do their steps and then does the lifecycle step of the store, in which foxes
+     * get hungry, grow older and decompose.
+     * The occupancy snapshots are invalidated first, so the foxes see the rabbits where they are now.
+     * No rabbits are added during the foxes' turn, so the rabbit counts of the snapshot stay an upper bound.
+     * Eaten rabbits are removed from the store of the rabbits right away, or after the turn of all the tiles
+     * when the foxes take their turns tile by tile.
+     */
+    private void doNextStepForFoxes() {
+        ArrayList<Fox> newFoxes = new ArrayList<>();
+        ArrayList<Fox> oldFoxes = new ArrayList<>();
+
+        if (stepMode == StepMode.TwoPhase) {
+            List<StepIntent> intents = doTwoPhaseTurn(
+                foxes,
+                fox -> fox.planStep(foxPool),
+                fox -> fox.applyPlannedStep(foxPool)
+            );
+            for (StepIntent intent : intents) {
+                Fox babyFox = (Fox) intent.getBaby();
+                if (babyFox != null) {
+                    loggerController.logFoxWasBorn(babyFox);
+                    newFoxes.add(babyFox);
+                }
+                Rabbit eatenRabbit = (Rabbit) intent.getEatenPrey();
+                if (eatenRabbit != null) {
+                    loggerController.logRabbitWasEaten(eatenRabbit);
+                    removeEatenRabbit(eatenRabbit);
+                }
+                loggerController.logAnimalMovement(intent.getAnimal(), intent.getSource().coordinates);
+            }
+        } else if (stepPool == null) {
+            grid.getOccupancy().invalidateSummedAreaTables();
+            for (int row = 0; row < foxes.size(); row++) {
+                if (foxes.isAlive(row)) doStepForFox(foxes.get(row), newFoxes, this::removeEatenRabbit);
+            }
+        } else {
+            grid.getOccupancy().buildSummedAreaTables();
+            List<TileTurn<Fox>> tileTurns = doTiledTurn(
+                foxes, getAliveRows(foxes),
+                (fox, tileTurn) -> doStepForFox(fox, tileTurn.newAnimals, tileTurn.eatenRabbits::add)
+            );
+            for (TileTurn<Fox> tileTurn : tileTurns) {
+                newFoxes.addAll(tileTurn.newAnimals);
+                for (Rabbit rabbit : tileTurn.eatenRabbits) removeEatenRabbit(rabbit);
+            }
+        }
+
+        foxes.doLifecycleStep(
+            fox -> {
+                removeDecomposedAnimalFromGround(fox);
+                return oldFoxes.add(fox);
+            }
+        );
+
+        for (Fox fox : newFoxes) foxes.add(fox);
+        for (Fox fox : oldFoxes) {
+            foxes.remove(fox);
+            foxPool.release(fox);
+        }
+    }
+
+    /**
+     * Does the step of an alive fox.
+     *
+     * @param fox The fox.
+     * @param newFoxes The list the foxes born during the step are added to.
+     * @param onRabbitHasEaten The function called with the rabbit the fox has eaten and removed from its ground.
+     */
+    private void doStepForFox(
+        @NotNull Fox fox,
+        @NotNull List<Fox> newFoxes,
+        @NotNull Function<Rabbit, Boolean> onRabbitHasEaten
+    ) {
+        Coordinates startCoordinates = fox.getCoordinates();
+        fox.doStep(
+            foxPool,
+            babyFox -> {
+                loggerController.logFoxWasBorn(babyFox);
+                return newFoxes.add(babyFox);
+            },
+            eatenRabbit -> {
+                loggerController.logRabbitWasEaten(eatenRabbit);
+                return onRabbitHasEaten.apply(eatenRabbit);
+            }
+        );
+        loggerController.logAnimalMovement(fox, startCoordinates);
+    }
+
+    /**
+     * Removes the eaten rabbit from the store of the rabbits and puts it into the pool.
+     *
+     * @param rabbit The rabbit that has been eaten and removed from its ground.
+     *
+     * @return True if the rabbit was in the store, false otherwise.
+     */
+    private boolean removeEatenRabbit(@NotNull Rabbit rabbit) {
+        if (!rabbits.remove(rabbit)) return false;
+
+        rabbitPool.release(rabbit);
+        return true;
+    }
+
+    /**
+     * Makes the alive animals of the store take their turn in two phases.
+     * First every animal plans its step from the map as it is at the start of the turn, which does not change
+     * the map, so the animals plan on all the threads of the step pool at once. Then the intents are resolved,
+     * so only one animal gets each contested ground, female or prey, and the allowed intents are applied, tile by
+     * tile when there is more than one thread. The result does not depend on the number of threads.
+     *
+     * <p>The animals born and eaten during the turn are kept in the intents, which are returned in the order of
+     * the store, so they can be added to and removed from the stores in the same order on any number of
+     * threads.</p>
+     *
+     * @param store The store of the animals.
+     * @param planStep The function planning the step of an alive animal.
+     * @param applyStep The function applying the resolved step of an animal.
+     *
+     * @return The resolved and applied intents of the alive animals in the order of the store.
+     *
+     * @param <T> The type of the animals in the store.
+     */
+    private <T extends Animal> @NotNull List<StepIntent> doTwoPhaseTurn(
+        @NotNull AnimalStore<T> store,
+        @NotNull Function<T, StepIntent> planStep,
+        @NotNull Consumer<T> applyStep
+    ) {
+        int[] rows = getAliveRows(store);
+        StepIntent[] intents = new StepIntent[rows.length];
+
+        grid.getOccupancy().buildSummedAreaTables();
+        grid.beginParallelPhase();
+        try {
+            if (stepPool == null) {
+                for (int i = 0; i < rows.length; i++) intents[i] = planStep.apply(store.get(rows[i]));
+            } else {
+                ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>();
+                for (int from = 0; from < rows.length; from += PlanBatchSize) {
+                    int batchStart = from;
+                    int batchEnd = Math.min(from + PlanBatchSize, rows.length);
+                    tasks.add(ForkJoinTask.adapt(() -> {
+                        for (int i = batchStart; i < batchEnd; i++) intents[i] = planStep.apply(store.get(rows[i]));
+                    }));
+                }
+                stepPool.submit(() -> ForkJoinTask.invokeAll(tasks)).join();
+            }
+        } finally {
+            grid.endParallelPhase();
+        }
+
+        List<StepIntent> intentList = Arrays.asList(intents);
+        StepIntent.resolve(intentList);
+
+        if (stepPool == null) {
+            for (int row : rows) applyStep.accept(store.get(row));
+        } else {
+            doTiledTurn(store, rows, (animal, tileTurn) -> applyStep.accept(animal));
+        }
+
+        return intentList;
+    }
+
+    /**
+     * Returns the rows of the alive animals of the store. Only the rows of the store are read, not the animals.
+     *
+     * @param store The store of the animals.
+     *
+     * @return The rows of the alive animals in the order of the store.
+     */
+    private static int[] getAliveRows(@NotNull AnimalStore<?> store) {
+        int[] rows = new int[store.getAliveCount()];
+        int rowCount = 0;
+        for (int row = 0; row < store.size(); row++) {
+            if (store.isAlive(row)) rows[rowCount++] = row;
+        }
+        return rowCount == rows.length ? rows : Arrays.copyOf(rows, rowCount);
+    }
+
+    /**
+     * Makes the animals do their steps tile by tile on the threads of the step pool.
+     * Every chunk of the grid is a tile, and an animal belongs to the tile its ground is in at the start of the turn.
+     * The animals are assigned to the tiles by the cell indices in their rows, and the rows of the store must not
+     * change during the turn.
+     * The tiles are coloured like a checkerboard with 2x2 colours, and the tiles of one colour take their turns
+     * at once. An animal only changes the grounds up to two grounds away from its own and only looks a few grounds
+     * further, while tiles of the same colour are a whole chunk apart, so their turns do not affect each other.
+     * The animals of a tile take their turns in the order of the store.
+     *
+     * <p>The flow fields and the free space of the shelters are snapshots taken before each phase, so the animals
+     * of a tile see the rest of the map as it was when the phase started. The summed-area tables have to be built
+     * before the turn.</p>
+     *
+     * @param store The store of the animals.
+     * @param rows The rows of the alive animals in the order of the store.
+     * @param doStep The step of an alive animal, which records the animals born and eaten during the step in the
+     * turn of its tile.
+     *
+     * @return The turns of the tiles with animals in the order of the chunks.
+     *
+     * @param <T> The type of the animals.
+     */
+    private <T extends Animal> @NotNull List<TileTurn<T>> doTiledTurn(
+        @NotNull AnimalStore<T> store,
+        int[] rows,
+        @NotNull BiConsumer<T, TileTurn<T>> doStep
+    ) {
+        ArrayList<TileTurn<T>> tileTurns = new ArrayList<>();
+        for (int chunkIndex = 0; chunkIndex < grid.getChunkCount(); chunkIndex++) tileTurns.add(null);
+
+        for (int row : rows) {
+            int chunkIndex = grid.getChunkIndex(store.getCellIndex(row));
+            if (tileTurns.get(chunkIndex) == null) tileTurns.set(chunkIndex, new TileTurn<>());
+            tileTurns.get(chunkIndex).addRow(row);
+        }
+
+        for (int colour = 0; colour < TileColourCount; colour++) {
+            ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int chunkIndex = 0; chunkIndex < tileTurns.size(); chunkIndex++) {
+                TileTurn<T> tileTurn = tileTurns.get(chunkIndex);
+                if (tileTurn == null || grid.getChunkColour(chunkIndex) != colour) continue;
+
+                tasks.add(ForkJoinTask.adapt(() -> {
+                    for (int i = 0; i < tileTurn.rowCount; i++) doStep.accept(store.get(tileTurn.rows[i]), tileTurn);
+                }));
+            }
+            if (tasks.isEmpty()) continue;
+
+            grid.beginParallelPhase();
+            try {
+                stepPool.submit(() -> ForkJoinTask.invokeAll(tasks)).join();
+            } finally {
+                grid.endParallelPhase();
+            }
+        }
+
+        return tileTurns.stream().filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Removes the decomposed animal from its ground, or from the shelter on its ground if it died in the shelter.
+     *
+     * @param animal The decomposed animal.
+     */
+    private void removeDecomposedAnimalFromGround(@NotNull Animal animal) {
+        Ground ground = animal.getGround();
+        if (ground.getShelter() != null) {
+            ground.getShelter().removeAnimal(animal);
+        } else {
+            ground.removeAnimal();
+        }
+    }
+
+    /**
+     * Regrows the grass on the map.
+     * Only the grounds whose regrowth is due in this step are visited,
+     * in the order of their indices. Fully grown thick vegetation spreads grass to the neighbouring grounds.
+     */
+    private void regrowGrass() {
+        VegetationLayer vegetation = grid.getVegetation();
+
+        int dueCount = vegetation.startRegrowthStep();
+        for (int position = 0; position < dueCount; position++) {
+            int index = vegetation.getDueIndex(position);
+            if (vegetation.regrow(index)) {
+                spreadGrass(index);
+            }
+        }
+    }
+
+    /**
+     * Spreads grass from the ground to the neighbouring grounds that are available for grass spread.
+     * The neighbours are resolved by index, so no Ground objects are created for them.
+     *
+     * @param index The index of the ground with fully grown thick vegetation.
+     */
+    private void spreadGrass(int index) {
+        trySpreadGrassToGround(index, grid.getNextTopIndex(index));
+        trySpreadGrassToGround(index, grid.getNextRightIndex(index));
+        trySpreadGrassToGround(index, grid.getNextBottomIndex(index));
+        trySpreadGrassToGround(index, grid.getNextLeftIndex(index));
+    }
+
+    private void trySpreadGrassToGround(int sourceIndex, int targetIndex) {
+        VegetationLayer vegetation = grid.getVegetation();
+        if (targetIndex == -1 || !vegetation.isAvailableForPlant(targetIndex)) return;
+
+        vegetation.spreadGrass(sourceIndex, targetIndex);
+        loggerController.logGrassWasSpread(
+            new Coordinates(size, sourceIndex + 1),
+            new Coordinates(size, targetIndex + 1)
+        );
+    }
+
+}
@@ -0,0 +1,187 @@
+package simulation.animal_simulation.map;
+
+import org.jetbrains.annotations.NotNull;
+import simulation.animal_simulation.animals.Age;
+import simulation.animal_simulation.animals.Animal;
+import simulation.animal_simulation.animals.AnimalSpecies;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The MapSnapshot class holds the state of the grounds of the map as it was at the end of a step, so the renderer,
+ * the charts or an exporter can read it on other threads while the map does the next step.
+ *
+ * <p>A snapshot is written by the thread doing the steps and published by the map, see {@link Map#publishSnapshot}.
+ * Once published, it does not change while a reader holds it. A reader acquires the snapshot from the map and
+ * closes it when it has finished reading, so the map can write a later step into it again.</p>
+ */
+public class MapSnapshot implements AutoCloseable {
+
+    private static final byte NoAnimal = 0;
+    private static final byte NoShelter = 0;
+
+    private final int size;
+    private final byte[] plantQuantities;
+    private final byte[] animals;
+    private final byte[] shelterTypes;
+    @NotNull private final AtomicInteger readerCount = new AtomicInteger();
+
+    private int step = 0;
+    private int rabbitCount = 0;
+    private int foxCount = 0;
+    private int grassQuantity = 0;
+
+    /**
+     * Creates an empty snapshot of a map of the given size.
+     *
+     * @param size Size of the map.
+     */
+    MapSnapshot(int size) {
+        this.size = size;
+        this.plantQuantities = new byte[size * size];
+        this.animals = new byte[size * size];
+        this.shelterTypes = new byte[size * size];
+    }
+
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return The number of grounds in the snapshot.
+     */
+    public int getGroundCount() {
+        return size * size;
+    }
+
+    /**
+     * @return The number of regrowth steps the map had done when the snapshot was written.
+     */
+    public int getStep() {
+        return step;
+    }
+
+    public int getRabbitCount() {
+        return rabbitCount;
+    }
+
+    public int getFoxCount() {
+        return foxCount;
+    }
+
+    /**
+     * @return The total quantity of grass and thick vegetation on the map.
+     */
+    public int getGrassQuantity() {
+        return grassQuantity;
+    }
+
+    /**
+     * @param id The id of the ground, starting from 1.
+     *
+     * @return The quantity of grass or thick vegetation on the ground.
+     */
+    public int getGrassQuantity(int id) {
+        return plantQuantities[id - 1];
+    }
+
+    /**
+     * @param id The id of the ground, starting from 1.
+     *
+     * @return The species of the animal on the ground or null if there is no animal on it.
+     */
+    public AnimalSpecies getAnimalSpecies(int id) {
+        int animal = animals[id - 1];
+        return animal != NoAnimal ? AnimalSpecies.values()[(animal - 1) / 2 / Age.values().length] : null;
+    }
+
+    /**
+     * @param id The id of the ground with an animal, starting from 1.
+     *
+     * @return The age of the animal on the ground.
+     */
+    public @NotNull Age getAnimalAge(int id) {
+        int animal = animals[id - 1];
+        if (animal == NoAnimal) throw new IllegalArgumentException();
+        return Age.values()[(animal - 1) / 2 % Age.values().length];
+    }
+
+    /**
+     * @param id The id of the ground with an animal, starting from 1.
+     *
+     * @return True if the animal on the ground is alive, false otherwise.
+     */
+    public boolean isAnimalAlive(int id) {
+        int animal = animals[id - 1];
+        if (animal == NoAnimal) throw new IllegalArgumentException();
+        return (animal - 1) % 2 == 1;
+    }
+
+    /**
+     * @param id The id of the ground, starting from 1.
+     *
+     * @return The type of the shelter on the ground or null if there is no shelter on it.
+     */
+    public ShelterType getShelterType(int id) {
+        int shelterType = shelterTypes[id - 1];
+        return shelterType != NoShelter ? ShelterType.values()[shelterType - 1] : null;
+    }
+
+    /**
+     * Lets the map know that the reader has finished reading the snapshot.
+     */
+    @Override
+    public void close() {
+        readerCount.decrementAndGet();
+    }
+
+    /**
+     * Registers a reader of the snapshot. The reader has to close the snapshot when it has finished reading.
+     */
+    void acquire() {
+        readerCount.incrementAndGet();
+    }
+
+    /**
+     * @return True if a reader holds the snapshot, so it must not be written.
+     */
+    boolean isAcquired() {
+        return readerCount.get() > 0;
+    }
+
+    /**
+     * Writes the current state of the grounds of the map into the snapshot.
+     *
+     * @param map The map at the end of a step.
+     */
+    void write(@NotNull Map map) {
+        GroundGrid grid = map.grid;
+        step = grid.vegetation.getStep();
+        rabbitCount = map.getRabbitCount();
+        foxCount = map.getFoxCount();
+        grassQuantity = 0;
+
+        for (int index = 0; index < getGroundCount(); index++) {
+            int quantity = grid.vegetation.getQuantity(index);
+            plantQuantities[index] = (byte) quantity;
+            grassQuantity += quantity;
+
+            Animal animal = grid.occupants.get(grid.cellStore.getOccupant(index));
+            animals[index] = animal != null ? getAnimalCode(animal) : NoAnimal;
+
+            shelterTypes[index] = grid.cellStore.hasShelter(index)
+                ? (byte) (grid.getGround(index + 1).getShelterType().ordinal() + 1)
+                : NoShelter;
+        }
+    }
+
+    /**
+     * @return The code of the species, the age and whether the animal is alive, which is never {@link #NoAnimal}.
+     */
+    private static byte getAnimalCode(@NotNull Animal animal) {
+        int code = (animal.getSpecies().ordinal() * Age.values().length + animal.getAge().ordinal()) * 2;
+        return (byte) (code + (animal.isAlive() ? 1 : 0) + 1);
+    }
+
+}
@@ -0,0 +1,247 @@
+package simulation.animal_simulation.map;
+
+import org.jetbrains.annotations.NotNull;
+import simulation.animal_simulation.animals.Age;
+import simulation.animal_simulation.animals.AnimalSpecies;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.IntPredicate;
+
+/**
+ * The OccupancyLayer class keeps track of which grounds are occupied by which kind of animal.
+ * For every species and age there is a bitset with one bit per ground, split by the chunks of the grid
+ * (see {@link GroundGrid#ChunkSize}). The bitsets of a chunk are only allocated when the first animal is placed
+ * in it, so they take heap for the chunks that had animals, not for the whole grid.
+ * The bitsets are updated whenever an animal is placed on or removed from a ground or grows older.
+ *
+ * <p>To answer region queries quickly, the layer builds summed-area tables per species from the bitsets.
+ * The tables are snapshots: they are built on the first query after they have been invalidated and are not
+ * updated when animals move afterwards. The map invalidates them once per step for each group of animals,
+ * so a query only counts correctly while no animals of the queried species are added to the map.</p>
+ *
+ * <p>There is one table per chunk of the grid, and a query adds up the parts of the tables of the chunks its
+ * square overlaps. A chunk without animals is skipped when the tables are built and counts as empty, and its table
+ * is only allocated once the chunk has had animals. So building the tables costs as much as the chunks with
+ * animals, and the tables take about 4 bytes of heap per ground of those chunks and species.</p>
+ *
+ * <p>The bitsets of a chunk are allocated and their bits are set and cleared atomically, so the layer stays
+ * consistent if threads simulating different tiles touch the same chunk. During a parallel phase the tables have
+ * to be built beforehand.</p>
+ */
+public class OccupancyLayer {
+
+    private static final int AgeCount = Age.values().length;
+    private static final int ChunkSize = GroundGrid.ChunkSize;
+    private static final int ChunkStride = ChunkSize + 1;
+    private static final int WordsPerChunk = ChunkSize * ChunkSize / 64;
+    private static final VarHandle LongArrayElement = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle ChunkArrayElement = MethodHandles.arrayElementVarHandle(long[][].class);
+
+    private final int size;
+    private final int chunksPerRow;
+    @NotNull private final IntPredicate isChunkEmpty;
+    private final int kindCount;
+    /**
+     * The bitsets of every chunk, one after the other for every species and age, or null for the chunks that never
+     * had animals. Each bitset has one word per row of the chunk.
+     */
+    private final long[][] chunkBitsets;
+    /**
+     * The summed-area tables of the chunks of every species, or null for the chunks that never had animals.
+     */
+    private final int[][][] chunkTables;
+    /**
+     * True for the chunks of every species that had animals when the tables were built.
+     */
+    private final boolean[][] occupiedChunks;
+    private final boolean[] validSummedAreaTables;
+
+    /**
+     * Creates a layer without any animals.
+     *
+     * @param size Size of the map (number of grounds in one row or column).
+     * @param isChunkEmpty The function that tells if there are no animals in the chunk with the given index.
+     */
+    OccupancyLayer(int size, @NotNull IntPredicate isChunkEmpty) {
+        this.size = size;
+        this.chunksPerRow = (size + ChunkSize - 1) / ChunkSize;
+        this.isChunkEmpty = isChunkEmpty;
+        int speciesCount = AnimalSpecies.values().length;
+
+        kindCount = speciesCount * AgeCount;
+        chunkBitsets = new long[chunksPerRow * chunksPerRow][];
+        chunkTables = new int[speciesCount][chunksPerRow * chunksPerRow][];
+        occupiedChunks = new boolean[speciesCount][chunksPerRow * chunksPerRow];
+        validSummedAreaTables = new boolean[speciesCount];
+    }
+
+
+    private int getChunkIndex(int index) {
+        return (index / size / ChunkSize) * chunksPerRow + index % size / ChunkSize;
+    }
+
+    /**
+     * @return The position of the word of the ground in the bitsets of its chunk for the given species and age.
+     * The bit of the ground in the word is given by its x coordinate.
+     */
+    private int getWordIndex(int index, @NotNull AnimalSpecies species, @NotNull Age age) {
+        int kind = species.ordinal() * AgeCount + age.ordinal();
+        return kind * WordsPerChunk + index / size % ChunkSize;
+    }
+
+    /**
+     * @return The bitsets of the chunk, allocated if the chunk did not have any animals so far.
+     */
+    private long @NotNull [] getOrCreateChunkBitsets(int chunkIndex) {
+        long[] bitsets = (long[]) ChunkArrayElement.getAcquire(chunkBitsets, chunkIndex);
+        if (bitsets == null) {
+            long[] newBitsets = new long[kindCount * WordsPerChunk];
+            long[] witness = (long[]) ChunkArrayElement.compareAndExchange(chunkBitsets, chunkIndex, null, newBitsets);
+            bitsets = witness != null ? witness : newBitsets;
+        }
+        return bitsets;
+    }
+
+    void add(int index, @NotNull AnimalSpecies species, @NotNull Age age) {
+        long[] bitsets = getOrCreateChunkBitsets(getChunkIndex(index));
+        LongArrayElement.getAndBitwiseOr(bitsets, getWordIndex(index, species, age), 1L << index % size);
+    }
+    void remove(int index, @NotNull AnimalSpecies species, @NotNull Age age) {
+        long[] bitsets = (long[]) ChunkArrayElement.getAcquire(chunkBitsets, getChunkIndex(index));
+        if (bitsets == null) return;
+        LongArrayElement.getAndBitwiseAnd(bitsets, getWordIndex(index, species, age), ~(1L << index % size));
+    }
+
+    /**
+     * @return True if the ground with the given index is occupied by an animal of the given species and age.
+     */
+    public boolean isOccupied(int index, @NotNull AnimalSpecies species, @NotNull Age age) {
+        long[] bitsets = (long[]) ChunkArrayElement.getAcquire(chunkBitsets, getChunkIndex(index));
+        return bitsets != null && (bitsets[getWordIndex(index, species, age)] & 1L << index % size) != 0;
+    }
+
+    /**
+     * @return The number of chunks whose bitsets have been allocated.
+     */
+    public int getAllocatedChunkCount() {
+        int allocatedChunkCount = 0;
+        for (long[] bitsets : chunkBitsets) {
+            if (bitsets != null) allocatedChunkCount++;
+        }
+        return allocatedChunkCount;
+    }
+
+    /**
+     * Marks the summed-area tables as outdated, so they are rebuilt on the next query.
+     */
+    public void invalidateSummedAreaTables() {
+        for (int i = 0; i < validSummedAreaTables.length; i++) {
+            validSummedAreaTables[i] = false;
+        }
+    }
+
+    /**
+     * Rebuilds the summed-area tables of all the species from the current occupancy, so the queries that follow
+     * only read them.
+     */
+    public void buildSummedAreaTables() {
+        invalidateSummedAreaTables();
+        for (AnimalSpecies species : AnimalSpecies.values()) {
+            ensureSummedAreaTables(species);
+        }
+    }
+
+    /**
+     * Returns the number of animals of the given species in the square around the given coordinates.
+     * The square contains all the grounds with both coordinates differing by at most the range, clipped at the
+     * borders of the map, so it covers the whole vision disk with the same range.
+     * The count is taken from the summed-area table snapshots of the species.
+     *
+     * @param species The species of the animals to count.
+     * @param x The x coordinate of the center, starting from 1.
+     * @param y The y coordinate of the center, starting from 1.
+     * @param range The range of the square.
+     *
+     * @return The number of animals of the species in the square.
+     */
+    public int countAnimalsInSquare(@NotNull AnimalSpecies species, int x, int y, int range) {
+        ensureSummedAreaTables(species);
+        int speciesIndex = species.ordinal();
+
+        int left = Math.max(x - range, 1) - 1;
+        int top = Math.max(y - range, 1) - 1;
+        int right = Math.min(x + range, size);
+        int bottom = Math.min(y + range, size);
+
+        int count = 0;
+        for (int chunkY = top / ChunkSize; chunkY <= (bottom - 1) / ChunkSize; chunkY++) {
+            for (int chunkX = left / ChunkSize; chunkX <= (right - 1) / ChunkSize; chunkX++) {
+                int chunkIndex = chunkY * chunksPerRow + chunkX;
+                if (!occupiedChunks[speciesIndex][chunkIndex]) continue;
+
+                int[] table = chunkTables[speciesIndex][chunkIndex];
+                int chunkLeft = Math.max(left - chunkX * ChunkSize, 0);
+                int chunkTop = Math.max(top - chunkY * ChunkSize, 0);
+                int chunkRight = Math.min(right - chunkX * ChunkSize, ChunkSize);
+                int chunkBottom = Math.min(bottom - chunkY * ChunkSize, ChunkSize);
+                count += table[chunkBottom * ChunkStride + chunkRight] - table[chunkTop * ChunkStride + chunkRight] -
+                    table[chunkBottom * ChunkStride + chunkLeft] + table[chunkTop * ChunkStride + chunkLeft];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Rebuilds the summed-area tables of the chunks of the species if they have been invalidated.
+     *
+     * @param species The species.
+     */
+    private void ensureSummedAreaTables(@NotNull AnimalSpecies species) {
+        int speciesIndex = species.ordinal();
+        if (validSummedAreaTables[speciesIndex]) return;
+
+        for (int chunkIndex = 0; chunkIndex < chunksPerRow * chunksPerRow; chunkIndex++) {
+            boolean isOccupied = !isChunkEmpty.test(chunkIndex) && chunkBitsets[chunkIndex] != null;
+            occupiedChunks[speciesIndex][chunkIndex] = isOccupied;
+            if (!isOccupied) continue;
+
+            if (chunkTables[speciesIndex][chunkIndex] == null) {
+                chunkTables[speciesIndex][chunkIndex] = new int[ChunkStride * ChunkStride];
+            }
+            buildChunkTable(chunkTables[speciesIndex][chunkIndex], chunkIndex, speciesIndex);
+        }
+
+        validSummedAreaTables[speciesIndex] = true;
+    }
+
+    /**
+     * Builds the summed-area table of the chunk. The entry at (y, x) of the table holds the number of animals
+     * on the grounds of the chunk with local coordinates up to (x, y), the first row and column are zeros.
+     * In a chunk at the border of the map only the entries of the grounds inside the map are written.
+     *
+     * @param table The table with (ChunkSize + 1) * (ChunkSize + 1) entries.
+     * @param chunkIndex The index of the chunk, which must have its bitsets allocated.
+     * @param speciesIndex The index of the species.
+     */
+    private void buildChunkTable(int @NotNull [] table, int chunkIndex, int speciesIndex) {
+        long[] bitsets = chunkBitsets[chunkIndex];
+        int firstX = chunkIndex % chunksPerRow * ChunkSize;
+        int firstY = chunkIndex / chunksPerRow * ChunkSize;
+        int width = Math.min(ChunkSize, size - firstX);
+        int height = Math.min(ChunkSize, size - firstY);
+        int firstWord = speciesIndex * AgeCount * WordsPerChunk;
+
+        for (int y = 0; y < height; y++) {
+            int rowSum = 0;
+            for (int x = 0; x < width; x++) {
+                long mask = 1L << x;
+                for (int word = firstWord + y; word < firstWord + AgeCount * WordsPerChunk; word += WordsPerChunk) {
+                    if ((bitsets[word] & mask) != 0) rowSum++;
+                }
+                table[(y + 1) * ChunkStride + x + 1] = table[y * ChunkStride + x + 1] + rowSum;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package simulation.animal_simulation.map;
+
+import org.jetbrains.annotations.NotNull;
+import simulation.animal_simulation.animals.Animal;
+
+import java.util.Arrays;
+
+/**
+ * The OccupantRegistry class gives every animal placed on the map an integer handle.
+ * The cell store only keeps these handles, so the state of the cells does not reference any Java objects.
+ * Handle 0 means that there is no animal. Handles of unregistered animals are reused.
+ *
+ * <p>Animals are registered and unregistered under a lock, so the animals of several tiles can be placed on the map
+ * at once. Looking up an animal does not take the lock.</p>
+ */
+class OccupantRegistry {
+
+    @NotNull private volatile Animal[] animals = new Animal[16];
+    private int animalCount = 0;
+    private int[] freeHandles = new int[16];
+    private int freeHandleCount = 0;
+
+    /**
+     * Registers the animal if it is not registered yet.
+     *
+     * @param animal The animal to register.
+     *
+     * @return The handle of the animal.
+     */
+    synchronized int register(@NotNull Animal animal) {
+        if (animal.getOccupantHandle() != 0) return animal.getOccupantHandle();
+
+        int handle;
+        if (freeHandleCount > 0) {
+            handle = freeHandles[--freeHandleCount];
+        } else {
+            if (animalCount == animals.length) animals = Arrays.copyOf(animals, animalCount * 2);
+            handle = ++animalCount;
+        }
+        animals[handle - 1] = animal;
+
+        animal.setOccupantHandle(handle);
+        return handle;
+    }
+
+    /**
+     * Unregisters the animal, so its handle can be reused.
+     *
+     * @param animal The animal to unregister.
+     */
+    synchronized void unregister(@NotNull Animal animal) {
+        int handle = animal.getOccupantHandle();
+        if (handle == 0) return;
+
+        animals[handle - 1] = null;
+        if (freeHandleCount == freeHandles.length) {
+            int[] newFreeHandles = new int[freeHandles.length * 2];
+            System.arraycopy(freeHandles, 0, newFreeHandles, 0, freeHandleCount);
+            freeHandles = newFreeHandles;
+        }
+        freeHandles[freeHandleCount++] = handle;
+        animal.setOccupantHandle(0);
+    }
+
+    /**
+     * @return The animal with the given handle or null if the handle is 0.
+     */
+    Animal get(int handle) {
+        return handle != 0 ? animals[handle - 1] : null;
+    }
+
+}
@@ -47,7 +47,7 @@ public class Shelter {
         this.forAnimal = forAnimal;
         this.capacity = capacity;
         this.range = getRangeByAnimalSpecies(forAnimal);
-        animals = List.of();
+        animals = new ArrayList<>();
     }
 
     /**
@@ -57,7 +57,7 @@ public class Shelter {
      * @param type The type of this shelter.
      * @param forAnimal The species of animal for which this shelter is intended.
      * @param capacity The maximum number of animals this shelter can accommodate.
-     * @param animals The list of animals currently in this shelter.
+     * @param animals The list of animals currently in this shelter. The list is copied.
      */
     public Shelter(
         int groundId,
@@ -71,7 +71,7 @@ public class Shelter {
         this.forAnimal = forAnimal;
         this.capacity = capacity;
         this.range = getRangeByAnimalSpecies(forAnimal);
-        this.animals = animals;
+        this.animals = new ArrayList<>(animals);
     }
 
 
@@ -123,11 +123,24 @@ public class Shelter {
     }
 
     /**
-     * @return The nearest shelter to this shelter.
+     * Sets the nearest shelters for this shelter that are in range, looking them up in the shelter index.
+     * Unlike {@link #setNearestSheltersFromSheltersList(List)}, only the shelters near this one are compared.
+     *
+     * @param shelterIndex The index containing this shelter and the other shelters of the same species.
+     */
+    public void setNearestSheltersFromIndex(@NotNull ShelterIndex shelterIndex) {
+        nearestShelters.clear();
+        nearestShelters.addAll(shelterIndex.getSheltersInRange(this, range));
+    }
+
+    /**
+     * @return The nearest shelter to this shelter that has free space or null if there is no such shelter in range.
      */
     public Shelter getNearestShelter() {
-        if (nearestShelters.isEmpty()) return null;
-        return nearestShelters.getFirst();
+        for (Shelter shelter : nearestShelters) {
+            if (shelter.hasFreeSpace()) return shelter;
+        }
+        return null;
     }
 
     /**
@@ -154,6 +167,13 @@ public class Shelter {
         return forAnimal == AnimalSpecies.Fox;
     }
 
+    /**
+     * @return True if there is space for another animal in this shelter.
+     */
+    public boolean hasFreeSpace() {
+        return animals.size() < capacity;
+    }
+
     /**
      * Adds a rabbit to this shelter.
      *
@@ -162,9 +182,9 @@ public class Shelter {
      * @return True if the rabbit was added successfully.
      */
     public boolean addRabbit(Rabbit rabbit) {
-        if (!isForRabbits() || animals.size() >= capacity) return false;
+        if (!isForRabbits()) return false;
 
-        return animals.add(rabbit);
+        return enter(rabbit);
     }
 
     /**
@@ -175,9 +195,33 @@ public class Shelter {
      * @return True if the fox was added successfully.
      */
     public boolean addFox(Fox fox) {
-        if (!isForFoxes() || animals.size() >= capacity) return false;
+        if (!isForFoxes()) return false;
+
+        return enter(fox);
+    }
+
+    /**
+     * @param animal The animal that wants to enter the shelter.
+     *
+     * @return True if the shelter is intended for the species of the animal and has free space.
+     */
+    public boolean canEnter(@NotNull Animal animal) {
+        return animal.getSpecies() == forAnimal && hasFreeSpace();
+    }
+
+    /**
+     * Adds an animal of the species this shelter is intended for to this shelter if there is free space.
+     *
+     * @param animal The animal entering the shelter.
+     *
+     * @return True if the animal entered the shelter, false otherwise.
+     */
+    public boolean enter(@NotNull Animal animal) {
+        if (!canEnter(animal)) return false;
 
-        return animals.add(fox);
+        animals.add(animal);
+        if (!hasFreeSpace()) notifyAvailabilityChanged();
+        return true;
     }
 
     /**
@@ -188,7 +232,20 @@ public class Shelter {
      * @return True if the animal was removed successfully.
      */
     public boolean removeAnimal(Animal animal) {
-        return animals.remove(animal);
+        boolean hadFreeSpace = hasFreeSpace();
+        if (!animals.remove(animal)) return false;
+
+        if (!hadFreeSpace && hasFreeSpace()) notifyAvailabilityChanged();
+        return true;
+    }
+
+    /**
+     * Lets the grid know that this shelter got or lost its free space.
+     */
+    private void notifyAvailabilityChanged() {
+        if (ground != null && ground.grid != null) {
+            ground.grid.onShelterAvailabilityChanged(this);
+        }
     }
 
 }
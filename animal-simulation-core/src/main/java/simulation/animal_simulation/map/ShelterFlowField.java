@@ -0,0 +1,339 @@
+package simulation.animal_simulation.map;
+
+import org.jetbrains.annotations.NotNull;
+import simulation.animal_simulation.animals.AnimalSpecies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The ShelterFlowField class holds the distance of every ground to the nearest shelter of one species that still
+ * has free space. The distances are computed by a breadth-first search starting from all such shelters at once,
+ * moving only between neighbouring grounds (top, right, bottom, left) and never through other shelters.
+ * Animals are not obstacles for the search, because they move every step.
+ *
+ * <p>An animal running to a shelter only has to look at the distances of its neighbouring grounds to find its
+ * next ground, so all the animals of a species share one search instead of navigating on their own.</p>
+ *
+ * <p>When a shelter frees up, the distances are lowered by a search starting from that shelter only.
+ * When a shelter fills up, only the region it was serving is repaired: the grounds that may have had it as their
+ * nearest shelter lose their distances, and the search starts again from the grounds around that region, which
+ * keep theirs. So a shelter filling up costs about as much as the region it served, not as the whole grid.</p>
+ *
+ * <p>The distances are kept per chunk of the grid (see {@link GroundGrid#ChunkSize}), and the distances of a chunk
+ * are only allocated once one of its grounds can reach a shelter, so a species without shelters or a region cut off
+ * from them takes no heap. The queue of the search is a ring buffer that only holds the front of the search, which
+ * is about as long as the rows of the grid, not as the whole grid.</p>
+ */
+public class ShelterFlowField {
+
+    /**
+     * The distance of the grounds from which no shelter with free space can be reached.
+     */
+    public static final int Unreachable = Integer.MAX_VALUE;
+
+    @NotNull private final GroundGrid grid;
+    @NotNull private final AnimalSpecies species;
+    @NotNull private final ArrayList<Shelter> shelters = new ArrayList<>();
+
+    /**
+     * The distances of the grounds of every chunk, or null for the chunks without any reachable ground.
+     */
+    private final int[][] distanceChunks;
+    private int[] queue = new int[16];
+    private int queueStart = 0;
+    private int queueLength = 0;
+    private int[] marked = new int[16];
+    /**
+     * The seeds of the last repair, each of them its distance shifted into the high half and its index in the low
+     * half, so sorting them sorts them by distance.
+     */
+    private long[] seeds = new long[16];
+    private boolean isOutdated = true;
+    private int recomputeCount = 0;
+
+    /**
+     * Creates an empty flow field.
+     *
+     * @param grid The grid the field is computed for.
+     * @param species The species of the shelters the field leads to.
+     */
+    ShelterFlowField(@NotNull GroundGrid grid, @NotNull AnimalSpecies species) {
+        this.grid = grid;
+        this.species = species;
+        this.distanceChunks = new int[grid.getChunkCount()][];
+    }
+
+
+    public @NotNull AnimalSpecies getSpecies() {
+        return species;
+    }
+
+    /**
+     * @return The number of times the distances of all the grounds were computed.
+     */
+    int getRecomputeCount() {
+        return recomputeCount;
+    }
+
+    /**
+     * Adds a shelter placed on the grid to the field.
+     *
+     * @param shelter The shelter intended for the species of this field.
+     */
+    void addShelter(@NotNull Shelter shelter) {
+        shelters.add(shelter);
+        isOutdated = true;
+    }
+
+    /**
+     * Updates the field after the shelter got or lost its free space.
+     *
+     * @param shelter The shelter whose free space changed.
+     */
+    void onShelterAvailabilityChanged(@NotNull Shelter shelter) {
+        if (isOutdated) return;
+
+        int index = shelter.groundId - 1;
+        if (shelter.hasFreeSpace()) {
+            setDistance(index, 0);
+            enqueue(index);
+            spread();
+        } else if (getStoredDistance(index) == 0) {
+            repairAfterFilling(index);
+        }
+    }
+
+    /**
+     * Recomputes the field if it is outdated, so the following queries only read it.
+     */
+    void ensureUpToDate() {
+        if (isOutdated) recompute();
+    }
+
+    /**
+     * Returns the distance of the ground to the nearest shelter with free space.
+     *
+     * @param index The index of the ground.
+     *
+     * @return The number of steps to the nearest shelter or {@link #Unreachable} if no such shelter can be reached.
+     */
+    public int getDistance(int index) {
+        ensureUpToDate();
+        return getStoredDistance(index);
+    }
+
+    /**
+     * @return The number of chunks whose distances have been allocated.
+     */
+    int getAllocatedChunkCount() {
+        int allocatedChunkCount = 0;
+        for (int[] chunkDistances : distanceChunks) {
+            if (chunkDistances != null) allocatedChunkCount++;
+        }
+        return allocatedChunkCount;
+    }
+
+    private int getIndexInChunk(int index) {
+        int size = grid.getSize();
+        return (index / size % GroundGrid.ChunkSize) * GroundGrid.ChunkSize + index % size % GroundGrid.ChunkSize;
+    }
+
+    private int getStoredDistance(int index) {
+        int[] chunkDistances = distanceChunks[grid.getChunkIndex(index)];
+        return chunkDistances != null ? chunkDistances[getIndexInChunk(index)] : Unreachable;
+    }
+
+    private void setDistance(int index, int distance) {
+        int chunkIndex = grid.getChunkIndex(index);
+        int[] chunkDistances = distanceChunks[chunkIndex];
+        if (chunkDistances == null) {
+            chunkDistances = new int[GroundGrid.ChunkSize * GroundGrid.ChunkSize];
+            Arrays.fill(chunkDistances, Unreachable);
+            distanceChunks[chunkIndex] = chunkDistances;
+        }
+        chunkDistances[getIndexInChunk(index)] = distance;
+    }
+
+    private void enqueue(int index) {
+        if (queueLength == queue.length) {
+            int[] newQueue = new int[queue.length * 2];
+            System.arraycopy(queue, queueStart, newQueue, 0, queue.length - queueStart);
+            System.arraycopy(queue, 0, newQueue, queue.length - queueStart, queueStart);
+            queue = newQueue;
+            queueStart = 0;
+        }
+        queue[(queueStart + queueLength++) % queue.length] = index;
+    }
+
+    private int dequeue() {
+        int index = queue[queueStart];
+        queueStart = (queueStart + 1) % queue.length;
+        queueLength--;
+        return index;
+    }
+
+    /**
+     * Returns the neighbouring ground an animal on the given ground should go to, to get closer to the nearest
+     * shelter with free space. The neighbours are checked in the order top, right, bottom, left and the first one
+     * that is closer to a shelter and can be entered is returned.
+     *
+     * @param ground The ground of the animal.
+     *
+     * @return The next ground, which is either an available ground or the ground of a shelter with free space,
+     * or null if no neighbouring ground brings the animal closer to a shelter.
+     */
+    public Ground getNextGround(@NotNull Ground ground) {
+        int index = ground.id - 1;
+        int distance = getDistance(index);
+        if (distance == Unreachable || distance == 0) return null;
+
+        Ground nextGround;
+        if ((nextGround = getNextGroundIfCloser(grid.getNextTopIndex(index), distance)) != null) return nextGround;
+        if ((nextGround = getNextGroundIfCloser(grid.getNextRightIndex(index), distance)) != null) return nextGround;
+        if ((nextGround = getNextGroundIfCloser(grid.getNextBottomIndex(index), distance)) != null) return nextGround;
+        return getNextGroundIfCloser(grid.getNextLeftIndex(index), distance);
+    }
+
+    private Ground getNextGroundIfCloser(int index, int distance) {
+        if (index == -1) return null;
+        int nextDistance = getStoredDistance(index);
+        if (nextDistance >= distance) return null;
+
+        Ground ground = grid.getGround(index + 1);
+        return nextDistance == 0 || ground.isAvailable() ? ground : null;
+    }
+
+    /**
+     * Recomputes the distances of all the grounds from the shelters with free space.
+     */
+    private void recompute() {
+        for (int[] chunkDistances : distanceChunks) {
+            if (chunkDistances != null) Arrays.fill(chunkDistances, Unreachable);
+        }
+
+        for (Shelter shelter : shelters) {
+            if (!shelter.hasFreeSpace()) continue;
+
+            setDistance(shelter.groundId - 1, 0);
+            enqueue(shelter.groundId - 1);
+        }
+
+        isOutdated = false;
+        recomputeCount++;
+        spread();
+    }
+
+    /**
+     * Repairs the distances after the shelter on the ground with the given index filled up.
+     *
+     * <p>First the grounds that may have had the shelter as their nearest one are marked: those that can be reached
+     * from the shelter by moving to a neighbour whose distance is one higher. Every other ground has a shortest path
+     * to another shelter, so its distance stays right. A marked ground keeps its old distance d as -1 - d while the
+     * marking runs. Then the unmarked grounds next to the marked ones are the seeds of the search, which visits them
+     * in the order of their distances merged with its own queue, so every ground still gets its distance only once.
+     * </p>
+     *
+     * @param shelterIndex The index of the ground of the shelter.
+     */
+    private void repairAfterFilling(int shelterIndex) {
+        setDistance(shelterIndex, -1);
+        marked[0] = shelterIndex;
+        int markedCount = 1;
+        for (int i = 0; i < markedCount; i++) {
+            int index = marked[i];
+            int nextDistance = -getStoredDistance(index);
+            markedCount = tryToMark(grid.getNextTopIndex(index), nextDistance, markedCount);
+            markedCount = tryToMark(grid.getNextRightIndex(index), nextDistance, markedCount);
+            markedCount = tryToMark(grid.getNextBottomIndex(index), nextDistance, markedCount);
+            markedCount = tryToMark(grid.getNextLeftIndex(index), nextDistance, markedCount);
+        }
+
+        int seedCount = 0;
+        for (int i = 0; i < markedCount; i++) {
+            int index = marked[i];
+            seedCount = tryToAddSeed(grid.getNextTopIndex(index), seedCount);
+            seedCount = tryToAddSeed(grid.getNextRightIndex(index), seedCount);
+            seedCount = tryToAddSeed(grid.getNextBottomIndex(index), seedCount);
+            seedCount = tryToAddSeed(grid.getNextLeftIndex(index), seedCount);
+        }
+        for (int i = 0; i < markedCount; i++) {
+            setDistance(marked[i], Unreachable);
+        }
+
+        Arrays.sort(seeds, 0, seedCount);
+        spreadFromSeeds(seedCount);
+    }
+
+    private int tryToMark(int index, int distance, int markedCount) {
+        if (index == -1 || getStoredDistance(index) != distance || grid.cellStore.hasShelter(index)) {
+            return markedCount;
+        }
+
+        setDistance(index, -1 - distance);
+        if (markedCount == marked.length) marked = Arrays.copyOf(marked, markedCount * 2);
+        marked[markedCount] = index;
+        return markedCount + 1;
+    }
+
+    private int tryToAddSeed(int index, int seedCount) {
+        if (index == -1) return seedCount;
+        int distance = getStoredDistance(index);
+        if (distance < 0 || distance == Unreachable) return seedCount;
+
+        if (seedCount == seeds.length) seeds = Arrays.copyOf(seeds, seedCount * 2);
+        seeds[seedCount] = (long) distance << 32 | index;
+        return seedCount + 1;
+    }
+
+    /**
+     * Runs the breadth-first search from the seeds, taking the next ground either from the seeds or from the queue,
+     * whichever has the lower distance.
+     *
+     * @param seedCount The number of seeds.
+     */
+    private void spreadFromSeeds(int seedCount) {
+        int seedStart = 0;
+        while (seedStart < seedCount || queueLength > 0) {
+            int index;
+            if (queueLength == 0 || (
+                seedStart < seedCount && (int) (seeds[seedStart] >>> 32) <= getStoredDistance(queue[queueStart])
+            )) {
+                index = (int) seeds[seedStart++];
+            } else {
+                index = dequeue();
+            }
+            spreadToNeighbours(index);
+        }
+    }
+
+    /**
+     * Runs the breadth-first search from the grounds in the queue, lowering the distances of the grounds that
+     * can be reached in fewer steps.
+     */
+    private void spread() {
+        while (queueLength > 0) {
+            spreadToNeighbours(dequeue());
+        }
+    }
+
+    /**
+     * Lowers the distances of the neighbours of the ground that can be reached in fewer steps through it and adds
+     * them to the queue.
+     */
+    private void spreadToNeighbours(int index) {
+        int nextDistance = getStoredDistance(index) + 1;
+        tryToLowerDistance(grid.getNextTopIndex(index), nextDistance);
+        tryToLowerDistance(grid.getNextRightIndex(index), nextDistance);
+        tryToLowerDistance(grid.getNextBottomIndex(index), nextDistance);
+        tryToLowerDistance(grid.getNextLeftIndex(index), nextDistance);
+    }
+
+    private void tryToLowerDistance(int index, int distance) {
+        if (index == -1 || getStoredDistance(index) <= distance || grid.cellStore.hasShelter(index)) return;
+
+        setDistance(index, distance);
+        enqueue(index);
+    }
+
+}
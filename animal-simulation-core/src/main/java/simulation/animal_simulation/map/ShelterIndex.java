@@ -0,0 +1,189 @@
+package simulation.animal_simulation.map;
+
+import org.jetbrains.annotations.NotNull;
+import simulation.animal_simulation.animals.AnimalSpecies;
+import simulation.animal_simulation.map.navigation.Coordinates;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The ShelterIndex class is a spatial index of the shelters of the map, with a separate index per species.
+ * The map is divided into square buckets of 16x16 grounds and every shelter is kept in the bucket covering its
+ * ground, so queries only look at the buckets near the queried coordinates instead of at all the shelters.
+ *
+ * <p>Shelters at the same distance are ordered by the order in which they were added to the index.</p>
+ *
+ * <p>The free space of the shelters can be frozen, so the queries see the shelters as they were when the index
+ * was frozen while the animals of several tiles enter and leave shelters at once.</p>
+ */
+public class ShelterIndex {
+
+    private static final int BucketSize = 16;
+
+    /**
+     * A shelter in the index together with the order in which it was added.
+     */
+    private record Entry(@NotNull Shelter shelter, int order) {}
+
+    private final int bucketsPerRow;
+    private final ArrayList<Entry>[][] buckets;
+    @NotNull private final ArrayList<Entry> entries = new ArrayList<>();
+    private boolean[] frozenFreeSpaces = null;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param size Size of the map (number of grounds in one row or column).
+     */
+    @SuppressWarnings("unchecked")
+    ShelterIndex(int size) {
+        this.bucketsPerRow = (size + BucketSize - 1) / BucketSize;
+        this.buckets = new ArrayList[AnimalSpecies.values().length][bucketsPerRow * bucketsPerRow];
+    }
+
+
+    /**
+     * Adds a shelter placed on the map to the index.
+     *
+     * @param shelter The shelter with its ground set.
+     */
+    void add(@NotNull Shelter shelter) {
+        Coordinates coordinates = shelter.getCoordinates();
+        ArrayList<Entry>[] speciesBuckets = buckets[shelter.forAnimal.ordinal()];
+        int bucketIndex = getBucketIndex((coordinates.x - 1) / BucketSize, (coordinates.y - 1) / BucketSize);
+
+        if (speciesBuckets[bucketIndex] == null) speciesBuckets[bucketIndex] = new ArrayList<>();
+        Entry entry = new Entry(shelter, entries.size());
+        speciesBuckets[bucketIndex].add(entry);
+        entries.add(entry);
+    }
+
+    /**
+     * Remembers which shelters have free space, so the queries use this state until the index is unfrozen.
+     */
+    void freeze() {
+        boolean[] freeSpaces = new boolean[entries.size()];
+        for (Entry entry : entries) {
+            freeSpaces[entry.order] = entry.shelter.hasFreeSpace();
+        }
+        frozenFreeSpaces = freeSpaces;
+    }
+
+    /**
+     * Lets the queries see the current free space of the shelters again.
+     */
+    void unfreeze() {
+        frozenFreeSpaces = null;
+    }
+
+    private boolean hasFreeSpace(@NotNull Entry entry) {
+        boolean[] freeSpaces = frozenFreeSpaces;
+        return freeSpaces != null ? freeSpaces[entry.order] : entry.shelter.hasFreeSpace();
+    }
+
+    private int getBucketIndex(int bucketX, int bucketY) {
+        return bucketY * bucketsPerRow + bucketX;
+    }
+
+    private static int getSquaredDistance(@NotNull Coordinates coordinates, @NotNull Shelter shelter) {
+        int xDifference = shelter.getCoordinates().x - coordinates.x;
+        int yDifference = shelter.getCoordinates().y - coordinates.y;
+        return xDifference * xDifference + yDifference * yDifference;
+    }
+
+    /**
+     * Returns the other shelters of the same species that are in the range of the given shelter.
+     *
+     * @param shelter The shelter in the center of the range.
+     * @param range The range.
+     *
+     * @return The shelters in range sorted by their distance to the given shelter.
+     */
+    public @NotNull List<Shelter> getSheltersInRange(@NotNull Shelter shelter, int range) {
+        Coordinates coordinates = shelter.getCoordinates();
+        ArrayList<Entry>[] speciesBuckets = buckets[shelter.forAnimal.ordinal()];
+
+        int firstBucketX = Math.max(coordinates.x - 1 - range, 0) / BucketSize;
+        int firstBucketY = Math.max(coordinates.y - 1 - range, 0) / BucketSize;
+        int lastBucketX = Math.min((coordinates.x - 1 + range) / BucketSize, bucketsPerRow - 1);
+        int lastBucketY = Math.min((coordinates.y - 1 + range) / BucketSize, bucketsPerRow - 1);
+
+        ArrayList<Entry> entries = new ArrayList<>();
+        for (int bucketY = firstBucketY; bucketY <= lastBucketY; bucketY++) {
+            for (int bucketX = firstBucketX; bucketX <= lastBucketX; bucketX++) {
+                ArrayList<Entry> bucket = speciesBuckets[getBucketIndex(bucketX, bucketY)];
+                if (bucket == null) continue;
+
+                for (Entry entry : bucket) {
+                    if (entry.shelter != shelter && getSquaredDistance(coordinates, entry.shelter) <= range * range) {
+                        entries.add(entry);
+                    }
+                }
+            }
+        }
+
+        entries.sort(
+            Comparator.<Entry>comparingInt(entry -> getSquaredDistance(coordinates, entry.shelter))
+                .thenComparingInt(Entry::order)
+        );
+        return entries.stream().map(Entry::shelter).toList();
+    }
+
+    /**
+     * Returns the shelter of the species with free space that is closest to the given coordinates.
+     * The buckets are searched in rings of growing distance around the coordinates until no closer shelter
+     * can be found.
+     *
+     * @param species The species the shelter is intended for.
+     * @param coordinates The coordinates to search around.
+     *
+     * @return The nearest shelter with free space or null if all the shelters of the species are full.
+     */
+    public Shelter findNearestAvailableShelter(@NotNull AnimalSpecies species, @NotNull Coordinates coordinates) {
+        ArrayList<Entry>[] speciesBuckets = buckets[species.ordinal()];
+        int centerBucketX = (coordinates.x - 1) / BucketSize;
+        int centerBucketY = (coordinates.y - 1) / BucketSize;
+
+        Entry nearestEntry = null;
+        int nearestDistance = Integer.MAX_VALUE;
+
+        for (int ring = 0; ring < bucketsPerRow; ring++) {
+            if (nearestEntry != null) {
+                long ringDistance = (long) (ring - 1) * BucketSize + 1;
+                if (ringDistance * ringDistance > nearestDistance) break;
+            }
+
+            for (int bucketY = centerBucketY - ring; bucketY <= centerBucketY + ring; bucketY++) {
+                if (bucketY < 0 || bucketY >= bucketsPerRow) continue;
+
+                boolean isRingEdge = bucketY == centerBucketY - ring || bucketY == centerBucketY + ring;
+                int step = isRingEdge ? 1 : Math.max(2 * ring, 1);
+
+                for (int bucketX = centerBucketX - ring; bucketX <= centerBucketX + ring; bucketX += step) {
+                    if (bucketX < 0 || bucketX >= bucketsPerRow) continue;
+
+                    ArrayList<Entry> bucket = speciesBuckets[getBucketIndex(bucketX, bucketY)];
+                    if (bucket == null) continue;
+
+                    for (Entry entry : bucket) {
+                        if (!hasFreeSpace(entry)) continue;
+
+                        int distance = getSquaredDistance(coordinates, entry.shelter);
+                        if (
+                            distance < nearestDistance ||
+                            (distance == nearestDistance && entry.order < nearestEntry.order)
+                        ) {
+                            nearestEntry = entry;
+                            nearestDistance = distance;
+                        }
+                    }
+                }
+            }
+        }
+
+        return nearestEntry != null ? nearestEntry.shelter : null;
+    }
+
+}
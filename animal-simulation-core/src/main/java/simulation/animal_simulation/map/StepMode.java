@@ -0,0 +1,11 @@
+package simulation.animal_simulation.map;
+
+/**
+ * Represents the way the animals take their steps.
+ * Sequential makes every animal change the map right away in its step, so the animals earlier in the store get
+ * the contested grounds. TwoPhase makes all the animals plan their steps first and resolves the contested grounds
+ * by the grounds the animals start on, so the result does not depend on the order of the animals.
+ */
+public enum StepMode {
+    Sequential, TwoPhase
+}
@@ -50,8 +50,9 @@ public class Coordinates {
      * @return True if these coordinates are within the range of the other coordinates, false otherwise.
      */
     public boolean areInRageWithOtherCoordinates(Coordinates coordinates, int range) {
-        return Math.pow(Math.abs(x - coordinates.x), 2) +
-            Math.pow(Math.abs(y - coordinates.y), 2) <= Math.pow(range, 2);
+        int xDifference = x - coordinates.x;
+        int yDifference = y - coordinates.y;
+        return xDifference * xDifference + yDifference * yDifference <= range * range;
     }
 
     /**
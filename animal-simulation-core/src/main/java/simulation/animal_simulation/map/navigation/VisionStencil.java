@@ -0,0 +1,87 @@
+package simulation.animal_simulation.map.navigation;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The VisionStencil class holds the offsets of all the grounds an animal with a certain vision range can see.
+ * A ground is visible if its distance to the animal is not greater than the vision range, the ground of the animal
+ * itself is not included.
+ *
+ * <p>The offsets are sorted by their distance, so walking through them finds the nearest ground first.
+ * Offsets with the same distance keep the order in which the grounds used to be collected: the horizontal line
+ * (left, then right), the vertical line of the animal (top, then bottom) and then the vertical lines of the
+ * horizontal grounds. Stencils are computed once per vision range and shared.</p>
+ */
+public class VisionStencil {
+
+    private static final ConcurrentHashMap<Integer, VisionStencil> Stencils = new ConcurrentHashMap<>();
+
+    public final int range;
+    private final int[] xOffsets;
+    private final int[] yOffsets;
+
+    /**
+     * Returns the stencil for the given vision range.
+     *
+     * @param range The vision range.
+     *
+     * @return The shared stencil for the range.
+     *
+     * @throws IllegalArgumentException If the range is negative.
+     */
+    public static @NotNull VisionStencil forRange(int range) {
+        if (range < 0) throw new IllegalArgumentException();
+        return Stencils.computeIfAbsent(range, VisionStencil::new);
+    }
+
+    private VisionStencil(int range) {
+        this.range = range;
+
+        List<int[]> offsets = new ArrayList<>();
+        List<Integer> horizontalOffsets = new ArrayList<>();
+        for (int x = -1; x >= -range; x--) horizontalOffsets.add(x);
+        for (int x = 1; x <= range; x++) horizontalOffsets.add(x);
+
+        for (int x : horizontalOffsets) offsets.add(new int[] { x, 0 });
+        addVerticalLine(offsets, 0);
+        for (int x : horizontalOffsets) addVerticalLine(offsets, x);
+
+        offsets.sort(Comparator.comparingInt(offset -> offset[0] * offset[0] + offset[1] * offset[1]));
+
+        xOffsets = new int[offsets.size()];
+        yOffsets = new int[offsets.size()];
+        for (int i = 0; i < offsets.size(); i++) {
+            xOffsets[i] = offsets.get(i)[0];
+            yOffsets[i] = offsets.get(i)[1];
+        }
+    }
+
+    /**
+     * Adds the offsets of the vertical line with the given x offset that are in the range (top, then bottom).
+     */
+    private void addVerticalLine(@NotNull List<int[]> offsets, int x) {
+        for (int y = -1; x * x + y * y <= range * range; y--) offsets.add(new int[] { x, y });
+        for (int y = 1; x * x + y * y <= range * range; y++) offsets.add(new int[] { x, y });
+    }
+
+
+    /**
+     * @return The number of offsets in the stencil.
+     */
+    public int getSize() {
+        return xOffsets.length;
+    }
+
+    public int getXOffset(int position) {
+        return xOffsets[position];
+    }
+    public int getYOffset(int position) {
+        return yOffsets[position];
+    }
+
+}
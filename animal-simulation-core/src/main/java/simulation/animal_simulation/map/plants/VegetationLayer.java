@@ -0,0 +1,403 @@
+package simulation.animal_simulation.map.plants;
+
+import org.jetbrains.annotations.NotNull;
+import simulation.animal_simulation.map.storage.CellStore;
+import simulation.animal_simulation.scheduling.TimingWheel;
+
+
+/**
+ * The VegetationLayer class holds the grass and the thick vegetation of the whole map.
+ * Instead of an object per plant it keeps the plant type, the quantity and the step of the next regrowth of every
+ * ground in a CellStore, indexed by ground id minus one.
+ * Grass has a quantity from 0 to 4. If its quantity exceeds 4, the grass is upgraded to thick vegetation.
+ * Thick vegetation has a quantity from 5 to 10. If its quantity drops below 5, it is downgraded to grass.
+ * Upgrades and downgrades only change the values in place.
+ *
+ * <p>A plant regrows 11 steps after it was planted or regrew for the last time, that is after it waited for
+ * 10 steps. Instead of counting the steps of every plant on every step, the layer schedules the next regrowth of
+ * a plant in a {@link TimingWheel}, and a regrowth step only visits the grounds whose regrowth is due.
+ * Thick vegetation with the maximum quantity spreads grass when its regrowth is due and then waits until it is
+ * eaten or one of its neighbouring grounds becomes available again.</p>
+ *
+ * <p>Waiting thick vegetation is off the wheel, so it is not visited again until it is eaten or one of its
+ * neighbouring grounds becomes available again, which schedules it for the next regrowth step. The plants whose
+ * neighbours all have a plant or a shelter are never visited, which in a mature map are almost all of them.</p>
+ *
+ * <p>In the {@link VegetationMode#Lazy lazy} mode a plant is not visited when it regrows. The store keeps the
+ * quantity and the regrowth step of the plant from the last time it was planted, eaten or spread, and the current
+ * quantity, type and regrowth step are computed from them when they are read, since a plant only changes by
+ * regrowing every 11 steps between those events. Only the step in which the plant reaches the maximum quantity and
+ * spreads is scheduled, and a plant that is eaten is first brought up to date. Both modes give the same results.</p>
+ *
+ * <p>The layer also counts the grounds with a scheduled regrowth per region (for example per chunk of the map),
+ * so regions whose plants cannot change any more can be found without visiting their grounds.</p>
+ *
+ * <p>Plants on different grounds can be eaten by several threads at once. Scheduling into the wheel and counting
+ * the regrowths of the regions is done under the lock of the wheel.</p>
+ */
+public class VegetationLayer {
+
+    private static final byte NoPlant = 0;
+    private static final byte GrassPlant = 1;
+    private static final byte ThickVegetationPlant = 2;
+
+    private static final int MaxGrassQuantity = 4;
+    private static final int MaxThickVegetationQuantity = 10;
+    private static final int StepsBeforeRegrowth = 10;
+
+    /**
+     * The regrowth step of the grounds whose plant does not regrow, because there is no plant or the plant is
+     * fully grown thick vegetation that has already spread.
+     */
+    private static final int NoRegrowth = 0;
+
+    @NotNull private final CellStore cellStore;
+    private final int size;
+    @NotNull private final VegetationMode mode;
+    @NotNull private final TimingWheel regrowthWheel = new TimingWheel(2, 0);
+
+    /**
+     * Creates a layer on top of the given cell store.
+     *
+     * @param cellStore The store keeping the state of the cells. Its plants must not have any regrowth scheduled.
+     * @param size Size of the map (number of grounds in one row or column).
+     * @param mode The way the plants are kept up to date.
+     */
+    public VegetationLayer(@NotNull CellStore cellStore, int size, @NotNull VegetationMode mode) {
+        this.cellStore = cellStore;
+        this.size = size;
+        this.mode = mode;
+    }
+
+
+    /**
+     * @return The number of grounds the layer covers.
+     */
+    public int getSize() {
+        return cellStore.getCellCount();
+    }
+
+    /**
+     * @return The number of regrowth steps done so far.
+     */
+    public int getStep() {
+        return regrowthWheel.getCurrentStep();
+    }
+
+    public boolean hasPlant(int index) {
+        return cellStore.getPlantType(index) != NoPlant;
+    }
+    public boolean hasGrass(int index) {
+        return getPlantType(index) == GrassPlant;
+    }
+    public boolean hasThickVegetation(int index) {
+        return getPlantType(index) == ThickVegetationPlant;
+    }
+
+    public @NotNull VegetationMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the current type of the plant on the ground. In the lazy mode the stored grass may have grown into
+     * thick vegetation since it was stored.
+     */
+    private byte getPlantType(int index) {
+        byte plantType = cellStore.getPlantType(index);
+        if (plantType == NoPlant || mode == VegetationMode.Eager) return plantType;
+        return getQuantity(index) > MaxGrassQuantity ? ThickVegetationPlant : GrassPlant;
+    }
+
+    /**
+     * Returns the number of times the plant on the ground has regrown since its state was stored.
+     * It is always 0 in the eager mode, where the stored state is updated on every regrowth.
+     */
+    private int getRegrowthCount(int index) {
+        int regrowthStep = cellStore.getRegrowthStep(index);
+        if (mode == VegetationMode.Eager || regrowthStep == NoRegrowth || getStep() < regrowthStep) return 0;
+
+        return Math.min(
+            (getStep() - regrowthStep) / (StepsBeforeRegrowth + 1) + 1,
+            MaxThickVegetationQuantity - cellStore.getPlantQuantity(index)
+        );
+    }
+
+    /**
+     * Returns the step in which the plant on the ground, stored with the given regrowth step, has the maximum
+     * quantity and spreads grass.
+     */
+    private int getSpreadStep(int index, int regrowthStep) {
+        return regrowthStep +
+            (MaxThickVegetationQuantity - cellStore.getPlantQuantity(index)) * (StepsBeforeRegrowth + 1);
+    }
+
+    /**
+     * Stores the current state of the plant on the ground, so it can be changed in place.
+     * The step in which the plant spreads does not change, so nothing is scheduled.
+     */
+    private void catchUp(int index) {
+        int regrowthCount = getRegrowthCount(index);
+        if (regrowthCount == 0) return;
+
+        int quantity = cellStore.getPlantQuantity(index) + regrowthCount;
+        int regrowthStep = cellStore.getRegrowthStep(index) + regrowthCount * (StepsBeforeRegrowth + 1);
+        cellStore.setPlantType(index, quantity > MaxGrassQuantity ? ThickVegetationPlant : GrassPlant);
+        cellStore.setPlantQuantity(index, (byte) quantity);
+        cellStore.setRegrowthStep(index, regrowthStep);
+    }
+
+    /**
+     * @return True if there is neither a plant nor a shelter on the ground.
+     */
+    public boolean isAvailableForPlant(int index) {
+        return !hasPlant(index) && !cellStore.hasShelter(index);
+    }
+
+    /**
+     * Returns the number of steps the plant on the ground has waited since it was planted or regrew for the last
+     * time, from 0 to 10.
+     *
+     * @param index The index of the ground.
+     *
+     * @return The number of steps after the last regrowth or 0 if there is no plant.
+     */
+    public int getStepsAfterRegrowth(int index) {
+        if (!hasPlant(index)) return 0;
+
+        int regrowthStep = cellStore.getRegrowthStep(index);
+        if (regrowthStep == NoRegrowth) return StepsBeforeRegrowth;
+
+        regrowthStep += getRegrowthCount(index) * (StepsBeforeRegrowth + 1);
+        return StepsBeforeRegrowth - (regrowthStep - getStep() - 1);
+    }
+
+    /**
+     * @return The quantity of the plant on the ground or 0 if there is no plant.
+     */
+    public int getQuantity(int index) {
+        return cellStore.getPlantQuantity(index) + getRegrowthCount(index);
+    }
+
+    /**
+     * Plants grass on the ground.
+     *
+     * @param index The index of the ground.
+     * @param quantity The initial quantity of the grass.
+     *
+     * @throws IllegalArgumentException If there already is a plant or a shelter on the ground or the quantity is
+     * more than 4.
+     */
+    public void plantGrass(int index, int quantity) {
+        if (!isAvailableForPlant(index) || quantity > MaxGrassQuantity) throw new IllegalArgumentException();
+        setPlant(index, GrassPlant, quantity);
+    }
+
+    /**
+     * Plants thick vegetation on the ground.
+     *
+     * @param index The index of the ground.
+     * @param quantity The initial quantity of the thick vegetation.
+     *
+     * @throws IllegalArgumentException If there already is a plant or a shelter on the ground or the quantity is
+     * less than 5.
+     */
+    public void plantThickVegetation(int index, int quantity) {
+        if (!isAvailableForPlant(index) || quantity <= MaxGrassQuantity) throw new IllegalArgumentException();
+        setPlant(index, ThickVegetationPlant, quantity);
+    }
+
+    /**
+     * Spreads grass with quantity 1 from the ground with fully grown thick vegetation to another ground during
+     * the current regrowth step. The grounds are regrown in the order of their indices, so grass spread to a
+     * ground after the source has already waited for one step at the end of the regrowth step and regrows one
+     * step earlier than grass spread to a ground before the source.
+     *
+     * @param sourceIndex The index of the ground with the thick vegetation.
+     * @param targetIndex The index of the ground the grass is spread to.
+     *
+     * @throws IllegalArgumentException If there already is a plant or a shelter on the target ground.
+     */
+    public void spreadGrass(int sourceIndex, int targetIndex) {
+        if (!isAvailableForPlant(targetIndex)) throw new IllegalArgumentException();
+
+        cellStore.setPlantType(targetIndex, GrassPlant);
+        cellStore.setPlantQuantity(targetIndex, (byte) 1);
+        int waitedSteps = targetIndex > sourceIndex ? 1 : 0;
+        setRegrowthStep(targetIndex, getStep() + StepsBeforeRegrowth + 1 - waitedSteps);
+    }
+
+    /**
+     * Removes the plant from the ground. Fully grown thick vegetation waiting on the neighbouring grounds is
+     * scheduled for the next regrowth step, so it spreads grass to the ground again.
+     *
+     * @param index The index of the ground.
+     */
+    public void removePlant(int index) {
+        setPlant(index, NoPlant, 0);
+
+        int x = index % size;
+        if (index >= size) resumeRegrowth(index - size);
+        if (x < size - 1) resumeRegrowth(index + 1);
+        if (index + size < size * size) resumeRegrowth(index + size);
+        if (x > 0) resumeRegrowth(index - 1);
+    }
+
+    /**
+     * @return True if the ground has fully grown thick vegetation that has already spread and waits.
+     */
+    private boolean isWaiting(int index) {
+        return cellStore.getPlantType(index) == ThickVegetationPlant &&
+            cellStore.getRegrowthStep(index) == NoRegrowth;
+    }
+
+    /**
+     * Schedules the thick vegetation on the ground for the next regrowth step if it has already spread and waits,
+     * so it regrows after it has been eaten or spreads after a neighbouring ground has become available.
+     */
+    private void resumeRegrowth(int index) {
+        if (isWaiting(index)) setRegrowthStep(index, getStep() + 1);
+    }
+
+    /**
+     * Sets the plant of the ground. A new plant regrows after it waits for 10 steps.
+     */
+    private void setPlant(int index, byte plantType, int quantity) {
+        cellStore.setPlantType(index, plantType);
+        cellStore.setPlantQuantity(index, (byte) quantity);
+        setRegrowthStep(index, plantType == NoPlant ? NoRegrowth : getStep() + StepsBeforeRegrowth + 1);
+    }
+
+    /**
+     * Sets the quantity of the plant on the ground without changing its regrowth step.
+     * In the lazy mode the plant reaches the maximum quantity in another step, so its spread is scheduled again.
+     */
+    private void setQuantity(int index, int quantity) {
+        cellStore.setPlantQuantity(index, (byte) quantity);
+
+        int regrowthStep = cellStore.getRegrowthStep(index);
+        if (mode == VegetationMode.Lazy && regrowthStep != NoRegrowth) {
+            synchronized (regrowthWheel) {
+                regrowthWheel.schedule(index, getSpreadStep(index, regrowthStep));
+            }
+        }
+    }
+
+    /**
+     * Sets the step in which the plant on the ground regrows and schedules the regrowth, or in the lazy mode the
+     * spread of the plant. A regrowth scheduled before stays in the wheel and is ignored when it is due.
+     */
+    private void setRegrowthStep(int index, int regrowthStep) {
+        cellStore.setRegrowthStep(index, regrowthStep);
+        if (regrowthStep == NoRegrowth) return;
+
+        synchronized (regrowthWheel) {
+            regrowthWheel.schedule(
+                index,
+                mode == VegetationMode.Eager ? regrowthStep : getSpreadStep(index, regrowthStep)
+            );
+        }
+    }
+
+    /**
+     * @return True if the plant on the ground can be eaten, which is thick vegetation or grass with some quantity
+     * left.
+     */
+    public boolean canEat(int index) {
+        byte plantType = getPlantType(index);
+        return plantType == ThickVegetationPlant || plantType == GrassPlant && getQuantity(index) > 0;
+    }
+
+    /**
+     * Decreases the quantity of the plant on the ground by 1.
+     * Grass can only be eaten while there is some left. If the quantity of thick vegetation drops below 5,
+     * it is downgraded to grass. Thick vegetation that has already spread regrows in the next regrowth step.
+     *
+     * @param index The index of the ground.
+     *
+     * @return True if the plant could be eaten, false otherwise.
+     */
+    public boolean eat(int index) {
+        if (mode == VegetationMode.Lazy) catchUp(index);
+
+        byte plantType = cellStore.getPlantType(index);
+        byte quantity = cellStore.getPlantQuantity(index);
+
+        if (plantType == GrassPlant) {
+            if (quantity == 0) return false;
+            setQuantity(index, quantity - 1);
+            return true;
+        } else if (plantType == ThickVegetationPlant) {
+            if (quantity - 1 <= MaxGrassQuantity) {
+                setPlant(index, GrassPlant, MaxGrassQuantity);
+            } else {
+                setQuantity(index, quantity - 1);
+                resumeRegrowth(index);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Starts the next regrowth step and collects the grounds whose regrowth may be due in it. The grounds can be
+     * read by {@link #getDueIndex} in ascending order and should be passed to {@link #regrow} in that order.
+     *
+     * @return The number of grounds.
+     */
+    public int startRegrowthStep() {
+        return regrowthWheel.advance();
+    }
+
+    /**
+     * @param position The position from 0 to the number returned by the last {@link #startRegrowthStep()} - 1.
+     *
+     * @return The index of the ground at the position.
+     */
+    public int getDueIndex(int position) {
+        return regrowthWheel.getDuePayload(position);
+    }
+
+    /**
+     * Regrows the plant on the ground if its regrowth is due in the current regrowth step.
+     * Grass which quantity exceeds 4 is upgraded to thick vegetation. Thick vegetation stops growing when its
+     * quantity reaches 10 and spreads grass instead. In the lazy mode only the spread is ever due.
+     *
+     * @param index The index of the ground.
+     *
+     * @return True if the plant is fully grown thick vegetation which should spread to the neighbouring grounds.
+     */
+    public boolean regrow(int index) {
+        if (mode == VegetationMode.Lazy) return tryToSpread(index);
+        if (cellStore.getRegrowthStep(index) != getStep()) return false;
+
+        byte plantType = cellStore.getPlantType(index);
+        byte quantity = cellStore.getPlantQuantity(index);
+
+        if (plantType == GrassPlant) {
+            setPlant(index, quantity + 1 > MaxGrassQuantity ? ThickVegetationPlant : GrassPlant, quantity + 1);
+        } else if (quantity < MaxThickVegetationQuantity) {
+            setPlant(index, ThickVegetationPlant, quantity + 1);
+        } else {
+            setRegrowthStep(index, NoRegrowth);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stores the plant on the ground as fully grown thick vegetation that waits if it spreads in the current
+     * regrowth step in the lazy mode.
+     *
+     * @return True if the plant spreads in the current regrowth step.
+     */
+    private boolean tryToSpread(int index) {
+        int regrowthStep = cellStore.getRegrowthStep(index);
+        if (regrowthStep == NoRegrowth || getSpreadStep(index, regrowthStep) != getStep()) return false;
+
+        cellStore.setPlantType(index, ThickVegetationPlant);
+        cellStore.setPlantQuantity(index, (byte) MaxThickVegetationQuantity);
+        setRegrowthStep(index, NoRegrowth);
+        return true;
+    }
+
+}
@@ -0,0 +1,10 @@
+package simulation.animal_simulation.map.plants;
+
+/**
+ * Represents the way the vegetation layer keeps the plants up to date.
+ * Eager regrows every plant in the step its regrowth is due. Lazy keeps the quantity of a plant from the last time
+ * it was changed and computes its current quantity when it is read, so a plant is only visited when it spreads.
+ */
+public enum VegetationMode {
+    Eager, Lazy
+}
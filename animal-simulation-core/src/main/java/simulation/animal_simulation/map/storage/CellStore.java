@@ -0,0 +1,41 @@
+package simulation.animal_simulation.map.storage;
+
+/**
+ * The CellStore interface describes the storage of the per-cell state of the map.
+ * Every cell is addressed by its index, which is the id of its ground minus one.
+ * The state of a cell consists of its plant type, plant quantity, the step in which the plant regrows next
+ * (0 if no regrowth is scheduled), a flag indicating a shelter and the handle of the animal occupying the cell
+ * (0 if the cell is not occupied).
+ *
+ * <p>Implementations decide where the state lives, so the same simulation logic can run on the Java heap
+ * or on a memory-mapped file.</p>
+ */
+public interface CellStore extends AutoCloseable {
+
+    /**
+     * @return The number of cells in the store.
+     */
+    int getCellCount();
+
+    byte getPlantType(int index);
+    void setPlantType(int index, byte plantType);
+
+    byte getPlantQuantity(int index);
+    void setPlantQuantity(int index, byte quantity);
+
+    int getRegrowthStep(int index);
+    void setRegrowthStep(int index, int step);
+
+    boolean hasShelter(int index);
+    void setShelter(int index, boolean hasShelter);
+
+    int getOccupant(int index);
+    void setOccupant(int index, int occupantHandle);
+
+    /**
+     * Releases the resources held by the store.
+     */
+    @Override
+    void close();
+
+}
@@ -0,0 +1,14 @@
+package simulation.animal_simulation.map.storage;
+
+/**
+ * Represents the storage backend of the cell state of the map.
+ * Heap keeps the cell state in Java arrays, MappedFile keeps it in a memory-mapped file.
+ *
+ * <p>MappedFile only moves the cell records (12 bytes per ground) out of the Java heap. With either backend the
+ * shelter flow fields keep two int arrays per ground for every species on the heap, 16 bytes per ground for rabbits
+ * and foxes, and the occupancy bitsets take about one more byte per ground. The summed-area tables of the occupancy
+ * only take heap for the chunks that have had animals.</p>
+ */
+public enum GridBackend {
+    Heap, MappedFile
+}
@@ -0,0 +1,139 @@
+package simulation.animal_simulation.map.storage;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * The HeapCellStore class keeps the state of the cells in parallel primitive arrays on the Java heap.
+ * The cells are split into pages of 4096 consecutive cells. A page is only allocated when a non-empty value is
+ * written into one of its cells, so the empty parts of a sparse map take no memory.
+ * Pages are published atomically, so threads writing different cells of the same page share a single page.
+ */
+public class HeapCellStore implements CellStore {
+
+    private static final int PageCellsShift = 12;
+    private static final int PageCellsMask = (1 << PageCellsShift) - 1;
+    private static final VarHandle PageArrayElement = MethodHandles.arrayElementVarHandle(Page[].class);
+
+    /**
+     * The state of the cells of a single page.
+     */
+    private static final class Page {
+        private final byte[] plantTypes = new byte[1 << PageCellsShift];
+        private final byte[] plantQuantities = new byte[1 << PageCellsShift];
+        private final int[] regrowthSteps = new int[1 << PageCellsShift];
+        private final boolean[] shelters = new boolean[1 << PageCellsShift];
+        private final int[] occupants = new int[1 << PageCellsShift];
+    }
+
+    private final int cellCount;
+    private final Page[] pages;
+
+    /**
+     * Creates a store with empty cells.
+     *
+     * @param cellCount The number of cells in the store.
+     */
+    public HeapCellStore(int cellCount) {
+        this.cellCount = cellCount;
+        this.pages = new Page[(cellCount + PageCellsMask) >>> PageCellsShift];
+    }
+
+
+    private Page getPage(int index) {
+        return (Page) PageArrayElement.getAcquire(pages, index >>> PageCellsShift);
+    }
+
+    /**
+     * Returns the page of the cell, allocating it if it does not exist yet.
+     *
+     * @param index The index of the cell.
+     *
+     * @return The page containing the cell.
+     */
+    private Page getOrCreatePage(int index) {
+        Page page = getPage(index);
+        if (page == null) {
+            Page newPage = new Page();
+            page = (Page) PageArrayElement.compareAndExchange(pages, index >>> PageCellsShift, null, newPage);
+            if (page == null) page = newPage;
+        }
+        return page;
+    }
+
+    /**
+     * @return The number of pages that have been allocated.
+     */
+    public int getAllocatedPageCount() {
+        int allocatedPageCount = 0;
+        for (Page page : pages) {
+            if (page != null) allocatedPageCount++;
+        }
+        return allocatedPageCount;
+    }
+
+    @Override
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    @Override
+    public byte getPlantType(int index) {
+        Page page = getPage(index);
+        return page != null ? page.plantTypes[index & PageCellsMask] : 0;
+    }
+    @Override
+    public void setPlantType(int index, byte plantType) {
+        if (plantType == 0 && getPage(index) == null) return;
+        getOrCreatePage(index).plantTypes[index & PageCellsMask] = plantType;
+    }
+
+    @Override
+    public byte getPlantQuantity(int index) {
+        Page page = getPage(index);
+        return page != null ? page.plantQuantities[index & PageCellsMask] : 0;
+    }
+    @Override
+    public void setPlantQuantity(int index, byte quantity) {
+        if (quantity == 0 && getPage(index) == null) return;
+        getOrCreatePage(index).plantQuantities[index & PageCellsMask] = quantity;
+    }
+
+    @Override
+    public int getRegrowthStep(int index) {
+        Page page = getPage(index);
+        return page != null ? page.regrowthSteps[index & PageCellsMask] : 0;
+    }
+    @Override
+    public void setRegrowthStep(int index, int step) {
+        if (step == 0 && getPage(index) == null) return;
+        getOrCreatePage(index).regrowthSteps[index & PageCellsMask] = step;
+    }
+
+    @Override
+    public boolean hasShelter(int index) {
+        Page page = getPage(index);
+        return page != null && page.shelters[index & PageCellsMask];
+    }
+    @Override
+    public void setShelter(int index, boolean hasShelter) {
+        if (!hasShelter && getPage(index) == null) return;
+        getOrCreatePage(index).shelters[index & PageCellsMask] = hasShelter;
+    }
+
+    @Override
+    public int getOccupant(int index) {
+        Page page = getPage(index);
+        return page != null ? page.occupants[index & PageCellsMask] : 0;
+    }
+    @Override
+    public void setOccupant(int index, int occupantHandle) {
+        if (occupantHandle == 0 && getPage(index) == null) return;
+        getOrCreatePage(index).occupants[index & PageCellsMask] = occupantHandle;
+    }
+
+    @Override
+    public void close() {
+    }
+
+}
@@ -0,0 +1,185 @@
+package simulation.animal_simulation.map.storage;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The MappedCellStore class keeps the state of the cells in a memory-mapped file, so maps with more cells than
+ * fit into the Java heap can be simulated. The operating system pages the parts of the file in and out as needed.
+ *
+ * <p>Every cell is stored as a fixed record of 12 bytes: plant type, plant quantity, flags, one unused byte,
+ * the occupant handle and the regrowth step. A single mapping is limited to 2 GiB, so the file is mapped in
+ * segments of 2^27 cells.</p>
+ */
+public class MappedCellStore implements CellStore {
+
+    private static final int CellBytes = 12;
+    private static final int PlantTypeOffset = 0;
+    private static final int PlantQuantityOffset = 1;
+    private static final int FlagsOffset = 2;
+    private static final int OccupantOffset = 4;
+    private static final int RegrowthStepOffset = 8;
+
+    private static final byte ShelterFlag = 1;
+
+    private static final int SegmentCellsShift = 27;
+    private static final int SegmentCellsMask = (1 << SegmentCellsShift) - 1;
+
+    private final int cellCount;
+    @NotNull private final Path file;
+    /**
+     * True if the store created the file itself and deletes it when it is closed.
+     */
+    private final boolean isTemporaryFile;
+    @NotNull private final FileChannel channel;
+    @NotNull private final MappedByteBuffer[] segments;
+
+    /**
+     * Creates a store with empty cells in a temporary file that is deleted when the store is closed.
+     *
+     * @param cellCount The number of cells in the store.
+     *
+     * @throws IOException If the file could not be created or mapped.
+     */
+    public MappedCellStore(int cellCount) throws IOException {
+        this(cellCount, Files.createTempFile("animal_simulation_cells", ".bin"), true);
+    }
+
+    /**
+     * Creates a store with empty cells in the given file. The previous content of the file is discarded.
+     *
+     * @param cellCount The number of cells in the store.
+     * @param file The file the cells are mapped to.
+     *
+     * @throws IOException If the file could not be opened or mapped.
+     */
+    public MappedCellStore(int cellCount, @NotNull Path file) throws IOException {
+        this(cellCount, file, false);
+    }
+
+    private MappedCellStore(int cellCount, @NotNull Path file, boolean isTemporaryFile) throws IOException {
+        this.cellCount = cellCount;
+        this.file = file;
+        this.isTemporaryFile = isTemporaryFile;
+        this.channel = FileChannel.open(
+            file,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING
+        );
+
+        int segmentCount = (int) (((long) cellCount + SegmentCellsMask) >>> SegmentCellsShift);
+        segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long firstCell = (long) i << SegmentCellsShift;
+            long segmentCells = Math.min(1L << SegmentCellsShift, cellCount - firstCell);
+            segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, firstCell * CellBytes, segmentCells * CellBytes);
+        }
+    }
+
+
+    private MappedByteBuffer getSegment(int index) {
+        return segments[index >>> SegmentCellsShift];
+    }
+
+    private int getOffset(int index, int fieldOffset) {
+        return (index & SegmentCellsMask) * CellBytes + fieldOffset;
+    }
+
+    public @NotNull Path getFile() {
+        return file;
+    }
+
+    @Override
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    @Override
+    public byte getPlantType(int index) {
+        return getSegment(index).get(getOffset(index, PlantTypeOffset));
+    }
+    @Override
+    public void setPlantType(int index, byte plantType) {
+        getSegment(index).put(getOffset(index, PlantTypeOffset), plantType);
+    }
+
+    @Override
+    public byte getPlantQuantity(int index) {
+        return getSegment(index).get(getOffset(index, PlantQuantityOffset));
+    }
+    @Override
+    public void setPlantQuantity(int index, byte quantity) {
+        getSegment(index).put(getOffset(index, PlantQuantityOffset), quantity);
+    }
+
+    @Override
+    public int getRegrowthStep(int index) {
+        return getSegment(index).getInt(getOffset(index, RegrowthStepOffset));
+    }
+    @Override
+    public void setRegrowthStep(int index, int step) {
+        getSegment(index).putInt(getOffset(index, RegrowthStepOffset), step);
+    }
+
+    @Override
+    public boolean hasShelter(int index) {
+        return (getSegment(index).get(getOffset(index, FlagsOffset)) & ShelterFlag) != 0;
+    }
+    @Override
+    public void setShelter(int index, boolean hasShelter) {
+        MappedByteBuffer segment = getSegment(index);
+        int offset = getOffset(index, FlagsOffset);
+        byte flags = segment.get(offset);
+        segment.put(offset, (byte) (hasShelter ? flags | ShelterFlag : flags & ~ShelterFlag));
+    }
+
+    @Override
+    public int getOccupant(int index) {
+        return getSegment(index).getInt(getOffset(index, OccupantOffset));
+    }
+    @Override
+    public void setOccupant(int index, int occupantHandle) {
+        getSegment(index).putInt(getOffset(index, OccupantOffset), occupantHandle);
+    }
+
+    /**
+     * Writes the mapped cells to the file and closes it. A temporary file is not written but deleted, so batch runs
+     * that create many stores do not keep their files until the JVM exits. If the operating system does not allow
+     * deleting a file that is still mapped, the file is deleted when the JVM exits instead.
+     */
+    @Override
+    public void close() {
+        try {
+            if (isTemporaryFile) {
+                channel.close();
+                deleteTemporaryFile();
+                return;
+            }
+
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteTemporaryFile() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package simulation.animal_simulation.random;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The CounterRandom class is a counter-based random number generator. A number is not drawn from a shared
+ * state that changes with every draw, but computed by hashing the seed together with the stream, the step and
+ * the id of the entity or cell it is drawn for. The same key always gives the same number, so the threads never
+ * contend for the generator and the results do not depend on the order in which the numbers are drawn.
+ *
+ * <p>The hash is the finalizer of SplitMix64 applied to each part of the key in turn. A generator can be split
+ * into independent generators, for example one for each run of a simulation with the same seed.</p>
+ */
+public final class CounterRandom {
+
+    private static final long GoldenGamma = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+
+    /**
+     * Creates a generator with the given seed.
+     *
+     * @param seed The seed of the generator.
+     */
+    public CounterRandom(long seed) {
+        this.seed = seed;
+    }
+
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns an independent generator derived from this one.
+     *
+     * @param key The key of the new generator, for example the number of a run.
+     *
+     * @return The generator for the key.
+     */
+    public @NotNull CounterRandom split(long key) {
+        return new CounterRandom(mix(mix(seed + GoldenGamma) + key));
+    }
+
+    /**
+     * Returns the random number for the given key.
+     *
+     * @param stream The purpose the number is drawn for.
+     * @param step The step the number is drawn in.
+     * @param id The id of the entity or cell the number is drawn for, or a counter.
+     *
+     * @return A uniformly distributed 64-bit number.
+     */
+    public long getLong(@NotNull RandomStream stream, long step, long id) {
+        long hash = mix(seed + (stream.ordinal() + 1) * GoldenGamma);
+        hash = mix(hash + step * GoldenGamma);
+        return mix(hash + id * GoldenGamma);
+    }
+
+    /**
+     * Returns the random number for the given key, see {@link #getLong}.
+     *
+     * @return A uniformly distributed number from 0 inclusive to 1 exclusive.
+     */
+    public double getDouble(@NotNull RandomStream stream, long step, long id) {
+        return (getLong(stream, step, id) >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Returns the random number for the given key, see {@link #getLong}.
+     *
+     * @param bound The upper bound of the number.
+     *
+     * @return A uniformly distributed number from 0 inclusive to the bound exclusive.
+     *
+     * @throws IllegalArgumentException If the bound is not positive.
+     */
+    public int getInt(@NotNull RandomStream stream, long step, long id, int bound) {
+        if (bound <= 0) throw new IllegalArgumentException();
+
+        return (int) (((getLong(stream, step, id) >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * The finalizer of SplitMix64, which is a bijection that mixes every bit of the input into every bit of the
+     * output.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
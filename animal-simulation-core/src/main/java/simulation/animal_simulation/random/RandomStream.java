@@ -0,0 +1,10 @@
+package simulation.animal_simulation.random;
+
+/**
+ * Represents the purpose random numbers are drawn for. Every purpose gets its own independent stream of numbers,
+ * so drawing more numbers for one purpose does not change the numbers drawn for the others.
+ * PlantPlacement places the plants when the map is generated, BabySex decides the sex of a newborn animal.
+ */
+public enum RandomStream {
+    PlantPlacement, BabySex
+}
@@ -0,0 +1,174 @@
+package simulation.animal_simulation.scheduling;
+
+import java.util.Arrays;
+
+/**
+ * The TimingWheel class schedules integer payloads (for example indices of grounds) for future simulation steps.
+ * It is a hierarchical timing wheel: level 0 has a slot for each of the next 64 steps, level 1 a slot for each of
+ * the next 64 blocks of 64 steps and so on. When the current step enters a new block, the payloads of the block are
+ * moved down to the slots of the lower level. Payloads scheduled further than the top level reaches are kept in an
+ * overflow list until they get in reach.
+ *
+ * <p>Scheduling a payload and advancing by one step take constant time per payload, independent of the number of
+ * payloads that are not due yet. The same payload can be scheduled more than once; the wheel does not deduplicate
+ * payloads, so the caller has to ignore payloads that are no longer due.</p>
+ */
+public class TimingWheel {
+
+    private static final int SlotShift = 6;
+    private static final int SlotCount = 1 << SlotShift;
+    private static final int SlotMask = SlotCount - 1;
+
+    /**
+     * The payloads scheduled into a slot together with their steps.
+     */
+    private static final class Slot {
+        private int[] payloads = new int[4];
+        private int[] steps = new int[4];
+        private int size = 0;
+
+        private void add(int payload, int step) {
+            if (size == payloads.length) {
+                payloads = Arrays.copyOf(payloads, size * 2);
+                steps = Arrays.copyOf(steps, size * 2);
+            }
+            payloads[size] = payload;
+            steps[size] = step;
+            size++;
+        }
+    }
+
+    private final int levelCount;
+    private final Slot[][] levels;
+    private final Slot overflow = new Slot();
+    private int currentStep;
+    private int scheduledCount = 0;
+
+    private int[] duePayloads = new int[16];
+    private int dueCount = 0;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param levelCount The number of levels. The levels reach 64 ^ levelCount steps ahead.
+     * @param currentStep The step the wheel starts at.
+     *
+     * @throws IllegalArgumentException If the number of levels is not from 1 to 5.
+     */
+    public TimingWheel(int levelCount, int currentStep) {
+        if (levelCount < 1 || levelCount * SlotShift >= Integer.SIZE) throw new IllegalArgumentException();
+
+        this.levelCount = levelCount;
+        this.levels = new Slot[levelCount][SlotCount];
+        this.currentStep = currentStep;
+    }
+
+
+    public int getCurrentStep() {
+        return currentStep;
+    }
+
+    /**
+     * @return The number of payloads that are scheduled and not yet returned as due.
+     */
+    public int getScheduledCount() {
+        return scheduledCount;
+    }
+
+    /**
+     * Schedules the payload for the given step.
+     *
+     * @param payload The payload.
+     * @param step The step in which the payload is due.
+     *
+     * @throws IllegalArgumentException If the step is not after the current step.
+     */
+    public void schedule(int payload, int step) {
+        if (step <= currentStep) throw new IllegalArgumentException();
+
+        place(payload, step);
+        scheduledCount++;
+    }
+
+    /**
+     * Puts the payload into the slot of the lowest level whose block of steps contains both the current step and
+     * the step of the payload.
+     */
+    private void place(int payload, int step) {
+        for (int level = 0; level < levelCount; level++) {
+            int shift = SlotShift * (level + 1);
+            if (step >>> shift == currentStep >>> shift) {
+                getSlot(level, (step >>> (SlotShift * level)) & SlotMask).add(payload, step);
+                return;
+            }
+        }
+        overflow.add(payload, step);
+    }
+
+    private Slot getSlot(int level, int slotIndex) {
+        Slot slot = levels[level][slotIndex];
+        if (slot == null) {
+            slot = new Slot();
+            levels[level][slotIndex] = slot;
+        }
+        return slot;
+    }
+
+    /**
+     * Moves on to the next step and collects the payloads scheduled for it.
+     * The payloads can be read by {@link #getDuePayload} in ascending order until the next call.
+     *
+     * @return The number of payloads due in the new current step.
+     */
+    public int advance() {
+        currentStep++;
+
+        if ((currentStep & ((1 << (SlotShift * levelCount)) - 1)) == 0) cascade(overflow);
+        for (int level = levelCount - 1; level > 0; level--) {
+            if ((currentStep & ((1 << (SlotShift * level)) - 1)) == 0) {
+                Slot slot = levels[level][(currentStep >>> (SlotShift * level)) & SlotMask];
+                if (slot != null) cascade(slot);
+            }
+        }
+
+        dueCount = 0;
+        Slot slot = levels[0][currentStep & SlotMask];
+        if (slot != null && slot.size > 0) {
+            if (duePayloads.length < slot.size) duePayloads = new int[Math.max(slot.size, duePayloads.length * 2)];
+            System.arraycopy(slot.payloads, 0, duePayloads, 0, slot.size);
+            dueCount = slot.size;
+            slot.size = 0;
+            Arrays.sort(duePayloads, 0, dueCount);
+        }
+
+        scheduledCount -= dueCount;
+        return dueCount;
+    }
+
+    /**
+     * Moves the payloads of the slot to the slots of the lower levels.
+     */
+    private void cascade(Slot slot) {
+        int size = slot.size;
+        int[] payloads = slot.payloads;
+        int[] steps = slot.steps;
+        slot.payloads = new int[4];
+        slot.steps = new int[4];
+        slot.size = 0;
+
+        for (int i = 0; i < size; i++) {
+            place(payloads[i], steps[i]);
+        }
+    }
+
+    /**
+     * @param position The position from 0 to the number returned by the last {@link #advance()} - 1.
+     *
+     * @return The due payload at the position.
+     */
+    public int getDuePayload(int position) {
+        if (position < 0 || position >= dueCount) throw new IndexOutOfBoundsException(position);
+        return duePayloads[position];
+    }
+
+}
@@ -0,0 +1,19 @@
+package simulation.animal_simulation.statistics;
+
+/**
+ * Represents an estimate of a value together with the interval the value lies in with the chosen confidence.
+ *
+ * @param estimate The estimate of the value.
+ * @param lower The lower bound of the interval.
+ * @param upper The upper bound of the interval.
+ */
+public record ConfidenceInterval(double estimate, double lower, double upper) {
+
+    /**
+     * @return Half of the width of the interval, which is the precision of the estimate.
+     */
+    public double getHalfWidth() {
+        return (upper - lower) / 2;
+    }
+
+}
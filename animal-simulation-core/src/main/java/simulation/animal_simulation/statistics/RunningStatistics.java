@@ -0,0 +1,82 @@
+package simulation.animal_simulation.statistics;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The RunningStatistics class keeps the mean and the variance of a stream of values without keeping the values.
+ * It uses the algorithm of Welford, which updates the mean and the sum of the squared differences from the mean with
+ * every value, so the variance does not lose its precision when the values are large and close to each other.
+ *
+ * <p>The confidence intervals use the normal approximation for the mean of any values and the Wilson score
+ * interval for the share of values that are 1 when all the values are 0 or 1. The Wilson interval keeps a sensible
+ * width when the share is close to 0 or 1, where the normal approximation claims a width of 0.</p>
+ */
+public class RunningStatistics {
+
+    /**
+     * The quantile of the standard normal distribution for 95 % confidence.
+     */
+    public static final double Z95 = 1.959963984540054;
+
+    private long count = 0;
+    private double mean = 0;
+    private double squaredDifferenceSum = 0;
+
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return The sample variance of the values, or infinity if there are less than 2 values.
+     */
+    public double getVariance() {
+        return count > 1 ? squaredDifferenceSum / (count - 1) : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Adds the value to the statistics.
+     *
+     * @param value The value.
+     */
+    public void add(double value) {
+        count++;
+        double difference = value - mean;
+        mean += difference / count;
+        squaredDifferenceSum += difference * (value - mean);
+    }
+
+    /**
+     * Returns the confidence interval of the mean of the values using the normal approximation.
+     *
+     * @param z The quantile of the standard normal distribution for the confidence, for example {@link #Z95}.
+     *
+     * @return The interval, which is infinitely wide if there are less than 2 values.
+     */
+    public @NotNull ConfidenceInterval getNormalInterval(double z) {
+        double halfWidth = z * Math.sqrt(getVariance() / count);
+        return new ConfidenceInterval(mean, mean - halfWidth, mean + halfWidth);
+    }
+
+    /**
+     * Returns the Wilson score interval of the share of values that are 1. All the values have to be 0 or 1.
+     *
+     * @param z The quantile of the standard normal distribution for the confidence, for example {@link #Z95}.
+     *
+     * @return The interval, which is from 0 to 1 if there are no values.
+     */
+    public @NotNull ConfidenceInterval getWilsonInterval(double z) {
+        if (count == 0) return new ConfidenceInterval(0, 0, 1);
+
+        double zSquaredPerCount = z * z / count;
+        double center = (mean + zSquaredPerCount / 2) / (1 + zSquaredPerCount);
+        double halfWidth = z / (1 + zSquaredPerCount) *
+            Math.sqrt(mean * (1 - mean) / count + zSquaredPerCount / (4 * count));
+        return new ConfidenceInterval(mean, Math.max(0, center - halfWidth), Math.min(1, center + halfWidth));
+    }
+
+}
@@ -0,0 +1,76 @@
+package simulation.animal_simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeadlessSimulationTest {
+
+    static SimulationSettings createSettings(List<Integer> rabbitShelterIds, List<Integer> foxShelterIds) {
+        SimulationSettings simulationSettings = new SimulationSettings();
+        simulationSettings.setMapSize(20);
+        simulationSettings.setGrassAmount(40);
+        simulationSettings.setThickVegetationAmount(20);
+        simulationSettings.setRabbitShelterIds(rabbitShelterIds);
+        simulationSettings.setFoxShelterIds(foxShelterIds);
+        simulationSettings.setLogsEnabled(false);
+        simulationSettings.setSeed(42);
+        return simulationSettings;
+    }
+
+    @Test
+    void stopAfterMaxStepCount() throws IllegalAccessException, IOException {
+        SimulationSettings simulationSettings = createSettings(List.of(45, 255), List.of(150));
+        ArrayList<Integer> rabbitCounts = new ArrayList<>();
+
+        HeadlessSimulation.Result result = HeadlessSimulation.run(
+            simulationSettings, 5, map -> rabbitCounts.add(map.getRabbitCount())
+        );
+
+        assertEquals(5, result.stepCount());
+        assertEquals(6, rabbitCounts.size());
+        assertEquals(6, rabbitCounts.getFirst());
+        assertEquals(rabbitCounts.getLast(), result.rabbitCount());
+
+        HeadlessSimulation.Result repeatedResult = HeadlessSimulation.run(simulationSettings, 5);
+        assertEquals(result.rabbitCount(), repeatedResult.rabbitCount());
+        assertEquals(result.foxCount(), repeatedResult.foxCount());
+        assertEquals(result.grassQuantity(), repeatedResult.grassQuantity());
+    }
+
+    @Test
+    void stopWhenNoAnimalIsAlive() throws IllegalAccessException, IOException {
+        HeadlessSimulation.Result emptyResult = HeadlessSimulation.run(createSettings(List.of(), List.of()), 100);
+        assertEquals(0, emptyResult.stepCount());
+        assertEquals(0, emptyResult.getStepsPerSecond());
+
+        HeadlessSimulation.Result result = HeadlessSimulation.run(createSettings(List.of(), List.of(150)), 10_000);
+        assertTrue(result.stepCount() > 0 && result.stepCount() < 10_000);
+        assertEquals(0, result.rabbitCount());
+        assertEquals(0, result.foxCount());
+    }
+
+    @Test
+    void readSettingsOrFailOnMissingFile(@TempDir Path tempDir) throws IOException {
+        SimulationSettings simulationSettings = new SimulationSettings();
+        assertThrows(
+            IOException.class,
+            () -> simulationSettings.readSimulationSettingsFromFile(tempDir.resolve("missing.json").toString())
+        );
+
+        Path file = tempDir.resolve("settings.json");
+        Files.writeString(file, "{\"mapSize\": 30, \"rabbitShelterIds\": [1, 2], \"seed\": 7}");
+        simulationSettings.readSimulationSettingsFromFile(file.toString());
+        assertEquals(30, simulationSettings.mapSize);
+        assertEquals(List.of(1, 2), simulationSettings.rabbitShelterIds);
+        assertEquals(7, simulationSettings.seed);
+    }
+
+}
@@ -0,0 +1,109 @@
+package simulation.animal_simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParameterSweepTest {
+
+    @Test
+    void createGridOfIndependentVariants() {
+        SimulationSettings baseSettings = HeadlessSimulationTest.createSettings(List.of(45), List.of(150));
+
+        List<SimulationSettings> variants = ParameterSweep.createGrid(
+            baseSettings, List.of(10, 40), List.of(5),
+            List.of(List.of(List.of(45), List.of(150)), List.of(List.of(45, 255), List.of()))
+        );
+
+        assertEquals(4, variants.size());
+        assertEquals(10, variants.get(1).grassAmount);
+        assertEquals(List.of(45, 255), variants.get(1).rabbitShelterIds);
+        assertEquals(40, variants.get(2).grassAmount);
+        assertEquals(List.of(150), variants.get(2).foxShelterIds);
+        assertEquals(5, variants.get(3).thickVegetationAmount);
+
+        SimulationSettings copy = baseSettings.copy();
+        copy.rabbitShelterIds.add(255);
+        assertEquals(List.of(45), baseSettings.rabbitShelterIds);
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> ParameterSweep.createGrid(baseSettings, List.of(10), List.of(5), List.of(List.of(List.of(45))))
+        );
+    }
+
+    @Test
+    void writeOneRowPerRun(@TempDir Path tempDir) throws IOException, InterruptedException {
+        SimulationSettings baseSettings = HeadlessSimulationTest.createSettings(List.of(45), List.of(150));
+        List<SimulationSettings> variants = new ArrayList<>(ParameterSweep.createGrid(
+            baseSettings, List.of(10, 40), List.of(5),
+            List.of(List.of(List.of(45), List.of(150)), List.of(List.of(45, 255), List.of()))
+        ));
+        SimulationSettings invalidVariant = baseSettings.copy();
+        invalidVariant.setRabbitShelterIds(List.of(1000));
+        variants.add(invalidVariant);
+        Path resultFile = tempDir.resolve("result.csv");
+
+        ParameterSweep sweep = new ParameterSweep(variants, List.of(1L, 2L), 5, 3);
+        sweep.run(resultFile);
+
+        List<String> lines = Files.readAllLines(resultFile);
+        String[] header = lines.getFirst().split(",");
+        assertEquals("run", header[0]);
+        assertEquals("error", header[header.length - 1]);
+        assertEquals(sweep.getRunCount() + 1, lines.size());
+
+        HashSet<String> runNumbers = new HashSet<>();
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> columns = splitColumns(line);
+            assertEquals(header.length, columns.size(), line);
+            runNumbers.add(columns.getFirst());
+
+            boolean isInvalidVariant = columns.get(1).equals("4");
+            assertEquals(isInvalidVariant, !columns.getLast().isEmpty(), line);
+            assertEquals(isInvalidVariant, columns.get(8).isEmpty(), line);
+            if (!isInvalidVariant) assertEquals("5", columns.get(8));
+        }
+        assertEquals(sweep.getRunCount(), runNumbers.size());
+    }
+
+    /**
+     * Splits the line of a CSV file into its columns, keeping commas in quoted columns and unescaping the quotes.
+     */
+    private static List<String> splitColumns(String line) {
+        ArrayList<String> columns = new ArrayList<>();
+        StringBuilder column = new StringBuilder();
+        boolean isQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (isQuoted) {
+                if (c != '"') {
+                    column.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    column.append(c);
+                    i++;
+                } else {
+                    isQuoted = false;
+                }
+            } else if (c == '"') {
+                isQuoted = true;
+            } else if (c == ',') {
+                columns.add(column.toString());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        assertFalse(isQuoted, line);
+        columns.add(column.toString());
+        return columns;
+    }
+
+}
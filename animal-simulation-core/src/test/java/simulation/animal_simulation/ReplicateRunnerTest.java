@@ -0,0 +1,129 @@
+package simulation.animal_simulation;
+
+import org.junit.jupiter.api.Test;
+import simulation.animal_simulation.random.CounterRandom;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicateRunnerTest {
+
+    private static final int MaxStepCount = 30;
+
+    @Test
+    void estimateSameWithAnyNumberOfRunsInProgress() throws IllegalAccessException, IOException, InterruptedException {
+        EnumMap<ReplicateMetric, Double> precisions = createPrecisions(0.0);
+        precisions.put(ReplicateMetric.PeakRabbitCount, Double.POSITIVE_INFINITY);
+        ArrayList<Integer> serialCounts = new ArrayList<>();
+        ArrayList<Integer> parallelCounts = new ArrayList<>();
+
+        ReplicateRunner.Estimate serialEstimate = createRunner(precisions, 6, 6, 1)
+            .run(estimate -> serialCounts.add(estimate.replicateCount()));
+        ReplicateRunner.Estimate parallelEstimate = createRunner(precisions, 6, 6, 4)
+            .run(estimate -> parallelCounts.add(estimate.replicateCount()));
+
+        assertEquals(serialEstimate, parallelEstimate);
+        assertEquals(List.of(1, 2, 3, 4, 5, 6), serialCounts);
+        assertEquals(serialCounts, parallelCounts);
+        assertEquals(6, serialEstimate.replicateCount());
+        assertFalse(serialEstimate.isPrecisionReached());
+        assertEquals(precisions.keySet(), serialEstimate.intervals().keySet());
+    }
+
+    @Test
+    void countReplicatesInOrderOfTheirSeeds() throws IllegalAccessException, IOException, InterruptedException {
+        SimulationSettings simulationSettings = createSettings();
+        CounterRandom random = new CounterRandom(simulationSettings.seed);
+        double peakRabbitCountSum = 0;
+        for (int replicate = 0; replicate < 3; replicate++) {
+            SimulationSettings replicateSettings = simulationSettings.copy();
+            replicateSettings.setSeed(random.split(replicate).getSeed());
+            int[] peakRabbitCount = {0};
+            HeadlessSimulation.run(
+                replicateSettings, MaxStepCount,
+                map -> peakRabbitCount[0] = Math.max(peakRabbitCount[0], map.getRabbitCount())
+            );
+            peakRabbitCountSum += peakRabbitCount[0];
+        }
+
+        EnumMap<ReplicateMetric, Double> precisions = new EnumMap<>(ReplicateMetric.class);
+        precisions.put(ReplicateMetric.PeakRabbitCount, 0.0);
+        ReplicateRunner.Estimate estimate = createRunner(precisions, 3, 3, 3).run(onEstimate -> {});
+
+        assertEquals(
+            peakRabbitCountSum / 3, estimate.intervals().get(ReplicateMetric.PeakRabbitCount).estimate(), 1e-9
+        );
+    }
+
+    @Test
+    void stopAtMinReplicateCountOnceThePrecisionIsReached()
+        throws IllegalAccessException, IOException, InterruptedException {
+        ArrayList<ReplicateRunner.Estimate> estimates = new ArrayList<>();
+
+        ReplicateRunner.Estimate estimate = createRunner(createPrecisions(Double.POSITIVE_INFINITY), 3, 100, 4)
+            .run(estimates::add);
+
+        assertEquals(3, estimate.replicateCount());
+        assertTrue(estimate.isPrecisionReached());
+        assertEquals(3, estimates.size());
+        assertSame(estimate, estimates.getLast());
+    }
+
+    @Test
+    void propagateFailureOfReplicate() {
+        SimulationSettings simulationSettings = createSettings();
+        simulationSettings.setRabbitShelterIds(List.of(1000));
+        ReplicateRunner runner = new ReplicateRunner(
+            simulationSettings, MaxStepCount, createPrecisions(0.0), 3, 6, 2
+        );
+
+        assertThrows(RuntimeException.class, () -> runner.run(estimate -> {}));
+    }
+
+    @Test
+    void rejectInvalidArguments() {
+        SimulationSettings simulationSettings = createSettings();
+        EnumMap<ReplicateMetric, Double> precisions = createPrecisions(0.1);
+
+        assertThrows(IllegalArgumentException.class, () -> new ReplicateRunner(
+            simulationSettings, MaxStepCount, new EnumMap<>(ReplicateMetric.class), 1, 1, 1
+        ));
+        assertThrows(IllegalArgumentException.class, () -> new ReplicateRunner(
+            simulationSettings, MaxStepCount, createPrecisions(-1.0), 1, 1, 1
+        ));
+        assertThrows(IllegalArgumentException.class, () -> new ReplicateRunner(
+            simulationSettings, MaxStepCount, precisions, 5, 4, 1
+        ));
+        assertThrows(IllegalArgumentException.class, () -> new ReplicateRunner(
+            simulationSettings, MaxStepCount, precisions, 1, 1, 0
+        ));
+    }
+
+    private static SimulationSettings createSettings() {
+        return HeadlessSimulationTest.createSettings(List.of(45, 255), List.of(150));
+    }
+
+    private static EnumMap<ReplicateMetric, Double> createPrecisions(double precision) {
+        EnumMap<ReplicateMetric, Double> precisions = new EnumMap<>(ReplicateMetric.class);
+        for (ReplicateMetric metric : ReplicateMetric.values()) {
+            precisions.put(metric, precision);
+        }
+        return precisions;
+    }
+
+    private static ReplicateRunner createRunner(
+        EnumMap<ReplicateMetric, Double> precisions,
+        int minReplicateCount,
+        int maxReplicateCount,
+        int maxConcurrentRunCount
+    ) {
+        return new ReplicateRunner(
+            createSettings(), MaxStepCount, precisions, minReplicateCount, maxReplicateCount, maxConcurrentRunCount
+        );
+    }
+
+}
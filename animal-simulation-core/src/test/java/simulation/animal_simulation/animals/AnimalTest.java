@@ -0,0 +1,262 @@
+package simulation.animal_simulation.animals;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.MethodSource;
+import simulation.animal_simulation.LoggerController;
+import simulation.animal_simulation.map.Map;
+import simulation.animal_simulation.map.Shelter;
+import simulation.animal_simulation.map.ShelterType;
+import simulation.animal_simulation.map.storage.HeapCellStore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnimalTest {
+
+    static Collection<Arguments> provideDataForTryToDecreaseSatietyTest() {
+        return List.of(
+            Arguments.of(10, 10, 5, 4, true),
+            Arguments.of(10, 9, 5, 5, true),
+            Arguments.of(10, 10, 0, 0, false)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideDataForTryToDecreaseSatietyTest")
+    void tryToDecreaseSatiety(
+        int stepsBeforeSatietyDecrease,
+        int stepsAfterSatietyDecrease,
+        int satiety,
+        int expectedSatiety,
+        boolean expectedIsAlive
+    ) {
+        Animal rabbit = new Rabbit(Sex.Male, Age.Adult);
+        rabbit.setStepsBeforeSatietyDecrease(stepsBeforeSatietyDecrease);
+        rabbit.setStepsAfterSatietyDecrease(stepsAfterSatietyDecrease);
+        rabbit.setSatiety(satiety);
+
+        rabbit.tryToDecreaseSatiety();
+
+        assertEquals(expectedSatiety, rabbit.getSatiety());
+        assertEquals(expectedIsAlive, rabbit.isAlive());
+    }
+
+
+
+
+    static Collection<Arguments> provideDataForTryToGrowTest() {
+        return List.of(
+            Arguments.of(10, 10, Age.Child, Age.Adult, true),
+            Arguments.of(10, 9, Age.Adult, Age.Adult, true),
+            Arguments.of(10, 10, Age.Senior, Age.Senior, false)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideDataForTryToGrowTest")
+    void tryToGrow(
+        int stepsBeforeGrow,
+        int stepsAfterGrow,
+        Age age,
+        Age expectedAge,
+        boolean expectedIsAlive
+    ) {
+        Animal rabbit = new Rabbit(Sex.Male, Age.Adult);
+        rabbit.setStepsBeforeGrow(stepsBeforeGrow);
+        rabbit.setStepsAfterGrow(stepsAfterGrow);
+        rabbit.setAge(age);
+
+        rabbit.tryToGrow();
+
+        assertEquals(expectedAge, rabbit.getAge());
+        assertEquals(expectedIsAlive, rabbit.isAlive());
+    }
+
+    @Test
+    void addAndRemoveAnimalsInAnimalStore() {
+        AnimalStore<Rabbit> store = new AnimalStore<>();
+        Rabbit firstRabbit = new Rabbit(Sex.Male);
+        Rabbit secondRabbit = new Rabbit(Sex.Female);
+        Rabbit deadRabbit = new Rabbit(false);
+
+        long firstHandle = store.add(firstRabbit);
+        store.add(secondRabbit);
+        store.add(deadRabbit);
+        assertEquals(3, store.size());
+        assertEquals(2, store.getAliveCount());
+        assertTrue(store.isAlive(0));
+        assertFalse(store.isAlive(2));
+        assertEquals(-1, store.getCellIndex(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.isAlive(3));
+        assertThrows(IllegalArgumentException.class, () -> store.add(firstRabbit));
+
+        assertTrue(store.remove(firstRabbit));
+        assertFalse(store.remove(firstRabbit));
+        assertSame(deadRabbit, store.get(0));
+        assertNull(store.getByHandle(firstHandle));
+        assertEquals(1, store.getAliveCount());
+
+        Rabbit newRabbit = new Rabbit(Sex.Male);
+        long newHandle = store.add(newRabbit);
+        assertEquals((int) firstHandle, (int) newHandle);
+        assertNotEquals(firstHandle, newHandle);
+        assertNull(store.getByHandle(firstHandle));
+        assertSame(newRabbit, store.getByHandle(newHandle));
+        assertEquals(2, store.getAliveCount());
+        assertEquals(1, store.getDeadCount());
+    }
+
+    @ParameterizedTest
+    @EnumSource(AnimalBackend.class)
+    void doLifecycleStepForAllAnimalsInStore(AnimalBackend backend) {
+        AnimalStore<Rabbit> store = new AnimalStore<>(backend);
+        Rabbit hungryRabbit = new Rabbit(Sex.Male);
+        Rabbit oldRabbit = new Rabbit(Sex.Female, Age.Senior);
+        Rabbit deadRabbit = new Rabbit(false);
+        hungryRabbit.setStepsAfterSatietyDecrease(8);
+        oldRabbit.setStepsAfterGrow(30);
+
+        store.add(hungryRabbit);
+        store.add(oldRabbit);
+        store.add(deadRabbit);
+
+        ArrayList<Rabbit> decomposedRabbits = new ArrayList<>();
+        store.doLifecycleStep(decomposedRabbits::add);
+
+        assertEquals(4, hungryRabbit.getSatiety());
+        assertTrue(hungryRabbit.isAlive());
+        assertFalse(oldRabbit.isAlive());
+        assertEquals(1, store.getAliveCount());
+        assertTrue(decomposedRabbits.isEmpty());
+
+        assertTrue(store.remove(hungryRabbit));
+        assertEquals(4, hungryRabbit.getSatiety());
+        assertEquals(Age.Senior, oldRabbit.getAge());
+        assertSame(deadRabbit, store.get(0));
+
+        for (int i = 0; i < 20; i++) store.doLifecycleStep(decomposedRabbits::add);
+        assertEquals(List.of(deadRabbit), decomposedRabbits);
+
+        store.remove(deadRabbit);
+        store.doLifecycleStep(decomposedRabbits::add);
+        assertEquals(List.of(deadRabbit, oldRabbit), decomposedRabbits);
+    }
+
+    @Test
+    void doLifecycleTransitionsOnlyWhenDue() {
+        AnimalStore<Rabbit> store = new AnimalStore<>();
+        Rabbit rabbit = new Rabbit(Sex.Male);
+        int satiety = rabbit.getSatiety();
+        store.add(rabbit);
+
+        for (int i = 0; i < 5; i++) store.doLifecycleStep(decomposedRabbit -> false);
+        assertTrue(store.remove(rabbit));
+        for (int i = 0; i < 3; i++) rabbit.tryToDecreaseSatiety();
+        store.add(rabbit);
+        assertEquals(satiety, rabbit.getSatiety());
+
+        store.doLifecycleStep(decomposedRabbit -> false);
+        assertEquals(satiety - 1, rabbit.getSatiety());
+
+        for (int i = 0; i < 8; i++) store.doLifecycleStep(decomposedRabbit -> false);
+        assertEquals(satiety - 1, rabbit.getSatiety());
+        store.doLifecycleStep(decomposedRabbit -> false);
+        assertEquals(satiety - 2, rabbit.getSatiety());
+    }
+
+    @Test
+    void keepAnimalsInOffHeapStoreAcrossSlabs() {
+        AnimalStore<Rabbit> store = new AnimalStore<>(AnimalBackend.OffHeap);
+        ArrayList<Rabbit> rabbits = new ArrayList<>();
+        for (int i = 0; i < 70_000; i++) {
+            Rabbit rabbit = new Rabbit(i % 2 == 0 ? Sex.Female : Sex.Male);
+            rabbit.setSatiety(i % 10);
+            rabbits.add(rabbit);
+            store.add(rabbit);
+        }
+
+        for (int i = 0; i < 70_000; i += 3) store.remove(rabbits.get(i));
+
+        assertEquals(70_000 - 23_334, store.size());
+        for (int i = 0; i < 70_000; i++) {
+            Rabbit rabbit = rabbits.get(i);
+            assertEquals(i % 3 != 0, store.contains(rabbit));
+            assertEquals(i % 10, rabbit.getSatiety());
+            assertEquals(i % 2 == 0 ? Sex.Female : Sex.Male, rabbit.getSex());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(AnimalBackend.class)
+    void keepGroundAndShelterOfAnimalInItsRow(AnimalBackend backend) throws IllegalAccessException {
+        Shelter shelter = new Shelter(
+            13, ShelterType.Burrow, AnimalSpecies.Rabbit, 5, List.of(new Rabbit(Sex.Male), new Rabbit(Sex.Female))
+        );
+        shelter.animals.forEach(rabbit -> rabbit.setNearestShelter(shelter));
+        Map map = new Map(
+            10, 0, 0,
+            List.of(shelter), List.of(),
+            new HeapCellStore(100), backend, new LoggerController(false)
+        );
+        Rabbit rabbit = map.rabbits.get(0);
+        assertEquals(12, rabbit.table.get(rabbit.row, AnimalTable.CellIndexField));
+        assertEquals(12, rabbit.table.get(rabbit.row, AnimalTable.ShelterCellIndexField));
+        assertTrue(rabbit.isInShelter());
+        assertSame(shelter, rabbit.getNearestShelter());
+
+        assertTrue(rabbit.moveToNextGroundByDifference(1, 0));
+        assertEquals(13, map.rabbits.getCellIndex(0));
+        assertSame(map.grid.getGround(14), rabbit.getGround());
+        assertSame(rabbit, map.grid.getGround(14).getAnimal());
+        assertFalse(rabbit.isInShelter());
+        assertFalse(shelter.animals.contains(rabbit));
+
+        map.grid.getGround(14).setGrass(3);
+        assertTrue(rabbit.eatPlant(1));
+        assertEquals(2, map.grid.getGround(14).getGrassQuantity());
+
+        assertTrue(map.rabbits.remove(rabbit));
+        assertSame(map.grid.getGround(14), rabbit.getGround());
+        assertSame(shelter, rabbit.getNearestShelter());
+    }
+
+    @Test
+    void reuseDecomposedAnimalsFromPool() {
+        AnimalPool<Fox> pool = new AnimalPool<>(Fox::new);
+        AnimalStore<Fox> store = new AnimalStore<>();
+
+        Fox firstFox = pool.obtain(Sex.Male, Age.Adult);
+        store.add(firstFox);
+        assertThrows(IllegalArgumentException.class, () -> pool.release(firstFox));
+
+        firstFox.setAlive(false);
+        firstFox.setSatiety(0);
+        AnimalTable detachedTable = firstFox.detachedTable;
+        store.remove(firstFox);
+        assertSame(detachedTable, firstFox.table);
+        pool.release(firstFox);
+
+        Fox babyFox = pool.obtain(Sex.Female, Age.Child);
+        assertSame(firstFox, babyFox);
+        assertTrue(babyFox.isAlive());
+        assertEquals(Sex.Female, babyFox.getSex());
+        assertEquals(Age.Child, babyFox.getAge());
+        assertEquals(new Fox(Sex.Female, Age.Child).getSatiety(), babyFox.getSatiety());
+        assertNull(babyFox.getGround());
+
+        store.add(babyFox);
+        store.remove(babyFox);
+        assertSame(detachedTable, babyFox.table);
+        assertEquals(Sex.Female, babyFox.getSex());
+
+        assertNotSame(babyFox, pool.obtain(Sex.Male, Age.Child));
+        assertEquals(1, pool.getHitCount());
+        assertEquals(2, pool.getMissCount());
+    }
+}
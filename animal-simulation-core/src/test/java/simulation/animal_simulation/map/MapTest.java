@@ -0,0 +1,628 @@
+package simulation.animal_simulation.map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import simulation.animal_simulation.LoggerController;
+import simulation.animal_simulation.animals.Animal;
+import simulation.animal_simulation.animals.AnimalBackend;
+import simulation.animal_simulation.animals.AnimalSpecies;
+import simulation.animal_simulation.animals.Fox;
+import simulation.animal_simulation.animals.Rabbit;
+import simulation.animal_simulation.animals.Sex;
+import simulation.animal_simulation.map.navigation.VisionStencil;
+import simulation.animal_simulation.map.plants.VegetationLayer;
+import simulation.animal_simulation.map.plants.VegetationMode;
+import simulation.animal_simulation.map.storage.HeapCellStore;
+import simulation.animal_simulation.map.storage.MappedCellStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapTest {
+
+    @Test
+    void addRabbitsFromSheltersAndGetRabbitCount() throws IllegalAccessException {
+        List<Animal> rabbits = List.of(
+                new Rabbit(Sex.Male),
+                new Rabbit(Sex.Male),
+                new Rabbit(false)
+        );
+        Shelter shelter = new Shelter(1, ShelterType.Burrow, AnimalSpecies.Rabbit, 5, rabbits);
+        Map map = new Map(
+                10, 10, 10,
+                List.of(shelter), List.of(), new LoggerController(false)
+        );
+        assertEquals(2, map.getRabbitCount());
+    }
+
+    @Test
+    void publishSnapshotsWithoutChangingAcquiredOne() throws IllegalAccessException {
+        Map map = new Map(
+                5, 0, 0,
+                List.of(), List.of(), new LoggerController(false)
+        );
+        map.grid.getGround(8).setGrass(3);
+        map.grid.getGround(8).setAnimal(new Rabbit(Sex.Male));
+        map.publishSnapshot();
+
+        MapSnapshot acquiredSnapshot = map.acquireSnapshot();
+        map.grid.getGround(8).removeAnimal();
+        map.grid.getGround(9).setGrass(2);
+        map.publishSnapshot();
+        map.publishSnapshot();
+
+        assertEquals(AnimalSpecies.Rabbit, acquiredSnapshot.getAnimalSpecies(8));
+        assertEquals(3, acquiredSnapshot.getGrassQuantity(8));
+        assertEquals(0, acquiredSnapshot.getGrassQuantity(9));
+        assertEquals(3, acquiredSnapshot.getGrassQuantity());
+        acquiredSnapshot.close();
+
+        try (MapSnapshot snapshot = map.acquireSnapshot()) {
+            assertNotSame(acquiredSnapshot, snapshot);
+            assertNull(snapshot.getAnimalSpecies(8));
+            assertEquals(5, snapshot.getGrassQuantity());
+        }
+        map.publishSnapshot();
+        try (MapSnapshot snapshot = map.acquireSnapshot()) {
+            assertEquals(5, snapshot.getGrassQuantity());
+        }
+    }
+
+    @Test
+    void getGroundsAndNeighboursFromGrid() throws IllegalAccessException {
+        Map map = new Map(
+                5, 0, 0,
+                List.of(), List.of(), new LoggerController(false)
+        );
+        Ground ground = map.grid.getGround(3, 2);
+
+        assertEquals(8, ground.id);
+        assertSame(ground, map.grid.getGround(8));
+        assertSame(map.grid.getGround(3, 1), ground.getNextTop());
+        assertSame(map.grid.getGround(4, 2), ground.getNextRight());
+        assertSame(map.grid.getGround(3, 3), ground.getNextBottom());
+        assertSame(map.grid.getGround(2, 2), ground.getNextLeft());
+        assertNull(map.grid.getGround(5, 1).getNextRight());
+        assertNull(map.grid.getGround(1, 5).getNextLeft());
+        assertNull(map.grid.getGround(1, 5).getNextBottom());
+        assertNull(map.grid.getGround(6, 1));
+    }
+
+    @Test
+    void findNearestGroundWithVisionStencil() throws IllegalAccessException {
+        Map map = new Map(
+                5, 0, 0,
+                List.of(), List.of(), new LoggerController(false)
+        );
+        VisionStencil stencil = VisionStencil.forRange(2);
+        Ground ground = map.grid.getGround(3, 3);
+
+        assertEquals(12, stencil.getSize());
+        assertSame(stencil, VisionStencil.forRange(2));
+        assertSame(map.grid.getGround(2, 3), ground.findNearestGround(stencil, candidate -> true));
+        assertSame(
+                map.grid.getGround(4, 4),
+                ground.findNearestGround(stencil, candidate -> candidate.coordinates.x > 3 && candidate.coordinates.y > 3)
+        );
+        assertNull(ground.findNearestGround(stencil, candidate -> candidate.id == 1));
+        assertSame(map.grid.getGround(2, 1), map.grid.getGround(1, 1).findNearestGround(stencil, candidate -> true));
+    }
+
+    @Test
+    void countAnimalsAroundFromOccupancySnapshot() throws IllegalAccessException {
+        Map map = new Map(
+                10, 0, 0,
+                List.of(), List.of(), new LoggerController(false)
+        );
+        OccupancyLayer occupancy = map.grid.getOccupancy();
+        Fox fox = new Fox(Sex.Male);
+        Ground ground = map.grid.getGround(5, 5);
+        ground.setAnimal(fox);
+
+        assertTrue(occupancy.isOccupied(ground.id - 1, AnimalSpecies.Fox, fox.getAge()));
+        assertEquals(1, map.grid.getGround(3, 3).countAnimalsAround(AnimalSpecies.Fox, 2));
+        assertEquals(0, map.grid.getGround(2, 2).countAnimalsAround(AnimalSpecies.Fox, 2));
+        assertEquals(0, map.grid.getGround(3, 3).countAnimalsAround(AnimalSpecies.Rabbit, 2));
+
+        ground.removeAnimal();
+        assertFalse(occupancy.isOccupied(ground.id - 1, AnimalSpecies.Fox, fox.getAge()));
+        assertEquals(1, map.grid.getGround(3, 3).countAnimalsAround(AnimalSpecies.Fox, 2));
+
+        occupancy.invalidateSummedAreaTables();
+        assertEquals(0, map.grid.getGround(3, 3).countAnimalsAround(AnimalSpecies.Fox, 2));
+    }
+
+    @Test
+    void countAnimalsAroundAcrossChunks() throws IllegalAccessException {
+        Map map = new Map(
+                150, 0, 0,
+                List.of(), List.of(), new LoggerController(false)
+        );
+        Random random = new Random(42);
+        for (int groundId : random.ints(1, 150 * 150 / 3).distinct().limit(500).toArray()) {
+            map.grid.getGround(groundId).setAnimal(random.nextBoolean() ? new Rabbit(Sex.Male) : new Fox(Sex.Female));
+        }
+        OccupancyLayer occupancy = map.grid.getOccupancy();
+        occupancy.buildSummedAreaTables();
+        assertEquals(3, occupancy.getAllocatedChunkCount());
+
+        for (int i = 0; i < 300; i++) {
+            int x = 1 + random.nextInt(150);
+            int y = 1 + random.nextInt(150);
+            int range = random.nextInt(70);
+            int expectedCount = 0;
+            for (int otherY = Math.max(y - range, 1); otherY <= Math.min(y + range, 150); otherY++) {
+                for (int otherX = Math.max(x - range, 1); otherX <= Math.min(x + range, 150); otherX++) {
+                    if (map.grid.getGround(otherX, otherY).getAnimal() instanceof Rabbit) expectedCount++;
+                }
+            }
+            assertEquals(expectedCount, occupancy.countAnimalsInSquare(AnimalSpecies.Rabbit, x, y, range));
+        }
+    }
+
+    @Test
+    void followShelterFlowFieldAsSheltersFillAndFreeUp() throws IllegalAccessException {
+        Shelter nearShelter = new Shelter(1, ShelterType.Burrow, AnimalSpecies.Rabbit, 1);
+        Shelter farShelter = new Shelter(100, ShelterType.Burrow, AnimalSpecies.Rabbit, 1);
+        Map map = new Map(
+                10, 0, 0,
+                List.of(nearShelter, farShelter), List.of(), new LoggerController(false)
+        );
+        ShelterFlowField flowField = map.grid.getShelterFlowField(AnimalSpecies.Rabbit);
+        Ground ground = map.grid.getGround(3, 2);
+
+        assertEquals(3, flowField.getDistance(ground.id - 1));
+        assertSame(map.grid.getGround(3, 1), ground.getNextGroundToShelter(AnimalSpecies.Rabbit));
+        assertSame(nearShelter.getGround(), map.grid.getGround(2, 1).getNextGroundToShelter(AnimalSpecies.Rabbit));
+        assertNull(ground.getNextGroundToShelter(AnimalSpecies.Fox));
+        assertEquals(0, map.grid.getShelterFlowField(AnimalSpecies.Fox).getAllocatedChunkCount());
+
+        Rabbit rabbit = new Rabbit(Sex.Male);
+        assertTrue(nearShelter.enter(rabbit));
+        assertEquals(15, flowField.getDistance(ground.id - 1));
+        assertSame(map.grid.getGround(4, 2), ground.getNextGroundToShelter(AnimalSpecies.Rabbit));
+
+        assertTrue(nearShelter.removeAnimal(rabbit));
+        assertEquals(3, flowField.getDistance(ground.id - 1));
+    }
+
+    @Test
+    void repairShelterFlowFieldWithoutRecomputingAsSheltersFill() throws IllegalAccessException {
+        Random random = new Random(42);
+        List<Shelter> shelters = new ArrayList<>();
+        for (int groundId : random.ints(1, 10_001).distinct().limit(200).toArray()) {
+            shelters.add(new Shelter(groundId, ShelterType.Burrow, AnimalSpecies.Rabbit, 1));
+        }
+        Map map = new Map(
+                100, 0, 0,
+                shelters, List.of(), new LoggerController(false)
+        );
+        ShelterFlowField flowField = map.grid.getShelterFlowField(AnimalSpecies.Rabbit);
+        flowField.ensureUpToDate();
+
+        List<Rabbit> rabbits = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            rabbits.add(new Rabbit(Sex.Male));
+            if (i % 50 == 0) map.grid.beginParallelPhase();
+            assertTrue(shelters.get(i).enter(rabbits.get(i)));
+            if (i % 50 == 49) map.grid.endParallelPhase();
+            if (i % 3 == 0) flowField.getDistance(random.nextInt(10_000));
+        }
+        assertTrue(shelters.get(7).removeAnimal(rabbits.get(7)));
+
+        ShelterFlowField recomputedFlowField = new ShelterFlowField(map.grid, AnimalSpecies.Rabbit);
+        shelters.forEach(recomputedFlowField::addShelter);
+        for (int index = 0; index < 10_000; index++) {
+            assertEquals(recomputedFlowField.getDistance(index), flowField.getDistance(index));
+        }
+        assertEquals(1, flowField.getRecomputeCount());
+        assertEquals(4, flowField.getAllocatedChunkCount());
+    }
+
+    @Test
+    void findNearestSheltersWithShelterIndex() throws IllegalAccessException {
+        Random random = new Random(42);
+        List<Shelter> shelters = new ArrayList<>();
+        for (int groundId : random.ints(1, 10_001).distinct().limit(500).toArray()) {
+            shelters.add(new Shelter(groundId, ShelterType.Burrow, AnimalSpecies.Rabbit, 1));
+        }
+        Map map = new Map(
+                100, 0, 0,
+                shelters, List.of(), new LoggerController(false)
+        );
+        ShelterIndex shelterIndex = map.grid.getShelterIndex();
+
+        for (Shelter shelter : shelters) {
+            shelter.setNearestSheltersFromSheltersList(shelters);
+            List<Shelter> expectedShelters = List.copyOf(shelter.nearestShelters);
+            shelter.setNearestSheltersFromIndex(shelterIndex);
+            assertEquals(expectedShelters, shelter.nearestShelters);
+        }
+
+        for (int i = 0; i < 200; i++) {
+            Ground ground = map.grid.getGround(1 + random.nextInt(10_000));
+            Shelter expectedShelter = shelters.stream()
+                    .filter(Shelter::hasFreeSpace)
+                    .min(Comparator.comparingDouble(shelter ->
+                            shelter.getCoordinates().getDistanceToOtherCoordinates(ground.coordinates)
+                    ))
+                    .orElseThrow();
+            Shelter shelter = ground.findNearestAvailableShelter(AnimalSpecies.Rabbit);
+
+            assertSame(expectedShelter, shelter);
+            assertTrue(shelter.enter(new Rabbit(Sex.Male)));
+        }
+        assertNull(map.grid.getGround(1).findNearestAvailableShelter(AnimalSpecies.Fox));
+    }
+
+    @Test
+    void runMapOnMappedCellStore(@TempDir Path tempDir) throws IllegalAccessException, IOException {
+        Path file = tempDir.resolve("cells.bin");
+        Shelter shelter = new Shelter(
+                13, ShelterType.Burrow, AnimalSpecies.Rabbit, 5,
+                new ArrayList<>(List.of(new Rabbit(Sex.Male), new Rabbit(Sex.Female)))
+        );
+        shelter.animals.forEach(rabbit -> rabbit.setNearestShelter(shelter));
+        Map map = new Map(
+                10, 20, 10,
+                List.of(shelter), List.of(),
+                new MappedCellStore(100, file), new LoggerController(false)
+        );
+        VegetationLayer vegetation = map.grid.getVegetation();
+
+        int grassCount = 0;
+        int thickVegetationCount = 0;
+        for (int index = 0; index < vegetation.getSize(); index++) {
+            if (vegetation.hasGrass(index)) grassCount++;
+            if (vegetation.hasThickVegetation(index)) thickVegetationCount++;
+        }
+        assertEquals(20, grassCount);
+        assertEquals(10, thickVegetationCount);
+        assertSame(shelter, map.grid.getGround(13).getShelter());
+        assertFalse(vegetation.isAvailableForPlant(12));
+
+        for (int i = 0; i < 30; i++) {
+            map.doNextStep();
+        }
+        for (Rabbit rabbit : map.rabbits) {
+            if (rabbit.isAlive() && rabbit.getGround().getShelter() == null) {
+                assertSame(rabbit, rabbit.getGround().getAnimal());
+            }
+        }
+
+        map.close();
+        assertEquals(100 * 12, Files.size(file));
+
+        MappedCellStore temporaryCellStore = new MappedCellStore(100);
+        assertTrue(Files.exists(temporaryCellStore.getFile()));
+        temporaryCellStore.close();
+        assertFalse(Files.exists(temporaryCellStore.getFile()));
+    }
+
+    @Test
+    void allocateOnlyChunksWithPlants() throws IllegalAccessException {
+        HeapCellStore cellStore = new HeapCellStore(640 * 640);
+        Map map = new Map(
+                640, 0, 0,
+                List.of(), List.of(),
+                cellStore, new LoggerController(false)
+        );
+        map.doNextStep();
+
+        assertEquals(100, map.grid.getChunkCount());
+        assertEquals(0, map.grid.getAllocatedChunkCount());
+        assertEquals(0, cellStore.getAllocatedPageCount());
+
+        Ground ground = map.grid.getGround(100, 100);
+        ground.setGrass(1);
+
+        map.doNextStep();
+        assertEquals(1, map.grid.getAllocatedChunkCount());
+        assertEquals(1, cellStore.getAllocatedPageCount());
+    }
+
+    @Test
+    void regrowOnlyDuePlants() throws IllegalAccessException {
+        Map map = new Map(
+                5, 0, 0,
+                List.of(), List.of(),
+                new LoggerController(false)
+        );
+        VegetationLayer vegetation = map.grid.getVegetation();
+        Ground thickVegetationGround = map.grid.getGround(2, 2);
+        thickVegetationGround.setThickVegetation(10);
+        map.grid.getGround(3, 2).setGrass(4);
+
+        for (int i = 0; i < 10; i++) map.doNextStep();
+        assertEquals(10, vegetation.getStepsAfterRegrowth(6));
+        assertEquals(4, vegetation.getQuantity(7));
+        assertFalse(vegetation.hasPlant(1));
+
+        map.doNextStep();
+        assertTrue(vegetation.hasThickVegetation(7));
+        assertEquals(0, vegetation.getStepsAfterRegrowth(7));
+        assertEquals(0, vegetation.getStepsAfterRegrowth(1));
+        assertEquals(0, vegetation.getStepsAfterRegrowth(5));
+        assertEquals(1, vegetation.getStepsAfterRegrowth(11));
+        assertEquals(10, vegetation.getStepsAfterRegrowth(6));
+
+        assertTrue(thickVegetationGround.eatPlant());
+        map.doNextStep();
+        assertEquals(10, vegetation.getQuantity(6));
+        assertEquals(0, vegetation.getStepsAfterRegrowth(6));
+    }
+
+    @Test
+    void spreadAgainToGroundWhosePlantWasRemoved() throws IllegalAccessException {
+        Map map = new Map(
+                5, 0, 0,
+                List.of(), List.of(),
+                new LoggerController(false)
+        );
+        VegetationLayer vegetation = map.grid.getVegetation();
+        map.grid.getGround(3, 3).setThickVegetation(10);
+        map.grid.getGround(3, 2).setGrass(1);
+        map.grid.getGround(4, 3).setGrass(1);
+        map.grid.getGround(3, 4).setGrass(1);
+        map.grid.getGround(2, 3).setGrass(1);
+
+        for (int i = 0; i < 11; i++) map.doNextStep();
+        assertEquals(10, vegetation.getQuantity(12));
+        assertEquals(10, vegetation.getStepsAfterRegrowth(12));
+
+        vegetation.removePlant(6);
+        vegetation.removePlant(7);
+
+        map.doNextStep();
+        assertTrue(vegetation.hasGrass(7));
+        assertEquals(1, vegetation.getQuantity(7));
+        assertFalse(vegetation.hasPlant(6));
+    }
+
+    @Test
+    void computeSameVegetationLazilyAsEagerly() throws IllegalAccessException {
+        int size = 30;
+        Map eagerMap = createMapWithoutPlants(size, VegetationMode.Eager);
+        Map lazyMap = createMapWithoutPlants(size, VegetationMode.Lazy);
+        VegetationLayer eagerVegetation = eagerMap.grid.getVegetation();
+        VegetationLayer lazyVegetation = lazyMap.grid.getVegetation();
+
+        Random random = new Random(7);
+        for (int i = 0; i < 40; i++) {
+            int id = random.nextInt(size * size) + 1;
+            if (eagerMap.grid.getGround(id).hasPlant()) continue;
+            int quantity = random.nextInt(11);
+            if (quantity <= 4) {
+                eagerMap.grid.getGround(id).setGrass(quantity);
+                lazyMap.grid.getGround(id).setGrass(quantity);
+            } else {
+                eagerMap.grid.getGround(id).setThickVegetation(quantity);
+                lazyMap.grid.getGround(id).setThickVegetation(quantity);
+            }
+        }
+
+        for (int step = 0; step < 400; step++) {
+            eagerMap.doNextStep();
+            lazyMap.doNextStep();
+
+            for (int i = 0; i < 60; i++) {
+                int index = random.nextInt(size * size);
+                if (random.nextInt(40) == 0) {
+                    eagerVegetation.removePlant(index);
+                    lazyVegetation.removePlant(index);
+                } else {
+                    assertEquals(
+                        eagerMap.grid.getGround(index + 1).eatPlant(),
+                        lazyMap.grid.getGround(index + 1).eatPlant()
+                    );
+                }
+            }
+
+            for (int index = 0; index < size * size; index++) {
+                assertEquals(eagerVegetation.hasGrass(index), lazyVegetation.hasGrass(index));
+                assertEquals(eagerVegetation.hasThickVegetation(index), lazyVegetation.hasThickVegetation(index));
+                assertEquals(eagerVegetation.getQuantity(index), lazyVegetation.getQuantity(index));
+                assertEquals(
+                    eagerVegetation.getStepsAfterRegrowth(index),
+                    lazyVegetation.getStepsAfterRegrowth(index)
+                );
+            }
+        }
+    }
+
+    private Map createMapWithoutPlants(int size, VegetationMode vegetationMode) throws IllegalAccessException {
+        return new Map(
+                size, 0, 0,
+                List.of(), List.of(),
+                new HeapCellStore(size * size), AnimalBackend.Heap, vegetationMode,
+                new LoggerController(false)
+        );
+    }
+
+    @Test
+    void doStepsOfTilesInParallel() throws IllegalAccessException {
+        Map map = createTiledMap(4);
+
+        for (int i = 0; i < 60; i++) {
+            map.doNextStep();
+        }
+
+        int animalCountOnGrounds = 0;
+        for (Animal animal : map.rabbits) {
+            if (animal.getGround().getShelter() == null) {
+                assertSame(animal, animal.getGround().getAnimal());
+                animalCountOnGrounds++;
+            }
+        }
+        for (Animal animal : map.foxes) {
+            if (animal.getGround().getShelter() == null) {
+                assertSame(animal, animal.getGround().getAnimal());
+                animalCountOnGrounds++;
+            }
+        }
+        int occupiedGroundCount = 0;
+        for (int id = 1; id <= map.grid.getGroundCount(); id++) {
+            if (map.grid.getGround(id).hasAnimal()) occupiedGroundCount++;
+        }
+        assertEquals(animalCountOnGrounds, occupiedGroundCount);
+        map.close();
+    }
+
+    @Test
+    void doStepsOfTilesDeterministically() throws IllegalAccessException {
+        Map firstMap = createTiledMap(2);
+        Map secondMap = createTiledMap(2);
+        Map fourThreadMap = createTiledMap(4);
+
+        for (int i = 0; i < 60; i++) {
+            firstMap.doNextStep();
+            secondMap.doNextStep();
+            fourThreadMap.doNextStep();
+        }
+
+        assertSameSnapshots(firstMap, secondMap);
+        assertSameSnapshots(firstMap, fourThreadMap);
+        firstMap.close();
+        secondMap.close();
+        fourThreadMap.close();
+    }
+
+    /**
+     * Creates a map with shelters in the middles of the chunks whose animals take their steps tile by tile.
+     */
+    private Map createTiledMap(int threadCount) throws IllegalAccessException {
+        ArrayList<Shelter> rabbitShelters = new ArrayList<>();
+        ArrayList<Shelter> foxShelters = new ArrayList<>();
+        for (int y = 32; y < 200; y += 64) {
+            for (int x = 32; x < 200; x += 64) {
+                rabbitShelters.add(createShelterWithAnimals((y - 1) * 200 + x, AnimalSpecies.Rabbit, 10));
+                foxShelters.add(createShelterWithAnimals((y + 9) * 200 + x + 10, AnimalSpecies.Fox, 4));
+            }
+        }
+        Map map = new Map(
+                200, 4000, 2000,
+                rabbitShelters, foxShelters,
+                new HeapCellStore(200 * 200), AnimalBackend.Heap, VegetationMode.Eager, 42,
+                new LoggerController(false)
+        );
+        map.setThreadCount(threadCount);
+        return map;
+    }
+
+    private void assertSameSnapshots(Map expectedMap, Map map) {
+        expectedMap.publishSnapshot();
+        map.publishSnapshot();
+        try (
+            MapSnapshot expectedSnapshot = expectedMap.acquireSnapshot();
+            MapSnapshot snapshot = map.acquireSnapshot()
+        ) {
+            assertEquals(expectedSnapshot.getRabbitCount(), snapshot.getRabbitCount());
+            assertEquals(expectedSnapshot.getFoxCount(), snapshot.getFoxCount());
+            assertEquals(expectedSnapshot.getGrassQuantity(), snapshot.getGrassQuantity());
+            for (int id = 1; id <= expectedSnapshot.getGroundCount(); id++) {
+                assertEquals(expectedSnapshot.getAnimalSpecies(id), snapshot.getAnimalSpecies(id));
+                assertEquals(expectedSnapshot.getGrassQuantity(id), snapshot.getGrassQuantity(id));
+                if (expectedSnapshot.getAnimalSpecies(id) != null) {
+                    assertEquals(expectedSnapshot.getAnimalAge(id), snapshot.getAnimalAge(id));
+                    assertEquals(expectedSnapshot.isAnimalAlive(id), snapshot.isAnimalAlive(id));
+                }
+            }
+        }
+    }
+
+    @Test
+    void doTwoPhaseStepsIndependentOfThreadCount() throws IllegalAccessException {
+        Map serialMap = createTwoPhaseMap(1);
+        Map parallelMap = createTwoPhaseMap(4);
+
+        for (int i = 0; i < 80; i++) {
+            serialMap.doNextStep();
+            parallelMap.doNextStep();
+        }
+
+        assertEquals(serialMap.getRabbitCount(), parallelMap.getRabbitCount());
+        assertEquals(serialMap.getFoxCount(), parallelMap.getFoxCount());
+        for (int i = 0; i < serialMap.rabbits.size(); i++) {
+            assertEquals(serialMap.rabbits.get(i).getGround().id, parallelMap.rabbits.get(i).getGround().id);
+            assertEquals(serialMap.rabbits.get(i).getSatiety(), parallelMap.rabbits.get(i).getSatiety());
+        }
+        for (int i = 0; i < serialMap.foxes.size(); i++) {
+            assertEquals(serialMap.foxes.get(i).getGround().id, parallelMap.foxes.get(i).getGround().id);
+            assertEquals(serialMap.foxes.get(i).getSatiety(), parallelMap.foxes.get(i).getSatiety());
+        }
+        serialMap.close();
+        parallelMap.close();
+    }
+
+    /**
+     * Creates a map whose plants are placed and whose babies get their sex with random numbers from the same seed.
+     */
+    private Map createTwoPhaseMap(int threadCount) throws IllegalAccessException {
+        ArrayList<Shelter> rabbitShelters = new ArrayList<>();
+        ArrayList<Shelter> foxShelters = new ArrayList<>();
+        for (int y = 32; y < 200; y += 64) {
+            for (int x = 32; x < 200; x += 64) {
+                rabbitShelters.add(createShelterWithAnimals((y - 1) * 200 + x, AnimalSpecies.Rabbit, 10));
+                foxShelters.add(createShelterWithAnimals((y + 3) * 200 + x + 4, AnimalSpecies.Fox, 4));
+            }
+        }
+        Map map = new Map(
+                200, 4000, 2000,
+                rabbitShelters, foxShelters,
+                new HeapCellStore(200 * 200), AnimalBackend.Heap, VegetationMode.Eager, 42,
+                new LoggerController(false)
+        );
+        map.setThreadCount(threadCount);
+        map.setStepMode(StepMode.TwoPhase);
+        return map;
+    }
+
+    private Shelter createShelterWithAnimals(int groundId, AnimalSpecies species, int animalCount) {
+        ArrayList<Animal> animals = new ArrayList<>();
+        for (int i = 0; i < animalCount; i++) {
+            Sex sex = i % 2 == 0 ? Sex.Male : Sex.Female;
+            animals.add(species == AnimalSpecies.Rabbit ? new Rabbit(sex) : new Fox(sex));
+        }
+        ShelterType type = species == AnimalSpecies.Rabbit ? ShelterType.Burrow : ShelterType.Den;
+        Shelter shelter = new Shelter(groundId, type, species, animalCount, animals);
+        shelter.animals.forEach(animal -> animal.setNearestShelter(shelter));
+        return shelter;
+    }
+
+    @Test
+    void generateMapInLinearTime() throws IllegalAccessException {
+        getMapGenerationTimeInNanos(250);
+
+        long smallMapTime = getMapGenerationTimeInNanos(500);
+        long largeMapTime = getMapGenerationTimeInNanos(1000);
+
+        // The large map has 4 times more grounds, so linear generation takes about 4 times longer.
+        assertTrue(
+            largeMapTime < smallMapTime * 10,
+            "500x500: " + smallMapTime / 1_000_000 + " ms, 1000x1000: " + largeMapTime / 1_000_000 + " ms"
+        );
+    }
+
+    /**
+     * Returns the best of three generation times of a map that is covered with plants by 60%.
+     */
+    private long getMapGenerationTimeInNanos(int size) throws IllegalAccessException {
+        long bestTime = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long startTime = System.nanoTime();
+            new Map(
+                    size, size * size * 3 / 10, size * size * 3 / 10,
+                    List.of(), List.of(), new LoggerController(false)
+            );
+            bestTime = Math.min(bestTime, System.nanoTime() - startTime);
+        }
+        return bestTime;
+    }
+}
@@ -0,0 +1,75 @@
+package simulation.animal_simulation.statistics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunningStatisticsTest {
+
+    @Test
+    void keepMeanAndVarianceOfValues() {
+        RunningStatistics statistics = new RunningStatistics();
+        assertEquals(Double.POSITIVE_INFINITY, statistics.getVariance());
+
+        for (double value : new double[] {2, 4, 4, 4, 5, 5, 7, 9}) {
+            statistics.add(value);
+        }
+        assertEquals(8, statistics.getCount());
+        assertEquals(5, statistics.getMean(), 1e-12);
+        assertEquals(32.0 / 7, statistics.getVariance(), 1e-12);
+
+        RunningStatistics largeStatistics = new RunningStatistics();
+        for (double value : new double[] {4, 7, 13, 16}) {
+            largeStatistics.add(1e9 + value);
+        }
+        assertEquals(1e9 + 10, largeStatistics.getMean(), 1e-6);
+        assertEquals(30, largeStatistics.getVariance(), 1e-6);
+    }
+
+    @Test
+    void getNormalInterval() {
+        RunningStatistics statistics = new RunningStatistics();
+        statistics.add(1);
+        assertEquals(Double.POSITIVE_INFINITY, statistics.getNormalInterval(RunningStatistics.Z95).getHalfWidth());
+
+        for (double value : new double[] {2, 3, 4}) {
+            statistics.add(value);
+        }
+        ConfidenceInterval interval = statistics.getNormalInterval(RunningStatistics.Z95);
+        double halfWidth = RunningStatistics.Z95 * Math.sqrt(5.0 / 3 / 4);
+        assertEquals(2.5, interval.estimate(), 1e-12);
+        assertEquals(2.5 - halfWidth, interval.lower(), 1e-12);
+        assertEquals(2.5 + halfWidth, interval.upper(), 1e-12);
+        assertEquals(halfWidth, interval.getHalfWidth(), 1e-12);
+    }
+
+    @Test
+    void getWilsonInterval() {
+        assertEquals(new ConfidenceInterval(0, 0, 1), new RunningStatistics().getWilsonInterval(RunningStatistics.Z95));
+
+        ConfidenceInterval interval = createShareStatistics(3, 10).getWilsonInterval(RunningStatistics.Z95);
+        assertEquals(0.3, interval.estimate(), 1e-12);
+        assertEquals(0.1078, interval.lower(), 1e-4);
+        assertEquals(0.6032, interval.upper(), 1e-4);
+
+        ConfidenceInterval noneInterval = createShareStatistics(0, 10).getWilsonInterval(RunningStatistics.Z95);
+        assertEquals(0, noneInterval.lower());
+        assertEquals(0.2775, noneInterval.upper(), 1e-4);
+
+        ConfidenceInterval allInterval = createShareStatistics(10, 10).getWilsonInterval(RunningStatistics.Z95);
+        assertEquals(0.7225, allInterval.lower(), 1e-4);
+        assertEquals(1, allInterval.upper(), 1e-12);
+    }
+
+    /**
+     * Creates statistics of the given number of values, of which the given number are 1 and the others 0.
+     */
+    private static RunningStatistics createShareStatistics(int oneCount, int count) {
+        RunningStatistics statistics = new RunningStatistics();
+        for (int i = 0; i < count; i++) {
+            statistics.add(i < oneCount ? 1 : 0);
+        }
+        return statistics;
+    }
+
+}
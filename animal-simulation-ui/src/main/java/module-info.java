@@ -0,0 +1,10 @@
+module simulation.animal_simulation.ui {
+    requires javafx.controls;
+    requires javafx.fxml;
+    requires static org.jetbrains.annotations;
+    requires simulation.animal_simulation;
+
+
+    opens simulation.animal_simulation.ui to javafx.fxml;
+    exports simulation.animal_simulation.ui;
+}
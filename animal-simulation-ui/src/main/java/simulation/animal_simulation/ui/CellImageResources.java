@@ -1,4 +1,4 @@
-package simulation.animal_simulation;
+package simulation.animal_simulation.ui;
 
 import javafx.scene.image.Image;
 import simulation.animal_simulation.animals.Age;
@@ -1,4 +1,4 @@
-package simulation.animal_simulation;
+package simulation.animal_simulation.ui;
 
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -21,12 +21,16 @@ import javafx.stage.FileChooser;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
 import org.jetbrains.annotations.NotNull;
-import simulation.animal_simulation.animals.Animal;
-import simulation.animal_simulation.map.Ground;
+import simulation.animal_simulation.LoggerController;
+import simulation.animal_simulation.Simulation;
+import simulation.animal_simulation.SimulationSettings;
+import simulation.animal_simulation.animals.AnimalSpecies;
 import simulation.animal_simulation.map.Map;
+import simulation.animal_simulation.map.MapSnapshot;
 import simulation.animal_simulation.map.ShelterType;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -38,6 +42,8 @@ import java.util.List;
  * The simulation is run in steps, with each step representing a unit of time.
  * During each step, the grass on the map regrows and each animal takes its turn.
  * The simulation continues until there are no more living animals.
+ * The map and the charts are drawn from the snapshot published after each step, so they never read the map
+ * while the simulation thread changes it.
  */
 public class SimulationApplication extends Application {
 
@@ -59,6 +65,7 @@ public class SimulationApplication extends Application {
     public void stop() throws Exception {
         super.stop();
         simulationThread.interrupt();
+        if (map != null) map.close();
     }
 
     /**
@@ -218,8 +225,8 @@ public class SimulationApplication extends Application {
             map = simulation
                     .prepareSimulation(simulationSettings, new LoggerController(simulationSettings.logsEnabled));
             startSimulation();
-        } catch (IllegalAccessException illegalAccessException) {
-            illegalAccessException.printStackTrace();
+        } catch (IllegalAccessException | IOException exception) {
+            exception.printStackTrace();
         }
     }
 
@@ -231,9 +238,12 @@ public class SimulationApplication extends Application {
         setupLineCharts();
 
         GridPane gridPane = new GridPane();
-        drawMap(gridPane);
-
-        VBox vBox = new VBox(setupLineChartDataForAnimals(), setupLineChartDataForGrass());
+        map.publishSnapshot();
+        VBox vBox;
+        try (MapSnapshot snapshot = map.acquireSnapshot()) {
+            drawMap(gridPane, snapshot);
+            vBox = new VBox(setupLineChartDataForAnimals(snapshot), setupLineChartDataForGrass(snapshot));
+        }
         HBox hBox = new HBox(gridPane, vBox);
         Scene scene = new Scene(
                 hBox, simulationSettings.mapSize * cellSizeInDp * 2,
@@ -252,11 +262,13 @@ public class SimulationApplication extends Application {
                 }
 
                 map.doNextStep();
+                map.publishSnapshot();
 
                 Platform.runLater(() -> {
-                    drawMap(gridPane);
-                    updateLineChartData();
-                    map.resetGrassQuantity();
+                    try (MapSnapshot snapshot = map.acquireSnapshot()) {
+                        drawMap(gridPane, snapshot);
+                        updateLineChartData(snapshot);
+                    }
                 });
             }
         });
@@ -264,58 +276,44 @@ public class SimulationApplication extends Application {
     }
 
     /**
-     * Draws the map on the grid pane.
+     * Draws the map from the snapshot on the grid pane.
      */
-    private void drawMap(@NotNull GridPane gridPane) {
+    private void drawMap(@NotNull GridPane gridPane, @NotNull MapSnapshot snapshot) {
         gridPane.getChildren().clear();
 
-        Ground groundInVerticalLine = map.rootGround;
-        Ground groundInHorizontalLine = groundInVerticalLine;
-
-        while (groundInVerticalLine != null) {
-            while (groundInHorizontalLine != null) {
-                ImageView imageView = new ImageView();
-                setCellImageViewBasedOnGround(imageView, groundInHorizontalLine);
-                gridPane.add(
-                    imageView,
-                    (groundInHorizontalLine.coordinates.x - 1) * cellSizeInDp,
-                    (groundInHorizontalLine.coordinates.y - 1) * cellSizeInDp
-                );
-
-                map.increaseGrassQuantity(groundInHorizontalLine.getGrassQuantity());
-                groundInHorizontalLine = groundInHorizontalLine.getNextRight();
-            }
-
-            groundInVerticalLine = groundInVerticalLine.getNextBottom();
-            groundInHorizontalLine = groundInVerticalLine;
+        for (int id = 1; id <= snapshot.getGroundCount(); id++) {
+            ImageView imageView = new ImageView();
+            setCellImageViewBasedOnGround(imageView, snapshot, id);
+            gridPane.add(
+                imageView,
+                (id - 1) % snapshot.getSize() * cellSizeInDp,
+                (id - 1) / snapshot.getSize() * cellSizeInDp
+            );
         }
     }
 
     /**
-     * Sets the image of the cell based on the ground.
+     * Sets the image of the cell based on the ground with the given id in the snapshot.
      * If the ground has an animal, the image will be set based on the animal's species, age, and if it's alive.
      * If the ground has grass or thick vegetation, the image will be set based on the quantity of grass.
      * If the ground has a burrow, the image will be set to a burrow image.
      * If the ground is empty, the image will be set to an empty cell image.
      */
-    private void setCellImageViewBasedOnGround(@NotNull ImageView imageView, @NotNull Ground ground) {
-        if (ground.getAnimal() != null) {
-            Animal animal = ground.getAnimal();
+    private void setCellImageViewBasedOnGround(@NotNull ImageView imageView, @NotNull MapSnapshot snapshot, int id) {
+        AnimalSpecies species = snapshot.getAnimalSpecies(id);
+        int grassQuantity = snapshot.getGrassQuantity(id);
+        if (species != null) {
             imageView.setImage(
-                switch (animal.getSpecies()) {
+                switch (species) {
                     case Rabbit -> cellImageResources
-                            .getRabbitCellImage(animal.isAlive(), animal.getAge(), ground.getGrassQuantity());
+                            .getRabbitCellImage(snapshot.isAnimalAlive(id), snapshot.getAnimalAge(id), grassQuantity);
                     case Fox -> cellImageResources
-                            .getFoxCellImage(animal.isAlive(), animal.getAge(), ground.getGrassQuantity());
+                            .getFoxCellImage(snapshot.isAnimalAlive(id), snapshot.getAnimalAge(id), grassQuantity);
                 }
             );
-        } else if (ground.hasGrass()) {
-            imageView.setImage(cellImageResources.getGrassCellImageViewBasedOnQuantity(ground.getGrass().quantity));
-        } else if (ground.hasThickVegetation()) {
-            imageView.setImage(
-                cellImageResources.getGrassCellImageViewBasedOnQuantity(ground.getThickVegetation().quantity)
-            );
-        } else if (ground.getShelterType() == ShelterType.Burrow) {
+        } else if (grassQuantity > 0) {
+            imageView.setImage(cellImageResources.getGrassCellImageViewBasedOnQuantity(grassQuantity));
+        } else if (snapshot.getShelterType(id) == ShelterType.Burrow) {
             imageView.setImage(cellImageResources.burrowCellImage);
         } else {
             imageView.setImage(cellImageResources.emptyCellImage);
@@ -340,13 +338,13 @@ public class SimulationApplication extends Application {
     /**
      * Sets up the line chart data for animals.
      */
-    private LineChart<Number, Number> setupLineChartDataForAnimals() {
+    private LineChart<Number, Number> setupLineChartDataForAnimals(@NotNull MapSnapshot snapshot) {
         NumberAxis xAxis = new NumberAxis();
         NumberAxis yAxis = new NumberAxis();
         LineChart<Number, Number> lineChart = new LineChart<>(xAxis, yAxis);
         for (int i = 0; i < 25; i++) {
-            rabbitsSeries.getData().add(new XYChart.Data<>(i, map.getRabbitCount()));
-            foxesSeries.getData().add(new XYChart.Data<>(i, map.getFoxCount()));
+            rabbitsSeries.getData().add(new XYChart.Data<>(i, snapshot.getRabbitCount()));
+            foxesSeries.getData().add(new XYChart.Data<>(i, snapshot.getFoxCount()));
         }
         lineChart.getData().addAll(rabbitsSeries, foxesSeries);
         return lineChart;
@@ -355,12 +353,12 @@ public class SimulationApplication extends Application {
     /**
      * Sets up the line chart data for grass.
      */
-    private LineChart<Number, Number> setupLineChartDataForGrass() {
+    private LineChart<Number, Number> setupLineChartDataForGrass(@NotNull MapSnapshot snapshot) {
         NumberAxis xAxis = new NumberAxis();
         NumberAxis yAxis = new NumberAxis();
         LineChart<Number, Number> lineChart = new LineChart<>(xAxis, yAxis);
         for (int i = 0; i < 25; i++) {
-            grassSeries.getData().add(new XYChart.Data<>(i, map.getGrassQuantity()));
+            grassSeries.getData().add(new XYChart.Data<>(i, snapshot.getGrassQuantity()));
         }
         lineChart.getData().addAll(grassSeries);
         return lineChart;
@@ -369,7 +367,7 @@ public class SimulationApplication extends Application {
     /**
      * Updates the line chart data for animals and grass.
      */
-    private void updateLineChartData() {
+    private void updateLineChartData(@NotNull MapSnapshot snapshot) {
 
         rabbitsSeries.getData().removeFirst();
         foxesSeries.getData().removeFirst();
@@ -388,9 +386,9 @@ public class SimulationApplication extends Application {
             grassData.setXValue(grassX - 1);
         }
 
-        rabbitsSeries.getData().add(new XYChart.Data<>(dataSize, map.getRabbitCount()));
-        foxesSeries.getData().add(new XYChart.Data<>(dataSize, map.getFoxCount()));
-        grassSeries.getData().add(new XYChart.Data<>(dataSize, map.getGrassQuantity()));
+        rabbitsSeries.getData().add(new XYChart.Data<>(dataSize, snapshot.getRabbitCount()));
+        foxesSeries.getData().add(new XYChart.Data<>(dataSize, snapshot.getFoxCount()));
+        grassSeries.getData().add(new XYChart.Data<>(dataSize, snapshot.getGrassQuantity()));
 
     }
 